@@ -0,0 +1,31 @@
+package com.viewton;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of the aggregate sub-queries of a request.
+ *
+ * @param <T> The entity type.
+ */
+@Getter
+@RequiredArgsConstructor
+class AggregateResult<T> {
+
+    /**
+     * Sum values, {@code null} if sum is not requested.
+     */
+    private final List<T> sum;
+
+    /**
+     * Average values, {@code null} if avg is not requested.
+     */
+    private final List<T> avg;
+
+    /**
+     * Total count of entities matching the query, {@code null} if it was not calculated along with aggregates.
+     */
+    private final Long count;
+}
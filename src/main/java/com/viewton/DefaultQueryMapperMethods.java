@@ -9,6 +9,7 @@ import com.viewton.utils.ArraysUtil;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -46,6 +47,10 @@ import java.util.regex.Pattern;
  * totalAttributes: Set to total=true (enabling total calculation).
  * distinct: If the request contains distinct, it will be true.
  * count: If the request contains count, it will be true.
+ * noList: If the request contains no_list, it will be true (entities are not selected).
+ * hasNext: If the request contains has_next, it will be true (response tells if there is a next page).
+ * keyset: If the request contains keyset or after, it will be true (pages are selected by cursor instead of offset).
+ * after: Set to the cursor of the page (the next cursor of the previous response).
  * total: Set to true.}
  * </pre>
  */
@@ -63,6 +68,10 @@ public class DefaultQueryMapperMethods {
     public static final String COUNT = "count";
     public static final String FIRST_PAGE = "1";
     public static final String AVG_ATTRIBUTES = "avg";
+    public static final String NO_LIST = "no_list";
+    public static final String HAS_NEXT = "has_next";
+    public static final String KEYSET = "keyset";
+    public static final String AFTER = "after";
 
     private static final Set<String> PREDEFINED_ATTRIBUTES = Set.of(
             PAGE,
@@ -72,7 +81,11 @@ public class DefaultQueryMapperMethods {
             DISTINCT,
             COUNT,
             SUM_ATTRIBUTES,
-            AVG_ATTRIBUTES
+            AVG_ATTRIBUTES,
+            NO_LIST,
+            HAS_NEXT,
+            KEYSET,
+            AFTER
     );
 
     /**
@@ -108,10 +121,8 @@ public class DefaultQueryMapperMethods {
      * @return the page size as an integer.
      */
     public static int mapPageSize(Map<String, String> requestParams, int defaultPageSize) {
-        if (defaultPageSize == -1) {
-            defaultPageSize = Integer.MAX_VALUE;
-        }
-        return Integer.parseInt(requestParams.getOrDefault(PAGE_SIZE, Integer.toString(defaultPageSize)));
+        int pageSize = Integer.parseInt(requestParams.getOrDefault(PAGE_SIZE, Integer.toString(defaultPageSize)));
+        return pageSize == -1 ? Integer.MAX_VALUE : pageSize;
     }
 
     /**
@@ -161,7 +172,7 @@ public class DefaultQueryMapperMethods {
      */
     private static List<String> mapAttributes(Map<String, String> requestParams, String attributeType) {
         return Optional.ofNullable(requestParams.get(attributeType))
-                .map(attributes -> Arrays.asList(attributes.split(ATTRIBUTES_SEPARATOR)))
+                .map(attributes -> List.of(attributes.split(ATTRIBUTES_SEPARATOR)))
                 .orElse(null);
     }
 
@@ -204,8 +215,16 @@ public class DefaultQueryMapperMethods {
             throw new RuntimeException(String.format("Invalid '%s' operation syntax: %s", attributeType, rawAvgAttributes));
         }
 
-        return aggregateAttributesConstructor.apply(ArraysUtil.asListSafe(avgAttributes),
-                ArraysUtil.asListSafe(mapGroupByExpression(rawAvgAttributes)));
+        return aggregateAttributesConstructor.apply(unmodifiableList(avgAttributes),
+                unmodifiableList(mapGroupByExpression(rawAvgAttributes)));
+    }
+
+    /**
+     * Parsed queries are cached and shared, so their lists could not be modified.
+     */
+    private static List<String> unmodifiableList(String[] array) {
+        List<String> list = ArraysUtil.asListSafe(array);
+        return list == null ? null : Collections.unmodifiableList(list);
     }
 
     private static String[] mapGroupByExpression(String expression) {
@@ -238,6 +257,49 @@ public class DefaultQueryMapperMethods {
         return requestParams.containsKey(COUNT);
     }
 
+    /**
+     * Determines if the query parameters indicate that entities should not be selected,
+     * so only count and aggregates are returned.
+     *
+     * @param requestParams the map of query parameters.
+     * @return {@code true} if entities are not requested, otherwise {@code false}.
+     */
+    public static boolean isNoList(Map<String, String> requestParams) {
+        return requestParams.containsKey(NO_LIST);
+    }
+
+    /**
+     * Determines if the query parameters indicate that the response should tell
+     * if there is a next page, without counting all the entities.
+     *
+     * @param requestParams the map of query parameters.
+     * @return {@code true} if next page check is requested, otherwise {@code false}.
+     */
+    public static boolean isHasNext(Map<String, String> requestParams) {
+        return requestParams.containsKey(HAS_NEXT);
+    }
+
+    /**
+     * Determines if the query parameters indicate that keyset pagination is required.
+     * The cursor of a subsequent page implies keyset pagination.
+     *
+     * @param requestParams the map of query parameters.
+     * @return {@code true} if keyset pagination is requested, otherwise {@code false}.
+     */
+    public static boolean isKeyset(Map<String, String> requestParams) {
+        return requestParams.containsKey(KEYSET) || requestParams.containsKey(AFTER);
+    }
+
+    /**
+     * Maps the query parameters to the cursor of the page in keyset pagination.
+     *
+     * @param requestParams the map of query parameters.
+     * @return the cursor, or {@code null} for the first page.
+     */
+    public static String mapAfter(Map<String, String> requestParams) {
+        return requestParams.get(AFTER);
+    }
+
     /**
      * Determines if the query parameters indicate that total information is required.
      *
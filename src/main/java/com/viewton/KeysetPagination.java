@@ -0,0 +1,168 @@
+package com.viewton;
+
+import com.viewton.dto.ComparableValue;
+import com.viewton.dto.Order;
+import com.viewton.dto.RawOrderBy;
+import com.viewton.dto.RawValue;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.type.JavaTypeToComparableResolver;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination. Instead of skipping {@code (page - 1) * page_size} rows, the next page is selected
+ * by the values of sorting attributes of the last entity of the previous page:
+ * <pre>
+ * sorting=-date, cursor (date=D, id=I)
+ * where date &lt; D or (date = D and id &gt; I) order by date desc, id asc
+ * </pre>
+ * Entity id is added to sorting as a tie-breaker, so the order of entities is total.
+ * <p>
+ * Cursor is an opaque token which contains these values. Values are written by {@link Object#toString()}
+ * and read by {@link JavaTypeToComparableResolver}, the same way as values of where clauses.
+ * </p>
+ * <p>
+ * Sorting attributes could be nullable. Nulls ordering differs between databases, so keyset pages are ordered
+ * with nulls as the smallest values explicitly (first in ascending order, last in descending order),
+ * and the seek predicate follows the same order:
+ * </p>
+ * <pre>
+ * sorting=name, cursor (name=null, id=I):  where name is not null or (name is null and id &gt; I)
+ * sorting=-name, cursor (name=N, id=I):    where name &lt; N or name is null or (name = N and id &gt; I)
+ * </pre>
+ */
+final class KeysetPagination {
+
+    private static final String SEPARATOR = ".";
+    private static final String NULL = "~";
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Returns keys of the query: sorting attributes followed by the entity id if it is not sorted already.
+     *
+     * @param query       The `ViewtonQuery` containing sorting parameters.
+     * @param idAttribute The id attribute of the entity.
+     * @return Attributes which define the order of entities and the cursor.
+     */
+    static List<RawOrderBy> keys(ViewtonQuery query, String idAttribute) {
+        List<RawOrderBy> keys = new ArrayList<>(query.getRawOrderByes());
+        if (keys.stream().noneMatch(key -> key.getFieldName().equals(idAttribute))) {
+            keys.add(new RawOrderBy(idAttribute, Order.ASCENDING));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Builds the predicate which selects entities following the cursor in the order of keys.
+     *
+     * @param keys   Keys of the query, see {@link #keys(ViewtonQuery, String)}.
+     * @param cursor The cursor of the last entity of the previous page.
+     * @param root   The root of the entity being queried.
+     * @param cb     The CriteriaBuilder used to build the predicate.
+     * @return The seek predicate.
+     * @throws IllegalArgumentException If the cursor is malformed or does not match the keys.
+     */
+    @SuppressWarnings("unchecked")
+    static Predicate seekPredicate(List<RawOrderBy> keys, String cursor, Root<?> root, CriteriaBuilder cb) {
+        List<String> values = decode(cursor);
+        if (values.size() != keys.size()) {
+            throw new IllegalArgumentException("Cursor does not match sorting: " + cursor);
+        }
+
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            RawOrderBy key = keys.get(i);
+            Path path = root.get(key.getFieldName());
+            Comparable value = toComparable(values.get(i), path);
+
+            Predicate following = following(key, path, value, cb);
+            if (following != null) {
+                List<Predicate> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(following);
+                alternatives.add(cb.and(alternative.toArray(new Predicate[0])));
+            }
+            equalPrefix.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+        }
+
+        return cb.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Returns the predicate of values of a key following the value of the cursor, with nulls as the smallest values.
+     *
+     * @return The predicate, {@code null} if no values follow the value, i.e. null in descending order.
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate following(RawOrderBy key, Path path, Comparable value, CriteriaBuilder cb) {
+        if (key.isAscending()) {
+            return value == null ? cb.isNotNull(path) : cb.greaterThan(path, value);
+        }
+
+        return value == null ? null : cb.or(cb.lessThan(path, value), cb.isNull(path));
+    }
+
+    /**
+     * Encodes values of keys of an entity to the cursor.
+     *
+     * @param values Values of keys in the order of keys.
+     * @return The opaque cursor.
+     */
+    static String encode(List<?> values) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> parts = new ArrayList<>();
+        for (Object value : values) {
+            parts.add(value == null
+                    ? NULL
+                    : encoder.encodeToString(value.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        return String.join(SEPARATOR, parts);
+    }
+
+    /**
+     * Decodes the cursor to raw values of keys.
+     *
+     * @param cursor The cursor created by {@link #encode(List)}.
+     * @return Raw values of keys, {@code null} for null values.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    static List<String> decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            throw new IllegalArgumentException("Cursor is empty");
+        }
+
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        List<String> values = new ArrayList<>();
+        for (String part : cursor.split("\\" + SEPARATOR, -1)) {
+            try {
+                values.add(NULL.equals(part) ? null : new String(decoder.decode(part), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+            }
+        }
+
+        return values;
+    }
+
+    private static Comparable toComparable(String value, Path<?> path) {
+        if (value == null) {
+            return null;
+        }
+
+        RawValue rawValue = new RawValue(value, false, path.getJavaType());
+        ComparableValue comparableValue = JavaTypeToComparableResolver.toJavaComparable(rawValue);
+
+        return comparableValue.getValue();
+    }
+}
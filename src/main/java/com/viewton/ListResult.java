@@ -0,0 +1,59 @@
+package com.viewton;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of the list query along with the facts about the whole selection known after it was performed.
+ *
+ * @param <T> The entity type.
+ */
+@Getter
+class ListResult<T> {
+
+    /**
+     * Selected page of entities, {@code null} if the page was streamed without collecting it.
+     */
+    private final List<T> list;
+
+    /**
+     * Number of rows selected by the list query, which could be greater than the size of the list
+     * if entities were deleted between the queries of the deferred join.
+     */
+    private final int size;
+
+    /**
+     * Total count of entities matching the query, {@code null} if it is not known from the list query.
+     */
+    private final Long total;
+
+    /**
+     * Whether there are entities after the selected page, {@code null} if it was not checked.
+     */
+    private final Boolean hasNext;
+
+    /**
+     * Cursor of the next page in keyset pagination, {@code null} if there is no next page.
+     */
+    private final String nextCursor;
+
+    ListResult(List<T> list, Long total, Boolean hasNext, String nextCursor) {
+        this(list, list.size(), total, hasNext, nextCursor);
+    }
+
+    ListResult(List<T> list, int size, Long total, Boolean hasNext, String nextCursor) {
+        this.list = list;
+        this.size = size;
+        this.total = total;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Creates the result of a page which was streamed without collecting it.
+     */
+    static <T> ListResult<T> streamed(int size, Long total, Boolean hasNext, String nextCursor) {
+        return new ListResult<>(null, size, total, hasNext, nextCursor);
+    }
+}
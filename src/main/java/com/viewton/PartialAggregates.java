@@ -0,0 +1,147 @@
+package com.viewton;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges partial aggregates of slices of a query into the aggregates of the whole query, per group.
+ * <p>
+ * Every slice selects mergeable states of aggregates:
+ * <pre>
+ * select group..., sum(a)..., sum(b)..., count(b)..., count(*) from entity where ... and slice group by group...
+ * </pre>
+ * Sums and counts are added, and the average of an attribute is its total sum divided by its total count
+ * of non-null values, so the result is the same as of a single query:
+ * <pre>
+ * group..., sum(a)..., avg(b)..., count(*)
+ * </pre>
+ * Groups are returned sorted by their values, with nulls first, so pagination of groups does not depend
+ * on the order slices were merged in.
+ * </p>
+ */
+class PartialAggregates {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Object> VALUE_ORDER = Comparator.nullsFirst(
+            (left, right) -> ((Comparable) left).compareTo(right));
+
+    private final int groupSize;
+    private final int sums;
+    private final int avgs;
+    private final boolean withCount;
+
+    /**
+     * States of groups: sums, sums of averaged attributes, counts of averaged attributes and the count.
+     */
+    private final Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+
+    /**
+     * @param groupSize The number of group by attributes.
+     * @param sums      The number of summed attributes.
+     * @param avgs      The number of averaged attributes.
+     * @param withCount Whether the count of entities is selected.
+     */
+    PartialAggregates(int groupSize, int sums, int avgs, boolean withCount) {
+        this.groupSize = groupSize;
+        this.sums = sums;
+        this.avgs = avgs;
+        this.withCount = withCount;
+    }
+
+    /**
+     * Merges a partial row of a slice: group values, sums, sums and counts of averaged attributes,
+     * and the count if it is selected.
+     */
+    void add(Object[] partial) {
+        List<Object> group = Arrays.asList(Arrays.copyOf(partial, groupSize));
+        Object[] state = groups.computeIfAbsent(group, key -> new Object[partial.length - groupSize]);
+        for (int i = 0; i < state.length; i++) {
+            state[i] = add(state[i], partial[groupSize + i]);
+        }
+    }
+
+    /**
+     * @return Rows of group values, sums, averages and the count if it is selected, sorted by group values.
+     * An aggregate without group by has a single row even if nothing was merged, like an aggregate query
+     * of an empty selection.
+     */
+    List<Object[]> getRows() {
+        if (groups.isEmpty() && groupSize == 0) {
+            Object[] empty = new Object[sums + avgs * 2 + (withCount ? 1 : 0)];
+            if (withCount) {
+                empty[empty.length - 1] = 0L;
+            }
+            groups.put(List.of(), empty);
+        }
+
+        List<List<Object>> sorted = new ArrayList<>(groups.keySet());
+        sorted.sort(PartialAggregates::compareGroups);
+
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (List<Object> group : sorted) {
+            Object[] state = groups.get(group);
+            Object[] row = new Object[groupSize + sums + avgs + (withCount ? 1 : 0)];
+            for (int i = 0; i < groupSize; i++) {
+                row[i] = group.get(i);
+            }
+            System.arraycopy(state, 0, row, groupSize, sums);
+            for (int i = 0; i < avgs; i++) {
+                Number sum = (Number) state[sums + i];
+                Number count = (Number) state[sums + avgs + i];
+                row[groupSize + sums + i] = sum == null || count == null || count.longValue() == 0
+                        ? null
+                        : sum.doubleValue() / count.longValue();
+            }
+            if (withCount) {
+                Number count = (Number) state[state.length - 1];
+                row[row.length - 1] = count == null ? 0L : count.longValue();
+            }
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    private static int compareGroups(List<Object> left, List<Object> right) {
+        for (int i = 0; i < left.size(); i++) {
+            int comparison = VALUE_ORDER.compare(left.get(i), right.get(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Adds partial values the way the database does: {@code null} is skipped, and the sum has the type of values.
+     */
+    private static Object add(Object total, Object value) {
+        if (total == null) {
+            return value;
+        }
+        if (value == null) {
+            return total;
+        }
+        if (total instanceof BigDecimal decimal) {
+            return decimal.add(value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString()));
+        }
+        if (total instanceof BigInteger integer) {
+            return integer.add(value instanceof BigInteger ? (BigInteger) value : BigInteger.valueOf(((Number) value).longValue()));
+        }
+        if (total instanceof Double || total instanceof Float) {
+            return ((Number) total).doubleValue() + ((Number) value).doubleValue();
+        }
+        if (total instanceof Long || total instanceof Integer || total instanceof Short) {
+            return ((Number) total).longValue() + ((Number) value).longValue();
+        }
+
+        throw new IllegalStateException("Unable to merge aggregates of " + total.getClass().getName());
+    }
+}
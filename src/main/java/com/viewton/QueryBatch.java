@@ -0,0 +1,213 @@
+package com.viewton;
+
+import com.viewton.dto.RawOrderBy;
+import com.viewton.dto.RawValue;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.operator.EqualOperator;
+import com.viewton.operator.OrOperator;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Merging of a batch of queries of the same entity into fewer queries. List queries which differ only
+ * in the value of an equality condition of the same attribute are merged into a single query of all the values:
+ * <pre>
+ * status=NEW&amp;sorting=id
+ * status=PAID&amp;sorting=id    -&gt;    status=NEW|PAID&amp;sorting=id
+ * </pre>
+ * Rows of the merged query are split back by the value of the attribute, see {@link Merge#split(List, int, Class)}.
+ * <p>
+ * Only conditions which compare values exactly are merged, so strings (compared by {@code like}) and {@code null}
+ * are not. Queries with count, aggregates, distinct, has next or keyset pagination are not merged either.
+ * </p>
+ */
+final class QueryBatch {
+
+    private QueryBatch() {
+    }
+
+    /**
+     * Groups the queries which could be merged. A query having several mergeable conditions is merged
+     * by the one shared with the most queries.
+     *
+     * @param queries The queries of the batch.
+     * @param exact   Checks if an attribute is compared exactly, so rows could be split by its value.
+     * @return Merges of at least two queries. Queries which are not merged are not returned.
+     */
+    static List<Merge> merge(List<ViewtonQuery> queries, Predicate<String> exact) {
+        List<Map<Key, RawWhereClause>> candidates = new ArrayList<>(queries.size());
+        Map<Key, Integer> counts = new HashMap<>();
+        for (ViewtonQuery query : queries) {
+            Map<Key, RawWhereClause> keys = keys(query, exact);
+            keys.keySet().forEach(key -> counts.merge(key, 1, Integer::sum));
+            candidates.add(keys);
+        }
+
+        Map<Key, Merge> merges = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            Key best = null;
+            for (Key key : candidates.get(i).keySet()) {
+                if (counts.get(key) > 1 && (best == null || counts.get(key) > counts.get(best))) {
+                    best = key;
+                }
+            }
+            if (best != null) {
+                merges.computeIfAbsent(best, Merge::new).add(i, candidates.get(i).get(best));
+            }
+        }
+
+        return merges.values().stream().filter(merge -> merge.getIndexes().size() > 1).toList();
+    }
+
+    /**
+     * Returns the keys of the query without one of its mergeable conditions, along with the condition.
+     */
+    private static Map<Key, RawWhereClause> keys(ViewtonQuery query, Predicate<String> exact) {
+        if (!query.doNotCount() || query.isSum() || !query.doNotAvg() || query.doNotList() || query.isDistinct()
+                || query.isHasNext() || query.isKeyset() || query.getAfter() != null) {
+            return Map.of();
+        }
+
+        Map<Key, RawWhereClause> keys = new HashMap<>();
+        for (RawWhereClause clause : query.getRawWhereClauses()) {
+            if (isMergeable(clause, query, exact)) {
+                Set<RawWhereClause> rest = new HashSet<>(query.getRawWhereClauses());
+                rest.remove(clause);
+                keys.put(new Key(rest, clause.getFieldName(), query), clause);
+            }
+        }
+
+        return keys;
+    }
+
+    private static boolean isMergeable(RawWhereClause clause, ViewtonQuery query, Predicate<String> exact) {
+        return clause.getOperator().getClass() == EqualOperator.class
+                && clause.getValues().size() == 1
+                && !"null".equals(clause.getValues().get(0).getValue())
+                // rows are split by the value, so it should be selected
+                && (query.getAttributes() == null || query.getAttributes().contains(clause.getFieldName()))
+                && exact.test(clause.getFieldName());
+    }
+
+    /**
+     * A query without the merged condition. Conditions are compared regardless of their order.
+     */
+    @EqualsAndHashCode
+    private static final class Key {
+        private final Set<RawWhereClause> rest;
+        private final String attribute;
+        private final List<RawOrderBy> orders;
+        private final List<String> attributes;
+        private final int pageSize;
+        private final int offset;
+
+        private Key(Set<RawWhereClause> rest, String attribute, ViewtonQuery query) {
+            this.rest = rest;
+            this.attribute = attribute;
+            this.orders = query.getRawOrderByes();
+            this.attributes = query.getAttributes();
+            this.pageSize = query.getPageSize();
+            this.offset = query.getPage();
+        }
+    }
+
+    /**
+     * Queries of the batch merged into a single query.
+     */
+    static final class Merge {
+        private final Key key;
+        @Getter
+        private final List<Integer> indexes = new ArrayList<>();
+        private final List<RawWhereClause> clauses = new ArrayList<>();
+        private final Set<RawValue> values = new LinkedHashSet<>();
+
+        private Merge(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * @return The attribute which values are merged.
+         */
+        String getAttribute() {
+            return key.attribute;
+        }
+
+        private void add(int index, RawWhereClause clause) {
+            indexes.add(index);
+            clauses.add(clause);
+            values.add(clause.getValues().get(0));
+        }
+
+        /**
+         * Builds the merged query. Its page is the first one, and it is large enough to hold the requested pages
+         * of all the values if rows are evenly distributed between them.
+         */
+        ViewtonQuery getQuery() {
+            List<RawWhereClause> clauses = new ArrayList<>(key.rest);
+            clauses.add(new RawWhereClause(key.attribute, new OrOperator(), new ArrayList<>(values)));
+
+            return ViewtonQuery.builder()
+                    .rawWhereClauses(clauses)
+                    .rawOrderByes(key.orders)
+                    .attributes(key.attributes)
+                    .pageSize(getLimit())
+                    .page(1)
+                    .build();
+        }
+
+        /**
+         * Splits rows of the merged query into pages of the merged queries.
+         *
+         * @param rows     Rows of the merged query.
+         * @param column   The index of the value of the merged attribute in a row.
+         * @param javaType The Java type of the merged attribute.
+         * @return Pages by indexes of queries in the batch. A query is missing if its page could be cut off
+         * by the limit of the merged query, so it should be performed on its own.
+         */
+        Map<Integer, List<Object[]>> split(List<Object[]> rows, int column, Class<?> javaType) {
+            Map<Object, List<Object[]>> byValue = new HashMap<>();
+            rows.forEach(row -> byValue.computeIfAbsent(normalize(row[column]), value -> new ArrayList<>()).add(row));
+            boolean truncated = rows.size() >= getLimit();
+
+            int offset = key.offset;
+            int end = (int) Math.min(Integer.MAX_VALUE, (long) offset + key.pageSize);
+            Map<Integer, List<Object[]>> pages = new HashMap<>();
+            for (int i = 0; i < indexes.size(); i++) {
+                Object value = clauses.get(i).toComparableValues(javaType).get(0).getValue();
+                List<Object[]> valueRows = byValue.getOrDefault(normalize(value), List.of());
+                if (!truncated || valueRows.size() >= end) {
+                    pages.put(indexes.get(i), valueRows.subList(Math.min(offset, valueRows.size()),
+                            Math.min(end, valueRows.size())));
+                }
+            }
+
+            return pages;
+        }
+
+        private int getLimit() {
+            if (key.pageSize == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+
+            return (int) Math.min(Integer.MAX_VALUE, ((long) key.offset + key.pageSize) * values.size());
+        }
+
+        /**
+         * Equal decimals of different scales are the same value.
+         */
+        private static Object normalize(Object value) {
+            return value instanceof BigDecimal decimal ? decimal.stripTrailingZeros() : value;
+        }
+    }
+}
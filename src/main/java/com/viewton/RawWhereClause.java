@@ -1,13 +1,19 @@
 package com.viewton;
 
+import com.viewton.dto.ComparableValue;
 import com.viewton.dto.RawValue;
 import com.viewton.operator.NotEqualOperator;
 import com.viewton.operator.Operator;
 import com.viewton.operator.OperatorContext;
-import lombok.Data;
+import com.viewton.type.JavaTypeToComparableResolver;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class represents a parsed "where" clause from the query parameters in a request.
@@ -24,8 +30,14 @@ import java.util.List;
  *   <li>values: [1000]</li>
  * </ul>
  * </p>
+ *
+ * <p>The clause is immutable, so it could be cached and shared between requests and threads.
+ * Values converted to the Java type of the compared field are memoized by the clause,
+ * so a shared clause converts its values only once.</p>
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 public class RawWhereClause {
 
     /**
@@ -41,7 +53,11 @@ public class RawWhereClause {
     /**
      * The operator for the condition (e.g., equals, greater than, not equals)
      */
-    private Operator operator;
+    private final Operator operator;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<Class<?>, List<ComparableValue>> comparableValues = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new {@link RawWhereClause} by parsing the provided condition string.
@@ -55,6 +71,32 @@ public class RawWhereClause {
         this.values = parseValues(rawCondition, operator);
     }
 
+    /**
+     * Constructs a new {@link RawWhereClause} of already parsed operator and values.
+     *
+     * @param fieldName the name of the field being filtered (e.g., "sum", "total")
+     * @param operator  the operator for the condition
+     * @param values    the values to be compared with the field
+     */
+    protected RawWhereClause(String fieldName, Operator operator, List<RawValue> values) {
+        this.fieldName = fieldName;
+        this.operator = operator;
+        this.values = List.copyOf(values);
+    }
+
+    /**
+     * Converts the values of the clause to the Java type of the compared field.
+     * Conversion is performed once per type, subsequent calls return the same values.
+     *
+     * @param javaType the Java type of the compared field
+     * @return a list of {@link ComparableValue} in the order of {@link #getValues()}.
+     */
+    public List<ComparableValue> toComparableValues(Class<?> javaType) {
+        return comparableValues.computeIfAbsent(javaType, type -> getValues().stream()
+                .map(rawValue -> JavaTypeToComparableResolver.toJavaComparable(rawValue.withJavaType(type)))
+                .toList());
+    }
+
     /**
      * Parses the filter values based on the operator.
      *
@@ -72,15 +114,11 @@ public class RawWhereClause {
         } else if ("|".equals(operator.getValue())) {
             return splitToRawValue(filterValue, "\\|");
         } else {
-            RawValue rawValue = new RawValue();
             if (filterValue.contains("^")) {
-                rawValue.setIgnoreCase(true);
-                rawValue.setValue(filterValue.replace("^", "").replaceFirst(operator.getValue(), ""));
-            } else {
-                rawValue.setValue(filterValue.replaceFirst(operator.getValue(), ""));
+                return List.of(new RawValue(filterValue.replace("^", "").replaceFirst(operator.getValue(), ""), true));
             }
 
-            return List.of(rawValue);
+            return List.of(new RawValue(filterValue.replaceFirst(operator.getValue(), ""), false));
         }
     }
 
@@ -93,14 +131,10 @@ public class RawWhereClause {
      */
     public List<RawValue> splitToRawValue(String filterValue, String splitRegex) {
         return Arrays.stream(filterValue.split(splitRegex)).map(value -> {
-            RawValue rawValue = new RawValue();
             if (value.contains("^")) {
-                rawValue.setValue(value.replace("^", ""));
-                rawValue.setIgnoreCase(true);
-            } else {
-                rawValue.setValue(value);
+                return new RawValue(value.replace("^", ""), true);
             }
-            return rawValue;
+            return new RawValue(value, false);
         }).toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,504 @@
+package com.viewton;
+
+import com.viewton.dto.RawOrderBy;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A response of rows of selected values serialized to bytes, the way responses are stored by the off-heap tier
+ * of {@link ViewtonResultCache}:
+ * <pre>
+ * count, has next, next cursor,
+ * list:  number of rows, length of rows, offsets of rows..., rows...
+ * sum:   number of rows, length of rows, offsets of rows..., rows...
+ * avg:   number of rows, length of rows, offsets of rows..., rows...
+ * </pre>
+ * Rows are decoded lazily, when they are read from the lists of the response, so only the rows actually read
+ * are decoded and mapped. Values of the types supported by filters (numbers, booleans, strings, enums and dates)
+ * are serialized, and a response with a value of another type is not serialized at all.
+ * <p>
+ * Stored responses could outlive the mapping they were selected by, so keys include a fingerprint of the mapping
+ * (see {@link #mapping(ManagedType)}), and restored responses are checked to be decoded by {@link #isReadable}.
+ * </p>
+ */
+final class SerializedResponse {
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte SHORT = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte FLOAT = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte BIG_DECIMAL = 7;
+    private static final byte BIG_INTEGER = 8;
+    private static final byte STRING = 9;
+    private static final byte ENUM = 10;
+    private static final byte LOCAL_DATE = 11;
+    private static final byte LOCAL_DATE_TIME = 12;
+
+    private static final Map<String, Class<?>> ENUM_TYPES = new ConcurrentHashMap<>();
+    private static final Map<ManagedType<?>, String> MAPPINGS = new ConcurrentHashMap<>();
+
+    /**
+     * The serialized response, {@code null} if it has values which could not be serialized.
+     */
+    private final byte[] data;
+
+    /**
+     * The response which could not be serialized.
+     */
+    private final ViewtonResponseDto<Object[]> rows;
+    private final AtomicBoolean stored = new AtomicBoolean();
+
+    private SerializedResponse(byte[] data, ViewtonResponseDto<Object[]> rows) {
+        this.data = data;
+        this.rows = rows;
+    }
+
+    /**
+     * Serializes the response.
+     *
+     * @param response Rows of values of selected attributes and aggregates.
+     * @return The serialized response, or the response as is if it has values which could not be serialized.
+     */
+    static SerializedResponse of(ViewtonResponseDto<Object[]> response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(response.getCount() != null);
+            out.writeLong(response.getCount() == null ? 0 : response.getCount());
+            out.writeByte(response.getHasNext() == null ? 0 : response.getHasNext() ? 2 : 1);
+            writeString(out, response.getNextCursor());
+            writeRows(out, response.getList());
+            writeRows(out, response.getSum());
+            writeRows(out, response.getAvg());
+        } catch (Unsupported e) {
+            return new SerializedResponse(null, response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new SerializedResponse(bytes.toByteArray(), null);
+    }
+
+    /**
+     * @param data A response serialized by {@link #of(ViewtonResponseDto)}.
+     * @return The response, which rows are not decoded yet.
+     */
+    static SerializedResponse restore(byte[] data) {
+        return new SerializedResponse(data, null);
+    }
+
+    /**
+     * Checks that all the values of a restored response could be decoded, e.g. that it was not stored by a version
+     * of the application with other enum constants or another format.
+     *
+     * @param data A response serialized by {@link #of(ViewtonResponseDto)}.
+     * @return {@code true} if all the rows are decoded.
+     */
+    static boolean isReadable(byte[] data) {
+        try {
+            ViewtonResponseDto<Object[]> response = restore(data)
+                    .toResponse(Function.identity(), Function.identity(), Function.identity());
+            decode(response.getList());
+            decode(response.getSum());
+            decode(response.getAvg());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a fingerprint of the mapping of an entity: the names and the Java types of its attributes,
+     * and the constants of its enums. Responses stored by an application with another mapping have other keys,
+     * so they are never mapped to fields of other types.
+     *
+     * @param model The entity type of the metamodel.
+     * @return The fingerprint.
+     */
+    static String mapping(ManagedType<?> model) {
+        return MAPPINGS.computeIfAbsent(model, SerializedResponse::fingerprint);
+    }
+
+    /**
+     * Builds the key of a query, which is the same for equal queries in any process, unlike
+     * the {@link Object#hashCode()} of its operators. Strings are prefixed by their length, so values
+     * could not be crafted to make the key of another query.
+     *
+     * @param query      The query selecting explicit attributes.
+     * @param entityType The entity type of the query.
+     * @param mapping    The fingerprint of the mapping of the entity type, see {@link #mapping(ManagedType)}.
+     * @return The key.
+     */
+    static String key(ViewtonQuery query, Class<?> entityType, String mapping) {
+        StringBuilder key = new StringBuilder();
+        append(key, entityType.getName());
+        append(key, mapping);
+        append(key, String.valueOf(query.getAttributes()));
+        List<String> clauses = new ArrayList<>();
+        for (RawWhereClause clause : query.getRawWhereClauses()) {
+            StringBuilder canonical = new StringBuilder();
+            append(canonical, clause.getFieldName());
+            append(canonical, clause.getOperator().getClass().getName());
+            clause.getValues().forEach(value -> append(canonical, String.valueOf(value)));
+            clauses.add(canonical.toString());
+        }
+        // conditions are combined by and, so their order does not matter
+        clauses.sort(null);
+        clauses.forEach(clause -> append(key, clause));
+        key.append('|');
+        for (RawOrderBy order : query.getRawOrderByes()) {
+            append(key, String.valueOf(order));
+        }
+        append(key, String.valueOf(query.getSum()));
+        append(key, String.valueOf(query.getAvg()));
+        append(key, String.valueOf(query.getAfter()));
+        key.append(query.getPageSize()).append(',').append(query.getPage()).append(',')
+                .append(query.isCount()).append(',').append(query.isDistinct()).append(',')
+                .append(query.isNoList()).append(',').append(query.isHasNext()).append(',').append(query.isKeyset());
+
+        return key.toString();
+    }
+
+    /**
+     * @return The serialized response, {@code null} if it could not be serialized.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Marks the response as stored by the cache, so a response shared by several requests is stored once.
+     *
+     * @return {@code true} if the response was not marked before.
+     */
+    boolean markStored() {
+        return stored.compareAndSet(false, true);
+    }
+
+    /**
+     * Returns the response of rows mapped to the result type. Rows are decoded and mapped when they are read
+     * for the first time, and then the mapped rows are kept by the lists of the response.
+     *
+     * @param list Maps a row of the list.
+     * @param sum  Maps a row of sums.
+     * @param avg  Maps a row of averages.
+     * @param <P>  The result type.
+     * @return The response.
+     */
+    <P> ViewtonResponseDto<P> toResponse(
+            Function<Object[], P> list,
+            Function<Object[], P> sum,
+            Function<Object[], P> avg
+    ) {
+        if (data == null) {
+            ViewtonResponseDto<P> response = new ViewtonResponseDto<>(
+                    map(rows.getList(), list), map(rows.getSum(), sum), map(rows.getAvg(), avg), rows.getCount());
+            response.setHasNext(rows.getHasNext());
+            response.setNextCursor(rows.getNextCursor());
+            return response;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        boolean counted = buffer.get() != 0;
+        long count = buffer.getLong();
+        byte hasNext = buffer.get();
+        String nextCursor = readString(buffer);
+        ViewtonResponseDto<P> response = new ViewtonResponseDto<>(
+                readRows(buffer, list), readRows(buffer, sum), readRows(buffer, avg), counted ? count : null);
+        response.setHasNext(hasNext == 0 ? null : hasNext == 2);
+        response.setNextCursor(nextCursor);
+
+        return response;
+    }
+
+    private static void decode(List<Object[]> rows) {
+        if (rows != null) {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i);
+            }
+        }
+    }
+
+    private static String fingerprint(ManagedType<?> model) {
+        StringBuilder mapping = new StringBuilder();
+        model.getAttributes().stream()
+                .sorted(Comparator.comparing(Attribute::getName))
+                .forEach(attribute -> {
+                    Class<?> type = attribute.getJavaType();
+                    append(mapping, attribute.getName());
+                    append(mapping, type.getName());
+                    if (type.isEnum()) {
+                        for (Object constant : type.getEnumConstants()) {
+                            append(mapping, ((Enum<?>) constant).name());
+                        }
+                    }
+                });
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(mapping.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static <P> List<P> map(List<Object[]> rows, Function<Object[], P> mapper) {
+        return rows == null ? null : rows.stream().map(mapper).collect(Collectors.toList());
+    }
+
+    private static void append(StringBuilder key, String value) {
+        key.append(value.length()).append(':').append(value);
+    }
+
+    private static void writeRows(DataOutputStream out, List<Object[]> rows) throws IOException {
+        if (rows == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream rowsOut = new DataOutputStream(bytes);
+        int[] offsets = new int[rows.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = rowsOut.size();
+            Object[] row = rows.get(i);
+            rowsOut.writeInt(row.length);
+            for (Object value : row) {
+                writeValue(rowsOut, value);
+            }
+        }
+
+        out.writeInt(offsets.length);
+        out.writeInt(rowsOut.size());
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        bytes.writeTo(out);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof Short number) {
+            out.writeByte(SHORT);
+            out.writeShort(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Float number) {
+            out.writeByte(FLOAT);
+            out.writeFloat(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof BigDecimal number) {
+            out.writeByte(BIG_DECIMAL);
+            out.writeInt(number.scale());
+            writeBytes(out, number.unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger number) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, number.toByteArray());
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            writeString(out, string);
+        } else if (value instanceof Enum<?> constant) {
+            out.writeByte(ENUM);
+            writeString(out, constant.getDeclaringClass().getName());
+            writeString(out, constant.name());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(LOCAL_DATE);
+            out.writeLong(date.toEpochDay());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeLong(dateTime.toLocalDate().toEpochDay());
+            out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+        } else {
+            throw new Unsupported();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the header of rows and skips the rows, which are decoded by the returned list.
+     */
+    private static <P> List<P> readRows(ByteBuffer buffer, Function<Object[], P> mapper) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+
+        int length = buffer.getInt();
+        int offsets = buffer.position();
+        int rows = offsets + size * Integer.BYTES;
+        buffer.position(rows + length);
+
+        return new LazyRows<>(buffer.array(), size, offsets, rows, mapper);
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        return switch (type) {
+            case NULL -> null;
+            case BOOLEAN -> buffer.get() != 0;
+            case SHORT -> buffer.getShort();
+            case INTEGER -> buffer.getInt();
+            case LONG -> buffer.getLong();
+            case FLOAT -> buffer.getFloat();
+            case DOUBLE -> buffer.getDouble();
+            case BIG_DECIMAL -> {
+                int scale = buffer.getInt();
+                yield new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+            }
+            case BIG_INTEGER -> new BigInteger(readBytes(buffer));
+            case STRING -> readString(buffer);
+            case ENUM -> readEnum(readString(buffer), readString(buffer));
+            case LOCAL_DATE -> LocalDate.ofEpochDay(buffer.getLong());
+            case LOCAL_DATE_TIME -> LocalDateTime.of(
+                    LocalDate.ofEpochDay(buffer.getLong()), LocalTime.ofNanoOfDay(buffer.getLong()));
+            default -> throw new IllegalStateException("Unknown type of a serialized value: " + type);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String typeName, String name) {
+        Class type = ENUM_TYPES.computeIfAbsent(typeName, key -> {
+            try {
+                return Class.forName(key, false, SerializedResponse.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unable to find the enum of a serialized value: " + key, e);
+            }
+        });
+
+        return Enum.valueOf(type, name);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        String string = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Rows decoded and mapped on the first read. A list belongs to a single response,
+     * which is not shared between threads, so it is not synchronized.
+     */
+    private static final class LazyRows<P> extends AbstractList<P> implements RandomAccess {
+        private final byte[] data;
+        private final int size;
+        private final int offsets;
+        private final int rows;
+        private final Function<Object[], P> mapper;
+        private final Object[] mapped;
+        private final boolean[] decoded;
+
+        private LazyRows(byte[] data, int size, int offsets, int rows, Function<Object[], P> mapper) {
+            this.data = data;
+            this.size = size;
+            this.offsets = offsets;
+            this.rows = rows;
+            this.mapper = mapper;
+            this.mapped = new Object[size];
+            this.decoded = new boolean[size];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public P get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            if (!decoded[index]) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                buffer.position(rows + buffer.getInt(offsets + index * Integer.BYTES));
+                Object[] row = new Object[buffer.getInt()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = readValue(buffer);
+                }
+                mapped[index] = mapper.apply(row);
+                decoded[index] = true;
+            }
+
+            return (P) mapped[index];
+        }
+
+        @Override
+        public P set(int index, P element) {
+            P previous = get(index);
+            mapped[index] = element;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Unwinds serialization of a value of an unsupported type.
+     */
+    private static final class Unsupported extends RuntimeException {
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+}
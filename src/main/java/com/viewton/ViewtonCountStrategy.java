@@ -0,0 +1,20 @@
+package com.viewton;
+
+/**
+ * Strategy of counting entities matching the query, used when {@code count} is requested.
+ * Configured by the application attribute {@code viewton.count.strategy}.
+ */
+public enum ViewtonCountStrategy {
+
+    /**
+     * Entities are counted by a separate {@code select count(...)} query.
+     */
+    SEPARATE,
+
+    /**
+     * {@code count(*) over()} is added to the list query, so the total is read from the first selected row
+     * and the filtered rows are scanned only once. Separate count query is performed only if the page is empty,
+     * the query is distinct or the database dialect does not support window functions.
+     */
+    WINDOW
+}
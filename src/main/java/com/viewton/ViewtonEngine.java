@@ -0,0 +1,27 @@
+package com.viewton;
+
+import com.viewton.sql.NativeSqlEngine;
+
+/**
+ * Engine which builds and performs Viewton's queries.
+ * <p>
+ * Configured by the application attribute {@code viewton.engine}.
+ * </p>
+ */
+public enum ViewtonEngine {
+
+    /**
+     * Queries are built by the JPA Criteria API and translated to SQL by Hibernate.
+     */
+    CRITERIA,
+
+    /**
+     * List, count and aggregate queries are rendered to SQL straight from the request and performed over JDBC,
+     * which saves the construction and translation of Criteria API queries, see {@link NativeSqlEngine}.
+     * Queries which the native engine does not support (associations, embeddables, inheritance, custom operators),
+     * keyset pages, deep pages of the deferred join and streams are performed by the Criteria API.
+     * Keep in mind that native queries are performed on the connection of the current transaction without flushing,
+     * so they do not see pending changes of the transaction.
+     */
+    NATIVE
+}
@@ -0,0 +1,220 @@
+package com.viewton;
+
+import com.viewton.dto.ViewtonQuery;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan of the sub-queries (list, aggregates and count) of a single request.
+ * <p>
+ * Planner orders sub-queries so the facts known from the performed ones allow to skip the rest:
+ * <ul>
+ *   <li>if nothing matches the query, list and aggregates are not selected;</li>
+ *   <li>if the requested page is past the total count, list is not selected;</li>
+ *   <li>if the list returned fewer entities than page size (or there is no next page),
+ *   count equals to offset plus the list size;</li>
+ *   <li>if the count is known, the next page is checked without selecting an extra entity.</li>
+ * </ul>
+ * The position of a keyset page (selected by a cursor) is unknown, so the count is not inferred from it.
+ * Count goes first when a subsequent page is requested (it could make the list needless),
+ * otherwise list goes first (it could make the count needless).
+ * </p>
+ *
+ * <p>Plan is stateful and belongs to a single request.</p>
+ */
+class ViewtonExecutionPlan {
+
+    /**
+     * Sub-queries of a request.
+     */
+    enum Step {
+        LIST, AGGREGATES, COUNT
+    }
+
+    private final ViewtonQuery query;
+
+    @Getter
+    private final List<Step> steps;
+
+    /**
+     * Whether count is selected by the window function along with the list.
+     */
+    @Getter
+    private final boolean windowCount;
+
+    /**
+     * Whether sum, avg (and count if {@link #countFused}) are selected by a single query.
+     */
+    @Getter
+    private final boolean fusedAggregates;
+
+    /**
+     * Whether count is selected along with fused aggregates.
+     */
+    @Getter
+    private final boolean countFused;
+
+    /**
+     * Whether aggregates are calculated by slices of id ranges in parallel.
+     */
+    @Getter
+    private final boolean slicedAggregates;
+
+    /**
+     * Total count of entities matching the query, {@code null} while it is unknown.
+     */
+    @Getter
+    private Long total;
+
+    private ViewtonExecutionPlan(
+            ViewtonQuery query,
+            List<Step> steps,
+            boolean windowCount,
+            boolean fusedAggregates,
+            boolean countFused,
+            boolean slicedAggregates
+    ) {
+        this.query = query;
+        this.steps = steps;
+        this.windowCount = windowCount;
+        this.fusedAggregates = fusedAggregates;
+        this.countFused = countFused;
+        this.slicedAggregates = slicedAggregates;
+    }
+
+    /**
+     * Plans sub-queries of the request.
+     *
+     * @param query           The `ViewtonQuery` of the request.
+     * @param windowCount     Whether count is selected by the window function along with the list.
+     * @param fusedAggregates Whether aggregates are selected by a single query.
+     * @param countFused      Whether count is selected along with fused aggregates.
+     * @param slicedAggregates Whether aggregates are calculated by slices of id ranges in parallel.
+     * @return A new plan.
+     */
+    static ViewtonExecutionPlan plan(
+            ViewtonQuery query,
+            boolean windowCount,
+            boolean fusedAggregates,
+            boolean countFused,
+            boolean slicedAggregates
+    ) {
+        boolean aggregates = !query.doNotSum() || !query.doNotAvg();
+        List<Step> steps = new ArrayList<>();
+
+        if (!query.doNotCount() && !windowCount && query.getListOffset() > 0) {
+            steps.add(countFused ? Step.AGGREGATES : Step.COUNT);
+        }
+        if (!query.doNotList()) {
+            steps.add(Step.LIST);
+        }
+        if (aggregates && !steps.contains(Step.AGGREGATES)) {
+            steps.add(Step.AGGREGATES);
+        }
+        if (!query.doNotCount() && !steps.contains(Step.COUNT)) {
+            steps.add(Step.COUNT);
+        }
+
+        return new ViewtonExecutionPlan(query, steps, windowCount, fusedAggregates, countFused, slicedAggregates);
+    }
+
+    /**
+     * Registers the result of the list query.
+     *
+     * @param listResult The result of the list query.
+     */
+    void onList(ListResult<?> listResult) {
+        if (listResult.getTotal() != null) {
+            total = listResult.getTotal();
+            return;
+        }
+        if (total != null) {
+            return;
+        }
+
+        if (query.getAfter() != null) {
+            return;
+        }
+
+        int size = listResult.getSize();
+        int offset = query.getListOffset();
+        boolean lastPage = size < query.getPageSize() || Boolean.FALSE.equals(listResult.getHasNext());
+        if (size == 0 && offset == 0) {
+            total = 0L;
+        } else if (!query.isDistinct() && size > 0 && lastPage) {
+            // distinct attributes could give fewer rows than distinct entities, so count is not inferred from them
+            total = (long) offset + size;
+        }
+    }
+
+    /**
+     * Checks if the next page should be detected by selecting an extra entity.
+     *
+     * @return {@code true} if the next page is requested and could not be detected by the known count.
+     * Keyset pages are always checked, because the next cursor is returned only if there is a next page.
+     */
+    boolean isNextPageChecked() {
+        return query.isKeyset() || (query.isHasNext() && !windowCount && total == null);
+    }
+
+    /**
+     * Returns whether there are entities after the selected page.
+     *
+     * @param listResult The result of the list query, {@code null} if list was skipped.
+     * @return {@code true} if there is a next page, {@code null} if it was not requested.
+     */
+    Boolean hasNext(ListResult<?> listResult) {
+        if (!query.isHasNext()) {
+            return null;
+        }
+        if (listResult != null && listResult.getHasNext() != null) {
+            return listResult.getHasNext();
+        }
+        if (listResult == null || total == null) {
+            return false;
+        }
+
+        return (long) query.getListOffset() + listResult.getSize() < total;
+    }
+
+    /**
+     * Registers the count of entities matching the query.
+     *
+     * @param count The count, {@code null} if unknown.
+     */
+    void onCount(Long count) {
+        if (count != null) {
+            total = count;
+        }
+    }
+
+    /**
+     * @return {@code true} if the list is not requested or known to be empty.
+     */
+    boolean isListSkipped() {
+        return query.doNotList() || (total != null && query.getListOffset() >= total);
+    }
+
+    /**
+     * @return {@code true} if nothing matches the query, so aggregates are known to be empty.
+     */
+    boolean isAggregatesSkipped() {
+        return total != null && total == 0;
+    }
+
+    /**
+     * @return {@code true} if the count is already known.
+     */
+    boolean isCountKnown() {
+        return total != null;
+    }
+
+    /**
+     * @return Count for the response, {@code 0} if count is not requested.
+     */
+    long getResponseCount() {
+        return query.doNotCount() || total == null ? 0L : total;
+    }
+}
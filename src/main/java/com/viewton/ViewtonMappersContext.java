@@ -37,6 +37,10 @@ public class ViewtonMappersContext {
     static Function<Map<String, String>, Boolean> isDistinct;
     static Function<Map<String, String>, Boolean> isCount;
     static Function<Map<String, String>, Boolean> isSum;
+    static Function<Map<String, String>, Boolean> isNoList;
+    static Function<Map<String, String>, Boolean> isHasNext;
+    static Function<Map<String, String>, Boolean> isKeyset;
+    static Function<Map<String, String>, String> mapAfter;
 
     static {
         mapWhereClauses = DefaultQueryMapperMethods::mapRawWhereClauses;
@@ -49,6 +53,10 @@ public class ViewtonMappersContext {
         isDistinct = DefaultQueryMapperMethods::isDistinct;
         isCount = DefaultQueryMapperMethods::isCount;
         isSum = DefaultQueryMapperMethods::isSum;
+        isNoList = DefaultQueryMapperMethods::isNoList;
+        isHasNext = DefaultQueryMapperMethods::isHasNext;
+        isKeyset = DefaultQueryMapperMethods::isKeyset;
+        mapAfter = DefaultQueryMapperMethods::mapAfter;
     }
 
     @NoneThreadSafe
@@ -66,6 +74,26 @@ public class ViewtonMappersContext {
         isCount = mapper;
     }
 
+    @NoneThreadSafe
+    public static void assignIsNoListMapper(Function<Map<String, String>, Boolean> mapper) {
+        isNoList = mapper;
+    }
+
+    @NoneThreadSafe
+    public static void assignIsHasNextMapper(Function<Map<String, String>, Boolean> mapper) {
+        isHasNext = mapper;
+    }
+
+    @NoneThreadSafe
+    public static void assignIsKeysetMapper(Function<Map<String, String>, Boolean> mapper) {
+        isKeyset = mapper;
+    }
+
+    @NoneThreadSafe
+    public static void assignAfterMapper(Function<Map<String, String>, String> mapper) {
+        mapAfter = mapper;
+    }
+
     @NoneThreadSafe
     public static void assignIsDistinctMapper(Function<Map<String, String>, Boolean> mapper) {
         isDistinct = mapper;
@@ -101,6 +101,30 @@ public class ViewtonQueryBuilder {
         return (B) this;
     }
 
+    @SuppressWarnings("unchecked")
+    public <B extends ViewtonQueryBuilder> B keyset() {
+        params.put("keyset", "true");
+        return (B) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <B extends ViewtonQueryBuilder> B after(String cursor) {
+        params.put("after", cursor);
+        return (B) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <B extends ViewtonQueryBuilder> B hasNext() {
+        params.put("has_next", "true");
+        return (B) this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <B extends ViewtonQueryBuilder> B noList() {
+        params.put("no_list", "true");
+        return (B) this;
+    }
+
     @SuppressWarnings("unchecked")
     public <B extends ViewtonQueryBuilder> B distinct() {
         params.put("distinct", "true");
@@ -0,0 +1,88 @@
+package com.viewton;
+
+import com.viewton.cache.ViewtonCache;
+import com.viewton.cache.ViewtonCacheStats;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.ViewtonQuery;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of parsed queries keyed by the request parameters, placed in front of {@link ViewtonQueryMapper}.
+ * Identical requests (e.g. polling of the same page) skip parsing of the parameters, and since parsed
+ * where clauses memoize their converted values, the conversion of values to the field types as well.
+ * <p>
+ * Parameters are compared as a map, so the order of parameters does not matter.
+ * Cached {@link ViewtonQuery} instances are shared between requests, which is safe because they are immutable.
+ * Mappers replaced in {@link ViewtonMappersContext} should be pure functions of the parameters
+ * returning immutable values, otherwise the cache should be disabled.
+ * </p>
+ * <p>
+ * The size of the cache is configured by {@code viewton.query-cache.max-size} ({@code 0} disables the cache),
+ * and entries which are not used for {@code viewton.query-cache.expire-after-access-seconds}
+ * are evicted ({@code 0} keeps them until they are evicted by size).
+ * </p>
+ */
+@Component
+public class ViewtonQueryCache {
+
+    private final ViewtonCache<Key, ViewtonQuery> queries;
+
+    /**
+     * Constructs a new `ViewtonQueryCache` configured by {@code viewton.query-cache} properties.
+     *
+     * @param properties The tuning properties, see {@link ViewtonProperties}.
+     */
+    @Autowired
+    public ViewtonQueryCache(ViewtonProperties properties) {
+        this(properties.getQueryCache().getMaxSize(), properties.getQueryCache().getExpireAfterAccessSeconds());
+    }
+
+    /**
+     * Constructs a new `ViewtonQueryCache`.
+     *
+     * @param maxSize                  The maximum number of cached queries, {@code 0} disables the cache.
+     * @param expireAfterAccessSeconds Seconds after the last use when a query is evicted, {@code 0} to not expire queries.
+     */
+    public ViewtonQueryCache(int maxSize, long expireAfterAccessSeconds) {
+        this.queries = new ViewtonCache<>(maxSize, Duration.ofSeconds(expireAfterAccessSeconds));
+    }
+
+    /**
+     * Returns the parsed query of the request parameters, parsing them by {@link ViewtonQueryMapper} on a miss.
+     *
+     * @param requestParams   The request parameters.
+     * @param defaultPageSize The page size used when it is not specified by the parameters.
+     * @return The parsed query.
+     */
+    public ViewtonQuery get(Map<String, String> requestParams, int defaultPageSize) {
+        return queries.get(new Key(Collections.unmodifiableMap(new HashMap<>(requestParams)), defaultPageSize),
+                key -> ViewtonQueryMapper.of(key.getRequestParams(), key.getDefaultPageSize()));
+    }
+
+    /**
+     * @return Hits, misses and evictions of parsed queries.
+     */
+    public ViewtonCacheStats getStats() {
+        return queries.getStats();
+    }
+
+    /**
+     * Removes all the cached queries, e.g. after mappers of {@link ViewtonMappersContext} are replaced.
+     */
+    public void clear() {
+        queries.invalidateAll();
+    }
+
+    @Data
+    private static final class Key {
+        private final Map<String, String> requestParams;
+        private final int defaultPageSize;
+    }
+}
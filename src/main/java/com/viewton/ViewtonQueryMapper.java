@@ -39,6 +39,10 @@ public class ViewtonQueryMapper {
                 .avg(ViewtonMappersContext.mapAvgAttributes.apply(requestParams))
                 .distinct(ViewtonMappersContext.isDistinct.apply(requestParams))
                 .count(ViewtonMappersContext.isCount.apply(requestParams))
+                .noList(ViewtonMappersContext.isNoList.apply(requestParams))
+                .hasNext(ViewtonMappersContext.isHasNext.apply(requestParams))
+                .keyset(ViewtonMappersContext.isKeyset.apply(requestParams))
+                .after(ViewtonMappersContext.mapAfter.apply(requestParams))
                 .build();
     }
 }
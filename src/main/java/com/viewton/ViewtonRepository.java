@@ -1,11 +1,22 @@
 package com.viewton;
 
+import com.viewton.concurrent.ChunkedScan;
+import com.viewton.concurrent.ViewtonConsistency;
+import com.viewton.concurrent.ViewtonQueryExecutor;
+import com.viewton.concurrent.ViewtonSingleFlight;
+import com.viewton.config.ViewtonProperties;
 import com.viewton.dto.AggregateAttributes;
 import com.viewton.dto.AvgAttributes;
+import com.viewton.dto.ColumnarResponseDto;
 import com.viewton.dto.RawOrderBy;
 import com.viewton.dto.SumAttributes;
 import com.viewton.dto.ViewtonQuery;
 import com.viewton.dto.ViewtonResponseDto;
+import com.viewton.dto.columnar.ColumnarResult;
+import com.viewton.mapper.RowMapper;
+import com.viewton.mapper.RowMapperFactory;
+import com.viewton.sql.NativeSqlEngine;
+import com.viewton.sql.SqlPlanCache;
 import com.viewton.utils.ViewtonReflections;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Tuple;
@@ -16,23 +27,48 @@ import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.IdentifiableType;
+import jakarta.persistence.metamodel.ManagedType;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.query.Query;
-import org.hibernate.transform.AliasToBeanResultTransformer;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.toList;
 
@@ -52,6 +88,12 @@ import static java.util.stream.Collectors.toList;
  * <p>The repository also supports transactions and is read-only to prevent modification of
  * entities during query execution.</p>
  *
+ * <p>Sub-queries of a single request (list, sum, avg, count) could be performed concurrently,
+ * see {@link ViewtonQueryExecutor}.</p>
+ *
+ * <p>Instead of the Criteria API, supported queries could be rendered to SQL and performed over JDBC,
+ * see {@link ViewtonEngine#NATIVE}.</p>
+ *
  * <p>This repository is meant to be used in the context of a Spring-based application,
  * with a focus on flexible querying of JPA entities based on user-supplied parameters.</p>
  */
@@ -60,76 +102,1225 @@ import static java.util.stream.Collectors.toList;
 @ConditionalOnMissingBean(ViewtonRepository.class)
 public class ViewtonRepository {
 
-    private final int defaultPageSize;
-    private final EntityManager entityManager;
+    /**
+     * Ids of a deferred join page are passed as {@code in} list, which size is limited by some databases.
+     */
+    private static final int MAX_DEFERRED_JOIN_PAGE_SIZE = 999;
+
+    private final int defaultPageSize;
+    private final EntityManager entityManager;
+    private final ViewtonQueryExecutor queryExecutor;
+    private final ViewtonCountStrategy countStrategy;
+    private final int deferredJoinThreshold;
+    private final int streamFetchSize;
+    private final int streamClearInterval;
+    private final ViewtonSessionMode sessionMode;
+    private final ViewtonEngine engine;
+    private final SqlPlanCache planCache;
+    private final ViewtonQueryCache queryCache;
+    private final RowMapperFactory rowMappers;
+    private final int aggregateSlices;
+    private final ViewtonConsistency consistency;
+    private final ViewtonSingleFlight singleFlight;
+    private final ViewtonResultCache resultCache;
+    private volatile Boolean windowFunctionsSupported;
+    private volatile NativeSqlEngine nativeEngine;
+
+    /**
+     * Constructs a new `ViewtonRepository` with the specified properties and `EntityManager`.
+     *
+     * @param properties    The tuning properties, see {@link ViewtonProperties}.
+     * @param entityManager The JPA `EntityManager` used to execute queries.
+     * @param queryExecutor The executor of sub-queries of a single request.
+     * @param planCache     The cache of compiled queries of the native engine.
+     * @param queryCache    The cache of queries parsed from request parameters.
+     * @param rowMappers    The factory of mappers of selected rows to entities.
+     * @param singleFlight  Coalesces identical requests performed at the same time.
+     * @param resultCache   The cache of responses invalidated by changes of entities.
+     */
+    @Autowired
+    public ViewtonRepository(
+            ViewtonProperties properties,
+            EntityManager entityManager,
+            ViewtonQueryExecutor queryExecutor,
+            SqlPlanCache planCache,
+            ViewtonQueryCache queryCache,
+            RowMapperFactory rowMappers,
+            ViewtonSingleFlight singleFlight,
+            ViewtonResultCache resultCache) {
+        this.defaultPageSize = properties.getRequest().getDefaultPageSize();
+        this.entityManager = entityManager;
+        this.queryExecutor = queryExecutor;
+        this.countStrategy = properties.getCount().getStrategy();
+        this.deferredJoinThreshold = properties.getDeferredJoin().getOffsetThreshold();
+        this.streamFetchSize = properties.getStream().getFetchSize();
+        this.streamClearInterval = properties.getStream().getClearInterval();
+        this.sessionMode = properties.getSessionMode();
+        this.engine = properties.getEngine();
+        this.planCache = planCache;
+        this.queryCache = queryCache;
+        this.rowMappers = rowMappers;
+        this.aggregateSlices = properties.getAggregate().getSlices();
+        this.consistency = properties.getConcurrent().getConsistency();
+        this.singleFlight = singleFlight;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Returns a paginated response of entities based on the provided request parameters.
+     * The method builds a `ViewtonQuery` from the request parameters and executes the query
+     * to retrieve the results, along with count and totals.
+     * <p>
+     * In concurrent mode sub-queries are performed at the same time, each in its own read-only transaction,
+     * otherwise they are performed one after another in a single read-only transaction.
+     * </p>
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param <T>           The entity type.
+     * @return A `ViewtonResponseDto` containing the results of the query, count, and totals.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> ViewtonResponseDto<T> list(Map<String, String> requestParams, Class<T> entityType) {
+        return list(requestParams, entityType, entityType);
+    }
+
+    /**
+     * Returns a paginated response of projections of entities based on the provided request parameters.
+     * Selected rows are mapped straight to the projection, without instantiating entities:
+     * <ul>
+     *   <li>a record, created by its canonical constructor;</li>
+     *   <li>an interface, which getters return the selected values;</li>
+     *   <li>{@code Map.class}, an unmodifiable map of selected attributes;</li>
+     *   <li>{@code Object[].class}, the selected values in the order of attributes;</li>
+     *   <li>any other class with a no-args constructor and setters or fields of the selected attributes.</li>
+     * </ul>
+     * If the request does not specify attributes, the properties of a record or an interface are selected,
+     * and all the attributes of the entity otherwise. Aggregates are mapped to the projection as well,
+     * so it should have properties of group by attributes and aliases of aggregated attributes if they are requested.
+     *
+     * @param requestParams  A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType     The entity class type to query.
+     * @param projectionType The type the selected rows are mapped to.
+     * @param <T>            The entity type.
+     * @param <P>            The projection type.
+     * @return A `ViewtonResponseDto` containing the projections, count, and totals.
+     * @throws IllegalArgumentException If the selected attributes are not properties of the projection.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T, P> ViewtonResponseDto<P> list(
+            Map<String, String> requestParams,
+            Class<T> entityType,
+            Class<P> projectionType
+    ) {
+        return respond(queryCache.get(requestParams, defaultPageSize), entityType, projectionType);
+    }
+
+    /**
+     * Returns a paginated response based on the provided request parameters, with the page and aggregates
+     * stored by columns instead of objects (see {@link ColumnarResult}). Rows are put into columns straight
+     * from the query tuples, without instantiating entities.
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param <T>           The entity type.
+     * @return A `ColumnarResponseDto` containing the columns of the page and aggregates, count, and totals.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> ColumnarResponseDto listColumnar(Map<String, String> requestParams, Class<T> entityType) {
+        ViewtonQuery query = queryCache.get(requestParams, defaultPageSize);
+        ViewtonResponseDto<Object[]> rows = respond(query, entityType, Object[].class);
+
+        ColumnarResponseDto response = new ColumnarResponseDto(
+                rows.getList() == null ? null : ColumnarResult.of(
+                        getAttributes(query, entityManager.getMetamodel().entity(entityType), Object[].class),
+                        rows.getList()),
+                rows.getSum() == null ? null : ColumnarResult.of(
+                        query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType), rows.getSum()),
+                rows.getAvg() == null ? null : ColumnarResult.of(
+                        query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType), rows.getAvg()),
+                rows.getCount());
+        response.setHasNext(rows.getHasNext());
+        response.setNextCursor(rows.getNextCursor());
+
+        return response;
+    }
+
+    /**
+     * Returns responses of a batch of requests of the same entity, see {@link #batch(List, Class)}.
+     * This is the format of batch HTTP requests: a JSON array of objects of request parameters.
+     *
+     * @param requestParams Maps of request parameters of the requests.
+     * @param entityType    The entity class type to query.
+     * @param <T>           The entity type.
+     * @return Responses in the order of requests.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> List<ViewtonResponseDto<T>> listBatch(List<Map<String, String>> requestParams, Class<T> entityType) {
+        return batch(requestParams.stream().map(params -> queryCache.get(params, defaultPageSize)).toList(), entityType);
+    }
+
+    /**
+     * Returns responses of a batch of queries of the same entity in a single read-only transaction.
+     * List queries which differ only in the value of an equality condition of the same attribute
+     * are merged into a single query of all the values, and its rows are split back by the value
+     * (see {@link QueryBatch}). The rest of queries are performed one by one as by {@link #list(Map, Class)}.
+     *
+     * @param queries    The queries of the batch.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return Responses in the order of queries.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> List<ViewtonResponseDto<T>> batch(List<ViewtonQuery> queries, Class<T> entityType) {
+        return queryExecutor.inReadOnlyTransaction(() -> {
+            List<ViewtonResponseDto<T>> responses = new ArrayList<>(Collections.nCopies(queries.size(), null));
+            IdentifiableType<T> model = entityManager.getMetamodel().entity(entityType);
+
+            for (QueryBatch.Merge merge : QueryBatch.merge(queries, attribute -> isExactlyCompared(model, attribute))) {
+                ViewtonQuery merged = merge.getQuery();
+                List<String> attributes = getAttributes(merged, model, entityType);
+                RowMapper<T> mapper = rowMappers.get(entityType, attributes);
+                List<Object[]> rows = fetch(merged, entityType, Object[].class, false, false).getList();
+
+                merge.split(rows, attributes.indexOf(merge.getAttribute()),
+                                model.getAttribute(merge.getAttribute()).getJavaType())
+                        .forEach((index, page) -> {
+                            ViewtonQuery query = queries.get(index);
+                            ListResult<T> listResult = new ListResult<>(
+                                    page.stream().map(mapper::map).collect(toList()), null, null, null);
+                            responses.set(index, response(
+                                    query, plan(query, entityType), listResult, new AggregateResult<>(null, null, null)));
+                        });
+            }
+
+            for (int i = 0; i < queries.size(); i++) {
+                if (responses.get(i) == null) {
+                    ViewtonQuery query = queries.get(i);
+                    responses.set(i, listSequentially(query, entityType, entityType, plan(query, entityType)));
+                }
+            }
+
+            return responses;
+        });
+    }
+
+    /**
+     * Checks if an attribute is compared by equality exactly, so a merged query of a batch could be split
+     * by its value. Strings are compared by {@code like}, so they are not.
+     */
+    private boolean isExactlyCompared(ManagedType<?> model, String attribute) {
+        Attribute<?, ?> modelAttribute = model.getAttributes().stream()
+                .filter(candidate -> candidate.getName().equals(attribute))
+                .findFirst()
+                .orElse(null);
+
+        return modelAttribute != null
+                && modelAttribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+                && !String.class.isAssignableFrom(modelAttribute.getJavaType());
+    }
+
+    /**
+     * Responds to the request, taking the response from the cache (see {@link ViewtonResultCache}) or sharing it
+     * with identical requests performed at the same time (see {@link ViewtonSingleFlight}). Requests in a transaction
+     * are neither cached nor shared, since they could see its uncommitted changes.
+     */
+    private <T, P> ViewtonResponseDto<P> respond(ViewtonQuery query, Class<T> entityType, Class<P> resultType) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || !resultCache.isEnabled() && !singleFlight.isEnabled()) {
+            return perform(query, entityType, resultType);
+        }
+
+        return respondShared(query, entityType, resultType);
+    }
+
+    /**
+     * Responds to the request with rows shared by identical requests, taken from the cache or loaded once
+     * for the requests performed at the same time. Rows are values of the selected attributes, so they are shared
+     * by result types selecting the same attributes, and every request maps them to its own response.
+     * Off the heap, rows are serialized and mapped as they are read, see {@link SerializedResponse}.
+     */
+    private <T, P> ViewtonResponseDto<P> respondShared(ViewtonQuery query, Class<T> entityType, Class<P> resultType) {
+        IdentifiableType<T> model = entityManager.getMetamodel().entity(entityType);
+        List<String> attributes = getAttributes(query, model, resultType);
+        // the mappers validate the result type against the attributes before querying
+        Function<Object[], P> list = rowMapping(resultType, attributes);
+        Function<Object[], P> sum = query.doNotSum() ? null
+                : rowMapping(resultType, query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType));
+        Function<Object[], P> avg = query.doNotAvg() ? null
+                : rowMapping(resultType, query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType));
+
+        // attributes of the result type are selected explicitly, so the rows do not depend on it
+        ViewtonQuery rowsQuery = query.getAttributes() == null ? query.toBuilder().attributes(attributes).build() : query;
+        if (resultCache.isOffHeap()) {
+            Supplier<SerializedResponse> load = () -> SerializedResponse.of(perform(rowsQuery, entityType, Object[].class));
+            return resultCache.getSerialized(rowsQuery, entityType, SerializedResponse.mapping(model),
+                    shared(rowsQuery, entityType, load)).toResponse(list, sum, avg);
+        }
+
+        Supplier<ViewtonResponseDto<Object[]>> load = shared(
+                rowsQuery, entityType, () -> perform(rowsQuery, entityType, Object[].class));
+        ViewtonResponseDto<Object[]> rows = resultCache.isEnabled()
+                ? resultCache.get(rowsQuery, entityType, attributes.size(), load)
+                : load.get();
+        return mapResponse(rows, list, sum, avg);
+    }
+
+    /**
+     * Shares the rows loaded for the query with identical requests performed at the same time, if it is enabled.
+     */
+    private <R> Supplier<R> shared(ViewtonQuery rowsQuery, Class<?> entityType, Supplier<R> load) {
+        return singleFlight.isEnabled() ? () -> singleFlight.execute(List.of(rowsQuery, entityType), load) : load;
+    }
+
+    /**
+     * Maps shared rows to a new response of the result type.
+     */
+    private static <P> ViewtonResponseDto<P> mapResponse(
+            ViewtonResponseDto<Object[]> rows,
+            Function<Object[], P> list,
+            Function<Object[], P> sum,
+            Function<Object[], P> avg
+    ) {
+        ViewtonResponseDto<P> response = new ViewtonResponseDto<>(
+                mapRows(rows.getList(), list), mapRows(rows.getSum(), sum), mapRows(rows.getAvg(), avg), rows.getCount());
+        response.setHasNext(rows.getHasNext());
+        response.setNextCursor(rows.getNextCursor());
+        return response;
+    }
+
+    private static <P> List<P> mapRows(List<Object[]> rows, Function<Object[], P> mapper) {
+        return rows == null ? null : rows.stream().map(mapper).collect(toList());
+    }
+
+    /**
+     * Maps shared rows of the aliases to the result type. Rows mapped to arrays are copied, so the response
+     * does not expose the shared rows. The row of aggregates of an empty selection has no values,
+     * see {@link #emptyAggregates(ViewtonQuery, Class)}.
+     */
+    private <P> Function<Object[], P> rowMapping(Class<P> resultType, List<String> aliases) {
+        RowMapper<P> mapper = rowMappers.get(resultType, aliases);
+        boolean copied = resultType == Object[].class;
+        return row -> {
+            Object[] values = copied ? row.clone() : row;
+            return values.length < aliases.size()
+                    ? rowMappers.get(resultType, List.of()).map(values)
+                    : mapper.map(values);
+        };
+    }
+
+    /**
+     * Plans and performs sub-queries of the request, concurrently if concurrent mode is enabled.
+     * Concurrent sub-queries run in their own transactions, so they would not see changes of a transaction
+     * of the caller: a request in a transaction is performed sequentially within it.
+     */
+    private <T, P> ViewtonResponseDto<P> perform(ViewtonQuery query, Class<T> entityType, Class<P> resultType) {
+        ViewtonExecutionPlan plan = plan(query, entityType);
+
+        if (queryExecutor.isConcurrent() && plan.getSteps().size() > 1
+                && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return listConcurrently(query, entityType, resultType, plan);
+        }
+
+        return queryExecutor.inReadOnlyTransaction(() -> listSequentially(query, entityType, resultType, plan));
+    }
+
+    /**
+     * Performs sub-queries one after another in the order of the plan,
+     * skipping the ones which results are already known.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param resultType The type the selected rows are mapped to.
+     * @param plan       The plan of sub-queries.
+     * @param <T>        The entity type.
+     * @param <P>        The result type.
+     * @return A `ViewtonResponseDto` containing the results of the query, count, and totals.
+     */
+    private <T, P> ViewtonResponseDto<P> listSequentially(
+            ViewtonQuery query,
+            Class<T> entityType,
+            Class<P> resultType,
+            ViewtonExecutionPlan plan
+    ) {
+        ListResult<P> listResult = null;
+        AggregateResult<P> aggregates = new AggregateResult<>(null, null, null);
+
+        for (ViewtonExecutionPlan.Step step : plan.getSteps()) {
+            switch (step) {
+                case LIST -> {
+                    if (!plan.isListSkipped()) {
+                        listResult = fetch(query, entityType, resultType, plan.isWindowCount(), plan.isNextPageChecked());
+                        plan.onList(listResult);
+                    }
+                }
+                case AGGREGATES -> {
+                    aggregates = plan.isAggregatesSkipped()
+                            ? emptyAggregates(query, resultType)
+                            : aggregate(query, entityType, resultType, plan);
+                    plan.onCount(aggregates.getCount());
+                }
+                case COUNT -> {
+                    if (!plan.isCountKnown()) {
+                        plan.onCount(count(query, entityType));
+                    }
+                }
+            }
+        }
+
+        return response(query, plan, listResult, aggregates);
+    }
+
+    /**
+     * Performs requested sub-queries concurrently. Sub-queries which are not requested are not started at all
+     * to not occupy connections without need. Since sub-queries are started at once, facts known from one of them
+     * do not allow skipping the others.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param resultType The type the selected rows are mapped to.
+     * @param plan       The plan of sub-queries.
+     * @param <T>        The entity type.
+     * @param <P>        The result type.
+     * @return A `ViewtonResponseDto` containing the results of the query, count, and totals.
+     */
+    private <T, P> ViewtonResponseDto<P> listConcurrently(
+            ViewtonQuery query,
+            Class<T> entityType,
+            Class<P> resultType,
+            ViewtonExecutionPlan plan
+    ) {
+        try (ViewtonQueryExecutor.Scope scope = queryExecutor.openScope()) {
+            Supplier<ListResult<P>> list = query.doNotList()
+                    ? () -> null
+                    : scope.fork(() -> fetch(query, entityType, resultType, plan.isWindowCount(), plan.isNextPageChecked()));
+            Supplier<AggregateResult<P>> aggregates;
+            if (plan.isFusedAggregates()) {
+                aggregates = scope.fork(() -> fusedAggregates(
+                        query, entityType, resultType, plan.isCountFused(), plan.isSlicedAggregates()));
+            } else {
+                Supplier<List<P>> sum = query.doNotSum()
+                        ? () -> null
+                        : scope.fork(() -> sum(query, entityType, resultType, plan.isSlicedAggregates()));
+                Supplier<List<P>> avg = query.doNotAvg()
+                        ? () -> null
+                        : scope.fork(() -> avg(query, entityType, resultType, plan.isSlicedAggregates()));
+                aggregates = () -> new AggregateResult<>(sum.get(), avg.get(), null);
+            }
+            Supplier<Long> count = query.doNotCount() || plan.isWindowCount() || plan.isCountFused()
+                    ? () -> null
+                    : scope.fork(() -> count(query, entityType));
+
+            ListResult<P> listResult = list.get();
+            if (listResult != null) {
+                plan.onList(listResult);
+            }
+            AggregateResult<P> aggregateResult = aggregates.get();
+            plan.onCount(aggregateResult.getCount());
+            plan.onCount(count.get());
+            if (!query.doNotCount() && !plan.isCountKnown()) {
+                plan.onCount(queryExecutor.inReadOnlyTransaction(() -> count(query, entityType)));
+            }
+
+            return response(query, plan, listResult, aggregateResult);
+        }
+    }
+
+    /**
+     * Builds the response of performed sub-queries. If list was requested but skipped by the plan,
+     * it is known to be empty.
+     */
+    private <T> ViewtonResponseDto<T> response(
+            ViewtonQuery query,
+            ViewtonExecutionPlan plan,
+            ListResult<T> listResult,
+            AggregateResult<T> aggregates
+    ) {
+        List<T> list = null;
+        if (listResult != null) {
+            list = listResult.getList();
+        } else if (!query.doNotList()) {
+            list = new ArrayList<>();
+        }
+
+        ViewtonResponseDto<T> response = new ViewtonResponseDto<>(
+                list, aggregates.getSum(), aggregates.getAvg(), plan.getResponseCount());
+        response.setHasNext(plan.hasNext(listResult));
+        response.setNextCursor(listResult == null ? null : listResult.getNextCursor());
+
+        return response;
+    }
+
+    /**
+     * Plans sub-queries of the request, see {@link ViewtonExecutionPlan}.
+     */
+    private ViewtonExecutionPlan plan(ViewtonQuery query, Class<?> entityType) {
+        boolean windowCount = isWindowCount(query);
+        boolean fused = isFusedAggregates(query, !windowCount);
+
+        return ViewtonExecutionPlan.plan(query, windowCount, fused, fused && isCountFused(query, !windowCount),
+                isSlicedAggregates(entityType));
+    }
+
+    /**
+     * Executes the query using the provided `ViewtonQuery` and returns a paginated list of entities.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A list of entities matching the query criteria.
+     */
+    public <T> List<T> list(ViewtonQuery query, Class<T> entityType) {
+        return list(query, entityType, entityType);
+    }
+
+    /**
+     * Executes the query and returns a page of projections of entities, see
+     * {@link #list(Map, Class, Class)} for supported projections.
+     *
+     * @param query          The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType     The entity class type to query.
+     * @param projectionType The type the selected rows are mapped to.
+     * @param <T>            The entity type.
+     * @param <P>            The projection type.
+     * @return A list of projections of entities matching the query criteria.
+     * @throws IllegalArgumentException If the selected attributes are not properties of the projection.
+     */
+    public <T, P> List<P> list(ViewtonQuery query, Class<T> entityType, Class<P> projectionType) {
+        return fetch(query, entityType, projectionType, false, query.isKeyset()).getList();
+    }
+
+    /**
+     * Pushes entities matching the request parameters to the consumer one by one, without collecting them in memory.
+     * Pagination is applied as usual, so {@code page_size=-1} streams all the matching entities.
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param consumer      The consumer of entities.
+     * @param <T>           The entity type.
+     * @see #forEach(ViewtonQuery, Class, Consumer)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> void forEach(Map<String, String> requestParams, Class<T> entityType, Consumer<? super T> consumer) {
+        forEach(queryCache.get(requestParams, defaultPageSize), entityType, consumer);
+    }
+
+    /**
+     * Pushes entities matching the query to the consumer one by one, without collecting them in memory.
+     * Rows are read by {@link ScrollableResults} with {@code viewton.stream.fetch-size} JDBC fetch size.
+     * <p>
+     * If there is no surrounding transaction, entities are streamed in a new read-only transaction
+     * and its session is cleared every {@code viewton.stream.clear-interval} entities. The session
+     * of a surrounding transaction is never cleared, because it could contain entities of the caller.
+     * </p>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param consumer   The consumer of entities.
+     * @param <T>        The entity type.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> void forEach(ViewtonQuery query, Class<T> entityType, Consumer<? super T> consumer) {
+        boolean ownSession = !TransactionSynchronizationManager.isActualTransactionActive();
+
+        queryExecutor.inReadOnlyTransaction(() -> {
+            Session session = (Session) entityManager.getDelegate();
+            try (Stream<T> entities = scroll(query, entityType)) {
+                long streamed = 0;
+                for (Iterator<T> iterator = entities.iterator(); iterator.hasNext(); ) {
+                    consumer.accept(iterator.next());
+                    if (ownSession && streamClearInterval > 0 && ++streamed % streamClearInterval == 0) {
+                        session.clear();
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns a lazy stream of entities matching the query. Rows are read by {@link ScrollableResults}
+     * with {@code viewton.stream.fetch-size} JDBC fetch size, so entities are not collected in memory.
+     * <p>
+     * The stream holds an open cursor, so it should be consumed within the surrounding transaction
+     * and closed after use:
+     * </p>
+     * <pre>
+     * try (Stream&lt;Payment&gt; payments = viewtonRepository.stream(query, Payment.class)) {
+     *     payments.forEach(writer::write);
+     * }
+     * </pre>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A stream of entities which should be closed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <T> Stream<T> stream(ViewtonQuery query, Class<T> entityType) {
+        return scroll(query, entityType);
+    }
+
+    /**
+     * Returns a publisher of entities matching the query, governed by backpressure: rows are read from
+     * the database cursor only as subscribers request them, so a slow subscriber does not make entities buffered.
+     * <p>
+     * Every subscriber gets its own cursor, opened in its own read-only transaction on the executor
+     * of asynchronous requests (see {@link ViewtonQueryExecutor}). The cursor is closed and the connection
+     * is released when all the entities are published, the query fails or the subscription is cancelled.
+     * </p>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A cold publisher of entities.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> Flow.Publisher<T> publish(ViewtonQuery query, Class<T> entityType) {
+        return queryExecutor.publish(() -> scroll(query, entityType));
+    }
+
+    /**
+     * Returns the names of attributes selected by the query: the requested attributes, or the attributes
+     * the rows are mapped to by default.
+     *
+     * @param query      The `ViewtonQuery` containing the requested attributes.
+     * @param entityType The entity class type to query.
+     * @param resultType The type the selected rows are mapped to, {@code Object[]} for all the attributes.
+     * @param <T>        The entity type.
+     * @return A list of attribute names to be selected.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public <T> List<String> getSelectedAttributes(ViewtonQuery query, Class<T> entityType, Class<?> resultType) {
+        return getAttributes(query, entityManager.getMetamodel().entity(entityType), resultType);
+    }
+
+    /**
+     * Writes the response to the query to the sink, with the same parts as {@link ViewtonResponseDto}.
+     * <p>
+     * The page is read by a forward-only cursor with {@code viewton.stream.fetch-size} JDBC fetch size
+     * and passed to the sink row by row, straight from the selected tuples without instantiating entities,
+     * so it is not collected in memory. Aggregates are small, so they are selected the usual way.
+     * </p>
+     * <p>
+     * Sub-queries are performed one after another in a single read-only transaction, in the order of the plan,
+     * and parts of the response are passed in the order their sub-queries are performed.
+     * </p>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param sink       The receiver of the response.
+     * @param <T>        The entity type.
+     * @see com.viewton.json.ViewtonJsonWriter
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> void writeResponse(ViewtonQuery query, Class<T> entityType, ViewtonResponseSink sink) {
+        if (query.isKeyset() && query.isDistinct()) {
+            throw new IllegalArgumentException("Keyset pagination is not supported for distinct queries");
+        }
+
+        ViewtonExecutionPlan plan = plan(query, entityType);
+        queryExecutor.inReadOnlyTransaction(() -> {
+            ListResult<Object[]> listResult = null;
+
+            for (ViewtonExecutionPlan.Step step : plan.getSteps()) {
+                switch (step) {
+                    case LIST -> {
+                        if (!plan.isListSkipped()) {
+                            listResult = writeList(query, entityType, plan, sink);
+                            plan.onList(listResult);
+                        }
+                    }
+                    case AGGREGATES -> {
+                        AggregateResult<Object[]> aggregates = plan.isAggregatesSkipped()
+                                ? emptyAggregates(query, Object[].class)
+                                : aggregate(query, entityType, Object[].class, plan);
+                        plan.onCount(aggregates.getCount());
+                        sink.aggregates(
+                                query.doNotSum() ? null
+                                        : query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType),
+                                aggregates.getSum(),
+                                query.doNotAvg() ? null
+                                        : query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType),
+                                aggregates.getAvg());
+                    }
+                    case COUNT -> {
+                        if (!plan.isCountKnown()) {
+                            plan.onCount(count(query, entityType));
+                        }
+                    }
+                }
+            }
+
+            if (listResult == null && !query.doNotList()) {
+                // list skipped by the plan is known to be empty
+                sink.beginList(getAttributes(query, entityManager.getMetamodel().entity(entityType), Object[].class));
+                sink.endList();
+            }
+            sink.end(plan.getResponseCount(), plan.hasNext(listResult),
+                    listResult == null ? null : listResult.getNextCursor());
+            return null;
+        });
+    }
+
+    /**
+     * Passes the page of the list query to the sink row by row from a cursor, see {@link #scrollRows}.
+     * If next page is checked, the extra row is not passed.
+     *
+     * @return The result of the list query without the page itself.
+     */
+    private <T> ListResult<Object[]> writeList(
+            ViewtonQuery query,
+            Class<T> entityType,
+            ViewtonExecutionPlan plan,
+            ViewtonResponseSink sink
+    ) {
+        List<String> attributes = getAttributes(query, entityManager.getMetamodel().entity(entityType), Object[].class);
+        boolean windowCount = plan.isWindowCount();
+        boolean checkNext = plan.isNextPageChecked();
+        int keysIndex = attributes.size() + (windowCount ? 1 : 0);
+
+        int size = 0;
+        Long total = windowCount && query.getListOffset() == 0 ? 0L : null;
+        Boolean hasNext = checkNext ? false : null;
+        Object[] last = null;
+        sink.beginList(attributes);
+        try (Stream<Object[]> rows = scrollRows(query, entityType, attributes, windowCount, checkNext, streamFetchSize)) {
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                if (size == query.getPageSize()) {
+                    hasNext = true;
+                    break;
+                }
+                if (windowCount && size == 0) {
+                    total = (Long) row[attributes.size()];
+                }
+                sink.row(row);
+                last = row;
+                size++;
+            }
+        }
+        sink.endList();
+
+        String nextCursor = null;
+        if (Boolean.TRUE.equals(hasNext) && query.isKeyset()) {
+            nextCursor = KeysetPagination.encode(Arrays.asList(last).subList(keysIndex, last.length));
+        }
+
+        return ListResult.streamed(size, total, hasNext, nextCursor);
+    }
+
+    /**
+     * Opens a forward-only cursor over the list query and maps its rows to entities lazily.
+     * The cursor is closed along with the returned stream.
+     */
+    private <T> Stream<T> scroll(ViewtonQuery query, Class<T> entityType) {
+        List<String> mappingAttributes = getAttributes(query, entityManager.getMetamodel().entity(entityType), entityType);
+        RowMapper<T> mapper = rowMappers.get(entityType, mappingAttributes);
+
+        return scrollRows(query, entityType, mappingAttributes, false, false, streamFetchSize).map(mapper::map);
+    }
+
+    /**
+     * Opens a forward-only cursor over the list query with the JDBC fetch size, restricted to the range of ids
+     * of a chunk if it is given. Rows of a chunk are ordered with explicit nulls ordering,
+     * so chunks could be merged, see {@link ChunkedScan}.
+     * <p>
+     * The cursor holds the connection of the surrounding transaction, so the returned stream should be consumed
+     * within the transaction. The cursor is closed along with the stream.
+     * </p>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param attributes The names of the selected attributes, see {@link #getSelectedAttributes}.
+     * @param fetchSize  The JDBC fetch size.
+     * @param chunk      The range of ids of the chunk, or {@code null} to read all the matching rows.
+     * @param <T>        The entity type.
+     * @return A stream of values of the selected attributes, which should be closed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <T> Stream<Object[]> scrollRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> attributes,
+            int fetchSize,
+            @Nullable ChunkedScan.Range chunk
+    ) {
+        return scrollRows(query, entityType, attributes, false, false, fetchSize, chunk);
+    }
+
+    /**
+     * Opens a forward-only cursor over the list query with the JDBC fetch size.
+     * Rows are selected the same way as by {@link #fetch(ViewtonQuery, Class, Class, boolean, boolean)}:
+     * attributes followed by the window count and the keys of keyset pagination if the next page is checked.
+     * The cursor is closed along with the returned stream.
+     */
+    private <T> Stream<Object[]> scrollRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> attributes,
+            boolean windowCount,
+            boolean checkNext,
+            int fetchSize
+    ) {
+        return scrollRows(query, entityType, attributes, windowCount, checkNext, fetchSize, null);
+    }
+
+    /**
+     * Opens a cursor over the list query, restricted to the range of ids of a chunk if it is given.
+     * Rows of a chunk are ordered with explicit nulls ordering, so chunks could be merged, see {@link ChunkedScan}.
+     * Keyset pages are ordered the same way, so they could be sought by nullable keys, see {@link KeysetPagination}.
+     */
+    private <T> Stream<Object[]> scrollRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> attributes,
+            boolean windowCount,
+            boolean checkNext,
+            int fetchSize,
+            @Nullable ChunkedScan.Range chunk
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        Root<T> root = criteriaQuery.from(entityType);
+
+        List<Selection<?>> selections = getSelections(attributes, root);
+        if (windowCount) {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            selections.add(hcb.count(root, hcb.createWindow()));
+        }
+        List<RawOrderBy> orders = getListOrders(query, root);
+        if (checkNext && query.isKeyset()) {
+            orders.forEach(key -> selections.add(root.get(key.getFieldName())));
+        }
+        Predicate[] predicates = getListPredicates(query, orders, root, cb);
+        if (chunk != null) {
+            predicates = Arrays.copyOf(predicates, predicates.length + 1);
+            predicates[predicates.length - 1] = chunk.toPredicate(root.get(getIdAttribute(root)), cb);
+        }
+        criteriaQuery.multiselect(selections)
+                .where(predicates)
+                .orderBy(chunk == null && !query.isKeyset()
+                        ? getOrders(orders, root, cb)
+                        : getNullsSmallestOrders(orders, root, cb))
+                .distinct(query.isDistinct());
+
+        SharedSessionContract session = openSession();
+        ScrollableResults<Tuple> results;
+        try {
+            results = createQuery(session, criteriaQuery)
+                    .setFirstResult(query.getListOffset())
+                    .setMaxResults(getMaxResults(query, checkNext))
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            closeSession(session);
+            throw e;
+        }
+
+        Spliterator<Object[]> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Object[]> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                action.accept(results.get().toArray());
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            results.close();
+            closeSession(session);
+        });
+    }
+
+    /**
+     * Selects the minimal and the maximal ids of entities matching the filters of the query,
+     * the bounds of ranges of a chunked scan (see {@link ChunkedScan}).
+     *
+     * @param query      The `ViewtonQuery` containing the filtering parameters.
+     * @param entityType The entity class type to query, which should have a single numeric id.
+     * @param <T>        The entity type.
+     * @return The minimal and the maximal ids, both {@code null} if no entity matches.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> Object[] idBounds(ViewtonQuery query, Class<T> entityType) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        Root<T> root = criteriaQuery.from(entityType);
+        Path<Number> id = root.get(getIdAttribute(root));
+        criteriaQuery.multiselect(cb.min(id), cb.max(id))
+                .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb).toArray(new Predicate[0]));
+
+        return getResultList(criteriaQuery, UnaryOperator.identity()).get(0).toArray();
+    }
+
+    /**
+     * Performs the query in the session of {@link ViewtonSessionMode} and returns its result.
+     *
+     * @param criteriaQuery The query to perform.
+     * @param customizer    Applies pagination and other options to the query.
+     * @param <R>           The result type.
+     * @return The result list.
+     */
+    private <R> List<R> getResultList(CriteriaQuery<R> criteriaQuery, UnaryOperator<Query<R>> customizer) {
+        return withSession(session -> customizer.apply(createQuery(session, criteriaQuery)).getResultList());
+    }
+
+    /**
+     * Performs the work in the session of {@link ViewtonSessionMode}. A stateless session is closed after the work.
+     */
+    private <R> R withSession(Function<SharedSessionContract, R> work) {
+        SharedSessionContract session = openSession();
+        try {
+            return work.apply(session);
+        } finally {
+            closeSession(session);
+        }
+    }
+
+    /**
+     * Returns the session of the current transaction, or opens a stateless session on its connection
+     * in {@link ViewtonSessionMode#STATELESS} mode. The connection stays owned by the transaction.
+     */
+    private SharedSessionContract openSession() {
+        Session session = (Session) entityManager.getDelegate();
+        if (sessionMode == ViewtonSessionMode.SESSION) {
+            return session;
+        }
+
+        Connection connection = session.doReturningWork(transactionConnection -> transactionConnection);
+        return session.getSessionFactory().openStatelessSession(connection);
+    }
+
+    private void closeSession(SharedSessionContract session) {
+        if (session instanceof StatelessSession statelessSession) {
+            statelessSession.close();
+        }
+    }
+
+    private <R> Query<R> createQuery(SharedSessionContract session, CriteriaQuery<R> criteriaQuery) {
+        Query<R> query = session.createQuery(criteriaQuery);
+        if (session instanceof StatelessSession) {
+            // a stateless session never flushes, so only the read-only hint is applicable
+            query.setReadOnly(true);
+        }
+
+        return query;
+    }
+
+    /**
+     * Executes the list query. If window count is requested, {@code count(*) over()} is selected
+     * along with the attributes, so the total count of matching entities is taken from the first row.
+     * If next page is checked, an extra entity is selected to detect it and then trimmed.
+     * <p>
+     * In keyset pagination the page is selected by the seek predicate instead of offset, and the values of keys
+     * are selected along with the attributes to build the cursor of the next page, see {@link KeysetPagination}.
+     * </p>
+     * <p>
+     * Deep pages are selected by the deferred join, see {@link #deferredJoin(ViewtonQuery, Class, List, boolean, int)}.
+     * Other pages are selected by the native engine if it is enabled and supports the query.
+     * </p>
+     *
+     * @param query       The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType  The entity class type to query.
+     * @param resultType  The type the selected rows are mapped to.
+     * @param windowCount Whether the total count should be selected by the window function.
+     * @param checkNext   Whether an extra entity should be selected to detect the next page.
+     * @param <T>         The entity type.
+     * @param <P>         The result type.
+     * @return The page of entities, the total count and the next page existence, if they are known.
+     */
+    private <T, P> ListResult<P> fetch(
+            ViewtonQuery query,
+            Class<T> entityType,
+            Class<P> resultType,
+            boolean windowCount,
+            boolean checkNext
+    ) {
+        if (query.isKeyset() && query.isDistinct()) {
+            throw new IllegalArgumentException("Keyset pagination is not supported for distinct queries");
+        }
+
+        IdentifiableType<T> model = entityManager.getMetamodel().entity(entityType);
+        List<String> mappingAttributes = getAttributes(query, model, resultType);
+        // the mapper validates the result type against the attributes before querying
+        RowMapper<P> mapper = rowMappers.get(resultType, mappingAttributes);
+        if (isDeferredJoin(query, model)) {
+            List<Object[]> rows = deferredJoin(
+                    query, entityType, mappingAttributes, windowCount, getMaxResults(query, checkNext));
+            return toListResult(rows, query, mapper, mappingAttributes, windowCount, checkNext, -1);
+        }
+        if (!query.isKeyset() && isNative(query, entityType, mappingAttributes)) {
+            List<Object[]> rows = nativeEngine().list(getNativeSession(), query, entityType, mappingAttributes,
+                    windowCount, query.getListOffset(), getMaxResults(query, checkNext));
+            return toListResult(rows, query, mapper, mappingAttributes, windowCount, checkNext, -1);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        Root<T> root = criteriaQuery.from(entityType);
+
+        List<Selection<?>> selections = getSelections(mappingAttributes, root);
+        if (windowCount) {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            selections.add(hcb.count(root, hcb.createWindow()));
+        }
+
+        List<RawOrderBy> orders = getListOrders(query, root);
+        int keysIndex = selections.size();
+        if (query.isKeyset()) {
+            orders.forEach(key -> selections.add(root.get(key.getFieldName())));
+        }
+
+        CriteriaQuery<Tuple> resultQuery = Optional.of(criteriaQuery)
+                .map(q -> q.where(getListPredicates(query, orders, root, cb)))
+                .map(q -> q.orderBy(query.isKeyset()
+                        ? getNullsSmallestOrders(orders, root, cb)
+                        : getOrders(orders, root, cb)))
+                .map(q -> q.multiselect(selections).distinct(query.isDistinct()))
+                .orElseThrow(() -> new IllegalStateException("Unable to construct final query"));
+
+        List<Object[]> rows = getResultList(resultQuery,
+                q -> q.setFirstResult(query.getListOffset()).setMaxResults(getMaxResults(query, checkNext)))
+                .stream()
+                .map(Tuple::toArray)
+                .collect(toList());
+
+        return toListResult(rows, query, mapper, mappingAttributes, windowCount, checkNext, keysIndex);
+    }
 
     /**
-     * Constructs a new `ViewtonRepository` with the specified default page size and `EntityManager`.
-     *
-     * @param defaultPageSize The default page size to be used when pagination is not specified.
-     * @param entityManager   The JPA `EntityManager` used to execute queries.
+     * Returns the order of the list query. Keyset pagination orders by keys, see {@link KeysetPagination}.
      */
-    @Autowired
-    public ViewtonRepository(
-            @Value("${viewton.request.default-page-size:50}") int defaultPageSize,
-            EntityManager entityManager) {
-        this.defaultPageSize = defaultPageSize;
-        this.entityManager = entityManager;
+    private List<RawOrderBy> getListOrders(ViewtonQuery query, Root<?> root) {
+        return query.isKeyset()
+                ? KeysetPagination.keys(query, getIdAttribute(root))
+                : query.getRawOrderByes();
     }
 
     /**
-     * Returns a paginated response of entities based on the provided request parameters.
-     * The method builds a `ViewtonQuery` from the request parameters and executes the query
-     * to retrieve the results, along with count and totals.
+     * Returns where predicates of the list query along with the seek predicate of keyset pagination.
+     */
+    private Predicate[] getListPredicates(ViewtonQuery query, List<RawOrderBy> orders, Root<?> root, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>(
+                WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb));
+        if (query.isKeyset() && query.getAfter() != null) {
+            predicates.add(KeysetPagination.seekPredicate(orders, query.getAfter(), root, cb));
+        }
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Maps rows of the list query to the page of entities.
      *
-     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
-     * @param entityType    The entity class type to query.
-     * @param <T>           The entity type.
-     * @return A `ViewtonResponseDto` containing the results of the query, count, and totals.
+     * @param rows       Selected rows: attributes followed by the window count and keys if they are selected,
+     *                   {@code null} for entities deleted between the queries of the deferred join.
+     * @param mapper     Maps the attributes of a row to the result type.
+     * @param keysIndex  Index of the first key of keyset pagination in a row.
      */
-    public <T> ViewtonResponseDto<T> list(Map<String, String> requestParams, Class<T> entityType) {
-        ViewtonQuery viewtonQuery = ViewtonQueryMapper.of(requestParams, defaultPageSize);
+    private <P> ListResult<P> toListResult(
+            List<Object[]> rows,
+            ViewtonQuery query,
+            RowMapper<P> mapper,
+            List<String> mappingAttributes,
+            boolean windowCount,
+            boolean checkNext,
+            int keysIndex
+    ) {
+        Boolean hasNext = null;
+        String nextCursor = null;
+        if (checkNext) {
+            hasNext = rows.size() > query.getPageSize();
+            if (hasNext) {
+                rows = rows.subList(0, query.getPageSize());
+            }
+            if (hasNext && query.isKeyset()) {
+                Object[] last = rows.get(rows.size() - 1);
+                nextCursor = KeysetPagination.encode(Arrays.asList(last).subList(keysIndex, last.length));
+            }
+        }
 
-        return new ViewtonResponseDto<>(
-                list(viewtonQuery, entityType),
-                sum(viewtonQuery, entityType),
-                avg(viewtonQuery, entityType),
-                count(viewtonQuery, entityType)
-        );
+        // the page is checked and counted by the selected rows, even if some of their entities were deleted
+        int size = rows.size();
+        rows = rows.stream()
+                .filter(Objects::nonNull)
+                .collect(toList());
+        List<P> list = rows.stream()
+                .map(mapper::map)
+                .collect(toList());
+
+        return new ListResult<>(list, size,
+                windowCount ? windowTotal(rows, mappingAttributes.size(), query) : null, hasNext, nextCursor);
     }
 
     /**
-     * Executes the query using the provided `ViewtonQuery` and returns a paginated list of entities.
+     * Selects a deep page in two steps: ids of the page are selected first, and then the attributes
+     * of the selected ids only. The database skips offset rows reading only the index of sorting attributes and id,
+     * instead of reading all the attributes of the skipped rows.
+     * <pre>
+     * select id from entity where ... order by ... offset N limit M
+     * select attributes..., id from entity where id in (...)
+     * </pre>
+     * Entities are returned in the order of the first query. Window count is selected by the first query.
      *
-     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
-     * @param entityType The entity class type to query.
-     * @param <T>        The entity type.
-     * @return A list of entities matching the query criteria.
+     * @return Rows of attributes followed by the window count if it is selected, a row for every selected id,
+     * which is {@code null} if its entity was deleted between the queries.
      */
-    public <T> List<T> list(ViewtonQuery query, Class<T> entityType) {
+    private <T> List<Object[]> deferredJoin(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> attributes,
+            boolean windowCount,
+            int maxResults
+    ) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
-        Root<T> root = criteriaQuery.from(entityType);
 
-        List<String> mappingAttributes = getAttributes(query, root);
-        Query<Tuple> resultQuery = Optional.of(criteriaQuery)
-                .map(q -> q.where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb)
-                        .toArray(new Predicate[0])))
-                .map(q -> q.orderBy(getOrders(query.getRawOrderByes(), root, cb)))
-                .map(q -> q.multiselect(getSelections(mappingAttributes, root)).distinct(query.isDistinct()))
-                .map(q -> ((Session) entityManager.getDelegate()).createQuery(q))
-                .map(q -> q.setFirstResult(query.getPage()).setMaxResults(query.getPageSize()))
-                .orElseThrow(() -> new IllegalStateException("Unable to construct final query"));
+        CriteriaQuery<Tuple> idsQuery = cb.createTupleQuery();
+        Root<T> idsRoot = idsQuery.from(entityType);
+        String idAttribute = getIdAttribute(idsRoot);
+        List<Selection<?>> idSelections = new ArrayList<>(List.of(idsRoot.get(idAttribute)));
+        if (windowCount) {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            idSelections.add(hcb.count(idsRoot, hcb.createWindow()));
+        }
+        idsQuery.multiselect(idSelections)
+                .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), idsRoot, cb)
+                        .toArray(new Predicate[0]))
+                .orderBy(getOrders(query.getRawOrderByes(), idsRoot, cb));
+
+        List<Object[]> idRows = getResultList(idsQuery, q -> q.setFirstResult(query.getListOffset()).setMaxResults(maxResults))
+                .stream()
+                .map(Tuple::toArray)
+                .collect(toList());
+        if (idRows.isEmpty()) {
+            return idRows;
+        }
+
+        CriteriaQuery<Tuple> attributesQuery = cb.createTupleQuery();
+        Root<T> root = attributesQuery.from(entityType);
+        List<Selection<?>> selections = getSelections(attributes, root);
+        selections.add(root.get(idAttribute));
+        attributesQuery.multiselect(selections)
+                .where(root.get(idAttribute).in(idRows.stream().map(idRow -> idRow[0]).toList()));
 
-        return resultQuery
+        int idIndex = attributes.size();
+        Map<Object, Object[]> rowsById = getResultList(attributesQuery, UnaryOperator.identity())
                 .stream()
                 .map(Tuple::toArray)
-                .map(tuples -> new AliasToBeanResultTransformer(entityType)
-                        .transformTuple(tuples, mappingAttributes.toArray(new String[0])))
-                .map(entityType::cast)
+                .collect(Collectors.toMap(row -> row[idIndex], Function.identity()));
+
+        return idRows.stream()
+                .map(idRow -> {
+                    if (!rowsById.containsKey(idRow[0])) {
+                        return null;
+                    }
+                    Object[] row = Arrays.copyOf(rowsById.get(idRow[0]), idIndex + (windowCount ? 1 : 0));
+                    if (windowCount) {
+                        row[idIndex] = idRow[1];
+                    }
+                    return row;
+                })
                 .collect(toList());
     }
 
+    /**
+     * Checks if the page should be selected by the deferred join: the offset is past the threshold,
+     * the entity has a single id, and the query is neither distinct (ids would break distinct attributes)
+     * nor keyset (it seeks by keys instead of an offset).
+     */
+    private boolean isDeferredJoin(ViewtonQuery query, IdentifiableType<?> model) {
+        return deferredJoinThreshold >= 0
+                && query.getListOffset() > deferredJoinThreshold
+                && query.getPageSize() <= MAX_DEFERRED_JOIN_PAGE_SIZE
+                && !query.isDistinct()
+                && !query.isKeyset()
+                && model.hasSingleIdAttribute();
+    }
+
+    /**
+     * Checks if the query should be performed by the native engine: it is enabled and supports the query.
+     */
+    private boolean isNative(ViewtonQuery query, Class<?> entityType, List<String> attributes) {
+        return engine == ViewtonEngine.NATIVE && nativeEngine().supports(query, entityType, attributes);
+    }
+
+    private NativeSqlEngine nativeEngine() {
+        if (nativeEngine == null) {
+            nativeEngine = new NativeSqlEngine(entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class), planCache);
+        }
+
+        return nativeEngine;
+    }
+
+    /**
+     * Returns the session of the current transaction, which connection is used by the native engine.
+     */
+    private SharedSessionContractImplementor getNativeSession() {
+        return (SharedSessionContractImplementor) entityManager.getDelegate();
+    }
+
+    private String getIdAttribute(Root<?> root) {
+        IdentifiableType<?> model = root.getModel();
+        if (!model.hasSingleIdAttribute()) {
+            throw new IllegalStateException("Single id attribute of the entity is required: " + model.getJavaType());
+        }
+
+        return model.getId(model.getIdType().getJavaType()).getName();
+    }
+
+    private int getMaxResults(ViewtonQuery query, boolean checkNext) {
+        if (checkNext && query.getPageSize() < Integer.MAX_VALUE) {
+            return query.getPageSize() + 1;
+        }
+
+        return query.getPageSize();
+    }
+
+    /**
+     * Reads total count selected by the window function.
+     *
+     * @return The total count or {@code null} if page is empty and the total could not be determined.
+     */
+    private Long windowTotal(List<Object[]> rows, int countIndex, ViewtonQuery query) {
+        if (!rows.isEmpty()) {
+            return (Long) rows.get(0)[countIndex];
+        }
+
+        return query.getListOffset() == 0 ? 0L : null;
+    }
+
+    /**
+     * Checks if the count should be selected by the window function along with the list query.
+     * Distinct queries are counted separately, because the window function is calculated before
+     * duplicates are removed. Subsequent keyset pages are counted separately too, because the window function
+     * counts only entities after the cursor.
+     */
+    private boolean isWindowCount(ViewtonQuery query) {
+        return countStrategy == ViewtonCountStrategy.WINDOW
+                && !query.doNotCount()
+                && !query.doNotList()
+                && !query.isDistinct()
+                && query.getAfter() == null
+                && supportsWindowFunctions();
+    }
+
+    private boolean supportsWindowFunctions() {
+        if (windowFunctionsSupported == null) {
+            windowFunctionsSupported = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect()
+                    .supportsWindowFunctions();
+        }
+
+        return windowFunctionsSupported;
+    }
+
     /**
      * Returns the count of results that match the given `ViewtonQuery`.
      *
@@ -142,6 +1333,9 @@ public class ViewtonRepository {
         if (query.doNotCount()) {
             return 0;
         }
+        if (isNative(query, entityClass, List.of())) {
+            return nativeEngine().count(getNativeSession(), query, entityClass);
+        }
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> basicQuery = cb.createQuery(Long.class);
@@ -153,7 +1347,7 @@ public class ViewtonRepository {
                 .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb)
                         .toArray(new Predicate[0]));
 
-        return entityManager.createQuery(criteriaQuery).getSingleResult();
+        return withSession(session -> createQuery(session, criteriaQuery).getSingleResult());
     }
 
     /**
@@ -165,9 +1359,29 @@ public class ViewtonRepository {
      * @return The total values for the specified attributes.
      */
     public <T> List<T> sum(ViewtonQuery query, Class<T> entityType) {
+        return sum(query, entityType, entityType, isSlicedAggregates(entityType));
+    }
+
+    private <T, P> List<P> sum(ViewtonQuery query, Class<T> entityType, Class<P> resultType, boolean sliced) {
         if (query.doNotSum()) {
             return null;
         }
+        if (sliced) {
+            List<String> groupBy = getGroupBy(query.getSum());
+            List<Object[]> rows = slicedAggregatesRows(
+                    query, entityType, groupBy, query.getSum().getAttributes(), List.of(), false);
+            return splitAggregates(paginate(rows, query), groupBy.size(), groupBy.size(),
+                    query.getSum().getAttributes().size(),
+                    query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType), resultType);
+        }
+        if (isNative(query, entityType, List.of())) {
+            List<Object[]> rows = nativeEngine().aggregate(getNativeSession(), query, entityType,
+                    getGroupBy(query.getSum()), query.getSum().getAttributes(), List.of(), false,
+                    query.getPage(), query.getPageSize());
+            int groupSize = getGroupBy(query.getSum()).size();
+            return splitAggregates(rows, groupSize, groupSize, query.getSum().getAttributes().size(),
+                    query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType), resultType);
+        }
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Tuple> basicQuery = cb.createTupleQuery();
@@ -179,15 +1393,12 @@ public class ViewtonRepository {
                 .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb)
                         .toArray(new Predicate[0]));
 
-        return ((Session) entityManager.getDelegate())
-                .createQuery(criteriaQuery)
-                .setFirstResult(query.getPage()).setMaxResults(query.getPageSize())
+        RowMapper<P> mapper = rowMappers.get(resultType,
+                query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType));
+        return getResultList(criteriaQuery, q -> q.setFirstResult(query.getPage()).setMaxResults(query.getPageSize()))
                 .stream()
                 .map(Tuple::toArray)
-                .map(tuples -> new AliasToBeanResultTransformer(entityType).transformTuple(
-                        tuples, query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType).toArray(new String[0]))
-                )
-                .map(entityType::cast)
+                .map(mapper::map)
                 .collect(Collectors.toList());
     }
 
@@ -206,9 +1417,29 @@ public class ViewtonRepository {
      * @return the calculated average values, {@code null} if avg not needed.
      */
     public <T> List<T> avg(ViewtonQuery query, Class<T> entityType) {
+        return avg(query, entityType, entityType, isSlicedAggregates(entityType));
+    }
+
+    private <T, P> List<P> avg(ViewtonQuery query, Class<T> entityType, Class<P> resultType, boolean sliced) {
         if (query.doNotAvg()) {
             return null;
         }
+        if (sliced) {
+            List<String> groupBy = getGroupBy(query.getAvg());
+            List<Object[]> rows = slicedAggregatesRows(
+                    query, entityType, groupBy, List.of(), query.getAvg().getAttributes(), false);
+            return splitAggregates(paginate(rows, query), groupBy.size(), groupBy.size(),
+                    query.getAvg().getAttributes().size(),
+                    query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType), resultType);
+        }
+        if (isNative(query, entityType, List.of())) {
+            List<Object[]> rows = nativeEngine().aggregate(getNativeSession(), query, entityType,
+                    getGroupBy(query.getAvg()), List.of(), query.getAvg().getAttributes(), false,
+                    query.getPage(), query.getPageSize());
+            int groupSize = getGroupBy(query.getAvg()).size();
+            return splitAggregates(rows, groupSize, groupSize, query.getAvg().getAttributes().size(),
+                    query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType), resultType);
+        }
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Tuple> basicQuery = cb.createTupleQuery();
@@ -220,18 +1451,388 @@ public class ViewtonRepository {
                 .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb)
                         .toArray(new Predicate[0]));
 
-        return ((Session) entityManager.getDelegate())
-                .createQuery(criteriaQuery)
-                .setFirstResult(query.getPage()).setMaxResults(query.getPageSize())
+        RowMapper<P> mapper = rowMappers.get(resultType,
+                query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType));
+        return getResultList(criteriaQuery, q -> q.setFirstResult(query.getPage()).setMaxResults(query.getPageSize()))
                 .stream()
                 .map(Tuple::toArray)
-                .map(tuples -> new AliasToBeanResultTransformer(entityType).transformTuple(
-                        tuples, query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType).toArray(new String[0]))
-                )
-                .map(entityType::cast)
+                .map(mapper::map)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Asynchronous variant of {@link #list(Map, Class)}. The request runs on the executor of asynchronous requests
+     * (see {@link ViewtonQueryExecutor}) and manages its transactions the same way, so the calling thread is not blocked.
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param <T>           The entity type.
+     * @return A future of the `ViewtonResponseDto` containing the results of the query, count, and totals.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> CompletableFuture<ViewtonResponseDto<T>> listAsync(Map<String, String> requestParams, Class<T> entityType) {
+        return queryExecutor.supplyAsync(() -> list(requestParams, entityType));
+    }
+
+    /**
+     * Asynchronous variant of {@link #list(ViewtonQuery, Class)}, performed in its own read-only transaction.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A future of the list of entities matching the query criteria.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> CompletableFuture<List<T>> listAsync(ViewtonQuery query, Class<T> entityType) {
+        return async(() -> list(query, entityType));
+    }
+
+    /**
+     * Asynchronous variant of {@link #count(ViewtonQuery, Class)}, performed in its own read-only transaction.
+     *
+     * @param query       The `ViewtonQuery` containing the filtering and pagination parameters.
+     * @param entityClass The entity class to query.
+     * @param <T>         The entity type.
+     * @return A future of the count of entities matching the query.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> CompletableFuture<Long> countAsync(ViewtonQuery query, Class<T> entityClass) {
+        return async(() -> count(query, entityClass));
+    }
+
+    /**
+     * Asynchronous variant of {@link #sum(ViewtonQuery, Class)}, performed in its own read-only transaction.
+     *
+     * @param query      The `ViewtonQuery` containing the total attributes and filtering parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A future of the total values for the specified attributes.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> CompletableFuture<List<T>> sumAsync(ViewtonQuery query, Class<T> entityType) {
+        return async(() -> sum(query, entityType));
+    }
+
+    /**
+     * Asynchronous variant of {@link #avg(ViewtonQuery, Class)}, performed in its own read-only transaction.
+     *
+     * @param query      The `ViewtonQuery` containing the avg attributes and filtering parameters.
+     * @param entityType The entity class type to query.
+     * @param <T>        The entity type.
+     * @return A future of the average values, completed with {@code null} if avg is not needed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> CompletableFuture<List<T>> avgAsync(ViewtonQuery query, Class<T> entityType) {
+        return async(() -> avg(query, entityType));
+    }
+
+    /**
+     * Performs the query asynchronously in a new read-only transaction of the executing thread,
+     * so it gets its own {@code EntityManager} and connection.
+     */
+    private <R> CompletableFuture<R> async(Supplier<R> query) {
+        return queryExecutor.supplyAsync(() -> queryExecutor.inReadOnlyTransaction(query));
+    }
+
+    /**
+     * Calculates requested aggregates by a single fused query if it is planned,
+     * otherwise separate sum and avg queries are performed.
+     *
+     * @param query      The `ViewtonQuery` containing the aggregate attributes and filtering parameters.
+     * @param entityType The entity class type to query.
+     * @param resultType The type the selected rows are mapped to.
+     * @param plan       The plan of sub-queries.
+     * @param <T>        The entity type.
+     * @param <P>        The result type.
+     * @return The aggregate values.
+     */
+    private <T, P> AggregateResult<P> aggregate(
+            ViewtonQuery query,
+            Class<T> entityType,
+            Class<P> resultType,
+            ViewtonExecutionPlan plan
+    ) {
+        if (plan.isFusedAggregates()) {
+            return fusedAggregates(query, entityType, resultType, plan.isCountFused() && !plan.isCountKnown(),
+                    plan.isSlicedAggregates());
+        }
+
+        return new AggregateResult<>(sum(query, entityType, resultType, plan.isSlicedAggregates()),
+                avg(query, entityType, resultType, plan.isSlicedAggregates()), null);
+    }
+
+    /**
+     * Returns aggregates of an empty selection without querying. Grouped aggregates of an empty selection
+     * have no rows, while not grouped ones have a single row with {@code null} values (on the first page).
+     */
+    private <P> AggregateResult<P> emptyAggregates(ViewtonQuery query, Class<P> resultType) {
+        return new AggregateResult<>(
+                query.doNotSum() ? null : emptyAggregate(query.getSum(), query, resultType),
+                query.doNotAvg() ? null : emptyAggregate(query.getAvg(), query, resultType),
+                0L
+        );
+    }
+
+    private <P> List<P> emptyAggregate(AggregateAttributes aggregateAttributes, ViewtonQuery query, Class<P> resultType) {
+        List<P> result = new ArrayList<>();
+        if (getGroupBy(aggregateAttributes).isEmpty() && query.getPage() == 0) {
+            result.add(rowMappers.get(resultType, List.of()).map(new Object[0]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Performs a single {@code select group..., sum(a)..., avg(b)..., count(*)} query and splits its result
+     * to sum, avg and count. Pagination is applied to groups the same way as in {@link #sum(ViewtonQuery, Class)}
+     * and {@link #avg(ViewtonQuery, Class)}.
+     *
+     * @param query      The `ViewtonQuery` containing the aggregate attributes and filtering parameters.
+     * @param entityType The entity class type to query.
+     * @param resultType The type the selected rows are mapped to.
+     * @param withCount  Whether the count should be selected. Applicable only for queries without group by.
+     * @param sliced     Whether aggregates are calculated by slices of id ranges, see {@link #isSlicedAggregates}.
+     * @param <T>        The entity type.
+     * @param <P>        The result type.
+     * @return The aggregate values.
+     */
+    private <T, P> AggregateResult<P> fusedAggregates(
+            ViewtonQuery query,
+            Class<T> entityType,
+            Class<P> resultType,
+            boolean withCount,
+            boolean sliced
+    ) {
+        List<String> groupBy = getFusedGroupBy(query);
+        List<String> sumAttributes = query.doNotSum() ? List.of() : query.getSum().getAttributes();
+        List<String> avgAttributes = query.doNotAvg() ? List.of() : query.getAvg().getAttributes();
+
+        List<Object[]> rows;
+        if (sliced) {
+            rows = slicedAggregatesRows(query, entityType, groupBy, sumAttributes, avgAttributes, withCount);
+            if (!groupBy.isEmpty()) {
+                rows = paginate(rows, query);
+            }
+        } else if (isNative(query, entityType, List.of())) {
+            // the only row is selected without pagination to take the count even for subsequent pages
+            rows = nativeEngine().aggregate(getNativeSession(), query, entityType, groupBy, sumAttributes,
+                    avgAttributes, withCount, groupBy.isEmpty() ? 0 : query.getPage(),
+                    groupBy.isEmpty() ? Integer.MAX_VALUE : query.getPageSize());
+        } else {
+            rows = fusedAggregatesRows(query, entityType, groupBy, sumAttributes, avgAttributes, withCount);
+        }
+
+        Long count = withCount ? (Long) rows.get(0)[rows.get(0).length - 1] : null;
+        if (groupBy.isEmpty() && query.getPage() > 0) {
+            rows = List.of();
+        }
+
+        int groupSize = groupBy.size();
+        List<P> sum = query.doNotSum() ? null : splitAggregates(rows, groupSize, groupSize, sumAttributes.size(),
+                query.getSum().getAllFields(ViewtonReflections::getSumAliases, entityType), resultType);
+        List<P> avg = query.doNotAvg() ? null : splitAggregates(rows, groupSize, groupSize + sumAttributes.size(),
+                avgAttributes.size(), query.getAvg().getAllFields(ViewtonReflections::getAvgAliases, entityType), resultType);
+
+        return new AggregateResult<>(sum, avg, count);
+    }
+
+    /**
+     * Selects rows of the fused aggregates query by the Criteria API.
+     */
+    private <T> List<Object[]> fusedAggregatesRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> groupBy,
+            List<String> sumAttributes,
+            List<String> avgAttributes,
+            boolean withCount
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> basicQuery = cb.createTupleQuery();
+        Root<T> root = basicQuery.from(entityType);
+
+        List<Selection<?>> selections = getSelections(groupBy, root);
+        sumAttributes.forEach(attribute -> selections.add(cb.sum(root.<Number>get(attribute))));
+        avgAttributes.forEach(attribute -> selections.add(cb.avg(root.<Number>get(attribute))));
+        if (withCount) {
+            selections.add(cb.count(root));
+        }
+
+        CriteriaQuery<Tuple> criteriaQuery = basicQuery
+                .multiselect(selections)
+                .groupBy(getGroupByColumns(groupBy, root))
+                .where(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb)
+                        .toArray(new Predicate[0]));
+
+        if (groupBy.isEmpty()) {
+            // the only row is selected without pagination to take the count even for subsequent pages
+            return getResultList(criteriaQuery, UnaryOperator.identity())
+                    .stream().map(Tuple::toArray).collect(toList());
+        }
+
+        return getResultList(criteriaQuery, q -> q.setFirstResult(query.getPage()).setMaxResults(query.getPageSize()))
+                .stream().map(Tuple::toArray).collect(toList());
+    }
+
+    /**
+     * Checks if aggregates should be calculated by slices of id ranges in parallel: slicing is enabled
+     * by {@code viewton.aggregate.slices} and the entity has a single integral id. Slices are performed
+     * in their own transactions, so a request in a transaction of the caller, or with
+     * {@link ViewtonConsistency#SNAPSHOT} consistency, is aggregated by a single query.
+     */
+    private boolean isSlicedAggregates(Class<?> entityType) {
+        if (aggregateSlices < 2 || consistency != ViewtonConsistency.RELAXED
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+
+        IdentifiableType<?> model = entityManager.getMetamodel().entity(entityType);
+        return model.hasSingleIdAttribute() && ChunkedScan.supports(model.getIdType().getJavaType());
+    }
+
+    /**
+     * Calculates aggregates by slices of id ranges (see {@link ChunkedScan}) performed in parallel,
+     * each in its own read-only transaction, and merges their partial states (see {@link PartialAggregates}).
+     *
+     * @return Rows of the same shape as of {@link #fusedAggregatesRows}, without pagination of groups.
+     */
+    private <T> List<Object[]> slicedAggregatesRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> groupBy,
+            List<String> sumAttributes,
+            List<String> avgAttributes,
+            boolean withCount
+    ) {
+        PartialAggregates aggregates = new PartialAggregates(
+                groupBy.size(), sumAttributes.size(), avgAttributes.size(), withCount);
+
+        Object[] bounds = idBounds(query, entityType);
+        if (bounds[0] != null) {
+            List<Supplier<Stream<Object[]>>> slices = ChunkedScan
+                    .split(((Number) bounds[0]).longValue(), ((Number) bounds[1]).longValue(), aggregateSlices)
+                    .stream()
+                    .map(slice -> (Supplier<Stream<Object[]>>) () -> partialAggregatesRows(
+                            query, entityType, groupBy, sumAttributes, avgAttributes, withCount, slice).stream())
+                    .toList();
+            try (Stream<Object[]> partials = queryExecutor.merge(slices, null, streamFetchSize)) {
+                partials.forEach(aggregates::add);
+            }
+        }
+
+        return aggregates.getRows();
+    }
+
+    /**
+     * Selects mergeable states of aggregates of a slice: sums, and sums along with counts of averaged attributes.
+     */
+    private <T> List<Object[]> partialAggregatesRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> groupBy,
+            List<String> sumAttributes,
+            List<String> avgAttributes,
+            boolean withCount,
+            ChunkedScan.Range slice
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        Root<T> root = criteriaQuery.from(entityType);
+
+        List<Selection<?>> selections = getSelections(groupBy, root);
+        sumAttributes.forEach(attribute -> selections.add(cb.sum(root.<Number>get(attribute))));
+        avgAttributes.forEach(attribute -> selections.add(cb.sum(root.<Number>get(attribute))));
+        avgAttributes.forEach(attribute -> selections.add(cb.count(root.get(attribute))));
+        if (withCount) {
+            selections.add(cb.count(root));
+        }
+
+        List<Predicate> predicates = new ArrayList<>(WherePredicatesConverter.convert(query.getRawWhereClauses(), root, cb));
+        predicates.add(slice.toPredicate(root.get(getIdAttribute(root)), cb));
+        criteriaQuery.multiselect(selections)
+                .groupBy(getGroupByColumns(groupBy, root))
+                .where(predicates.toArray(new Predicate[0]));
+
+        return getResultList(criteriaQuery, UnaryOperator.identity())
+                .stream().map(Tuple::toArray).collect(toList());
+    }
+
+    /**
+     * Applies pagination of groups to aggregate rows selected without it.
+     */
+    private List<Object[]> paginate(List<Object[]> rows, ViewtonQuery query) {
+        return rows.stream().skip(query.getPage()).limit(query.getPageSize()).collect(toList());
+    }
+
+    /**
+     * Maps the group by values and the part of aggregate values of the fused query rows to entities.
+     */
+    private <P> List<P> splitAggregates(
+            List<Object[]> rows,
+            int groupSize,
+            int from,
+            int length,
+            List<String> aliases,
+            Class<P> resultType
+    ) {
+        RowMapper<P> mapper = rowMappers.get(resultType, aliases);
+        return rows.stream()
+                .map(row -> {
+                    Object[] tuple = new Object[groupSize + length];
+                    System.arraycopy(row, 0, tuple, 0, groupSize);
+                    System.arraycopy(row, from, tuple, groupSize, length);
+                    return mapper.map(tuple);
+                })
+                .collect(toList());
+    }
+
+    /**
+     * Checks if requested aggregates could be calculated by a single fused query.
+     * It is possible when at least two of sum, avg and count are requested and group by attributes of them match.
+     *
+     * @param query       The `ViewtonQuery` containing the aggregate attributes.
+     * @param countNeeded Whether the count is still unknown and could be calculated along with aggregates.
+     * @return {@code true} if aggregates should be fused.
+     */
+    private boolean isFusedAggregates(ViewtonQuery query, boolean countNeeded) {
+        if (query.doNotSum() && query.doNotAvg()) {
+            return false;
+        }
+        if (!query.doNotSum() && !query.doNotAvg()
+                && !getGroupBy(query.getSum()).equals(getGroupBy(query.getAvg()))) {
+            return false;
+        }
+
+        int aggregates = (query.doNotSum() ? 0 : 1) + (query.doNotAvg() ? 0 : 1);
+        if (isCountFused(query, countNeeded)) {
+            aggregates++;
+        }
+
+        return aggregates > 1;
+    }
+
+    /**
+     * Checks if the count could be selected along with aggregates. Count is fused only to the aggregates
+     * without group by, because grouped aggregates are paginated, and only when the query is not distinct.
+     */
+    private boolean isCountFused(ViewtonQuery query, boolean countNeeded) {
+        return countNeeded
+                && !query.doNotCount()
+                && !query.isDistinct()
+                && (!query.doNotSum() || !query.doNotAvg())
+                && getFusedGroupBy(query).isEmpty();
+    }
+
+    private List<String> getFusedGroupBy(ViewtonQuery query) {
+        return getGroupBy(query.doNotSum() ? query.getAvg() : query.getSum());
+    }
+
+    private List<String> getGroupBy(AggregateAttributes aggregateAttributes) {
+        return aggregateAttributes.getGroupByAttributes() == null
+                ? List.of()
+                : aggregateAttributes.getGroupByAttributes();
+    }
+
     /**
      * Builds a list of `Order` clauses based on the given order by criteria.
      *
@@ -250,19 +1851,46 @@ public class ViewtonRepository {
                 .toList();
     }
 
+    /**
+     * Returns the order with nulls ordered as the smallest values regardless of the database, the same way as chunks
+     * are merged (see {@link ChunkedScan#order(List, int, List)}) and keyset pages are sought
+     * (see {@link KeysetPagination#seekPredicate(List, String, Root, CriteriaBuilder)}).
+     */
+    private List<Order> getNullsSmallestOrders(List<RawOrderBy> orders, Root<?> root, CriteriaBuilder cb) {
+        HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+        return orders
+                .stream()
+                .map(orderBy -> {
+                    Path<?> path = root.get(orderBy.getFieldName());
+                    return (Order) (orderBy.isAscending() ? hcb.asc(path, true) : hcb.desc(path, false));
+                })
+                .toList();
+    }
+
     /**
      * Retrieves the attributes to be selected in the query.
-     * If no attributes are provided in the query, defaults to all attributes of the entity.
+     * If no attributes are provided in the query, defaults to the attributes of the entity which are properties
+     * of a record or an interface result type, or to all attributes of the entity otherwise.
      *
-     * @param query The `ViewtonQuery` containing the requested attributes.
-     * @param root  The root entity path used for selecting the attributes.
-     * @param <T>   The entity type.
+     * @param query      The `ViewtonQuery` containing the requested attributes.
+     * @param model      The model of the entity.
+     * @param resultType The type the selected rows are mapped to.
+     * @param <T>        The entity type.
      * @return A list of attribute names to be selected.
      */
-    private <T> List<String> getAttributes(ViewtonQuery query, Root<T> root) {
-        return query.getAttributes() == null
-                ? getDefaultAttributes(root)
-                : query.getAttributes();
+    private <T> List<String> getAttributes(ViewtonQuery query, ManagedType<T> model, Class<?> resultType) {
+        if (query.getAttributes() != null) {
+            return query.getAttributes();
+        }
+
+        List<String> projected = rowMappers.getProjectedProperties(resultType);
+        if (projected == null) {
+            return getDefaultAttributes(model);
+        }
+
+        // properties of the projection which are not attributes of the entity stay null
+        Set<String> attributes = model.getAttributes().stream().map(Attribute::getName).collect(Collectors.toSet());
+        return projected.stream().filter(attributes::contains).toList();
     }
 
     /**
@@ -271,23 +1899,23 @@ public class ViewtonRepository {
      * @param attributes The list of attribute names to be selected.
      * @param root       The root entity path used for selecting the attributes.
      * @param <T>        The entity type.
-     * @return An array of `Expression` objects for selecting the attributes.
+     * @return A modifiable list of `Selection` objects for selecting the attributes.
      */
-    private <T> Expression[] getSelections(List<String> attributes, Root<T> root) {
+    private <T> List<Selection<?>> getSelections(List<String> attributes, Root<T> root) {
         return attributes.stream()
-                .map(root::get)
-                .toArray(Expression[]::new);
+                .<Selection<?>>map(root::get)
+                .collect(toList());
     }
 
     /**
      * Returns the default attributes for the entity if no specific attributes are requested.
      *
-     * @param root The root entity path.
-     * @param <T>  The entity type.
+     * @param model The model of the entity.
+     * @param <T>   The entity type.
      * @return A list of default attribute names.
      */
-    private <T> List<String> getDefaultAttributes(Root<T> root) {
-        return root.getModel().getAttributes().stream()
+    private <T> List<String> getDefaultAttributes(ManagedType<T> model) {
+        return model.getAttributes().stream()
                 .map(Attribute::getName)
                 .collect(toList());
     }
@@ -306,7 +1934,7 @@ public class ViewtonRepository {
         return mapAggregateColumns(sumAttributes, cb::sum, root);
     }
 
-    private <T, N extends Number> Expression[] mapAggregateColumns(AggregateAttributes aggregateAttributes, Function<Expression<N>, Expression<N>> expressionQuery, Root<T> root) {
+    private <T, N extends Number> Expression[] mapAggregateColumns(AggregateAttributes aggregateAttributes, Function<Expression<N>, Expression<? extends Number>> expressionQuery, Root<T> root) {
         Expression[] groupByExpressions;
         if (aggregateAttributes.getGroupByAttributes() == null) {
             groupByExpressions = new Expression[0];
@@ -326,7 +1954,7 @@ public class ViewtonRepository {
 
     @SuppressWarnings("unchecked")
     private <T> Expression[] getAvgColumns(AvgAttributes avgAttributes, CriteriaBuilder cb, Root<T> root) {
-        return mapAggregateColumns(avgAttributes, cb::sum, root);
+        return mapAggregateColumns(avgAttributes, cb::avg, root);
     }
 
     private <T> Expression[] getGroupByColumns(List<String> groupByFields, Root<T> root) {
@@ -0,0 +1,56 @@
+package com.viewton;
+
+import java.util.List;
+
+/**
+ * Receives the parts of a response written by {@link ViewtonRepository#writeResponse(com.viewton.dto.ViewtonQuery,
+ * Class, ViewtonResponseSink)} as the sub-queries are performed, so the page is never collected in memory.
+ * <p>
+ * The list and the aggregates are passed in the order their sub-queries are performed, and each of them
+ * at most once: the list is not passed if the request does not list entities, and the aggregates are not
+ * passed if they are not requested. The response always ends with {@link #end(Long, Boolean, String)}.
+ * </p>
+ *
+ * @see com.viewton.json.ViewtonJsonWriter
+ */
+public interface ViewtonResponseSink {
+
+    /**
+     * Begins the page of the list.
+     *
+     * @param attributes The names of the selected attributes, in the order of values of rows.
+     */
+    void beginList(List<String> attributes);
+
+    /**
+     * Receives a row of the page.
+     *
+     * @param row The values of the selected attributes, which could be followed by other values of the query
+     *            that should be ignored.
+     */
+    void row(Object[] row);
+
+    /**
+     * Ends the page of the list.
+     */
+    void endList();
+
+    /**
+     * Receives the aggregates.
+     *
+     * @param sumAttributes The names of values of rows of sums, or {@code null} if sums are not requested.
+     * @param sum           The rows of sums.
+     * @param avgAttributes The names of values of rows of averages, or {@code null} if averages are not requested.
+     * @param avg           The rows of averages.
+     */
+    void aggregates(List<String> sumAttributes, List<Object[]> sum, List<String> avgAttributes, List<Object[]> avg);
+
+    /**
+     * Ends the response.
+     *
+     * @param count      The total count of matching entities, if it is known.
+     * @param hasNext    Whether there is a next page, if it is checked.
+     * @param nextCursor The cursor of the next page of keyset pagination, if there is one.
+     */
+    void end(Long count, Boolean hasNext, String nextCursor);
+}
@@ -0,0 +1,399 @@
+package com.viewton;
+
+import com.viewton.cache.ViewtonCache;
+import com.viewton.cache.ViewtonCacheStats;
+import com.viewton.cache.ViewtonOffHeapCache;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of responses keyed by the parsed query and the entity type, placed in front of the database.
+ * Responses are cached as rows of values of the selected attributes, so a response is shared by result types
+ * selecting the same attributes, and every request maps the rows to its own response. Responses of an entity are invalidated when an entity of its type is inserted, updated
+ * or deleted by Hibernate, both when the change is flushed and when it is committed, so a cached response
+ * does not outlive the data it was built from.
+ * <p>
+ * Hibernate event listeners are registered once per session factory and shared by its caches,
+ * and they invalidate only entity types which were queried.
+ * A response loaded while its entity type was changed is not cached. Changes made bypassing Hibernate events
+ * (bulk {@code update} and {@code delete} queries, native SQL, other applications) are not noticed,
+ * so they should be followed by {@link #invalidate(Class)}, and {@code viewton.result-cache.expire-after-write-seconds}
+ * bounds the staleness of such changes.
+ * </p>
+ * <p>
+ * The cache is bounded by the number of responses ({@code viewton.result-cache.max-size}, {@code 0} disables
+ * the cache), the total number of their rows ({@code viewton.result-cache.max-rows}) and their estimated memory
+ * ({@code viewton.result-cache.max-memory-bytes}).
+ * </p>
+ * <p>
+ * If {@code viewton.result-cache.off-heap-bytes} is set, responses are serialized and stored off the heap instead
+ * (see {@link ViewtonOffHeapCache}), bounded by the size of the buffer, and every request decodes the rows
+ * it reads (see {@link SerializedResponse}). If {@code viewton.result-cache.file} is set as well, the buffer is
+ * mapped to the file, so responses cached before a restart are served after it until they expire. Changes made
+ * while the application is stopped are not noticed, and the file should be deleted when mapped attributes
+ * of entities are changed.
+ * </p>
+ */
+@Component
+public class ViewtonResultCache implements AutoCloseable {
+
+    /**
+     * Estimated memory of an object header and a reference to it.
+     */
+    private static final long ROW_BYTES = 24;
+
+    /**
+     * Estimated memory of a selected value: a reference and a small boxed value.
+     */
+    private static final long VALUE_BYTES = 24;
+
+    /**
+     * Listeners registered in registries of session factories. Hibernate rejects a second listener of the same class,
+     * so a listener is registered once per registry and invalidates all the caches listening to it.
+     */
+    private static final Map<EventListenerRegistry, Invalidation> INVALIDATIONS = new WeakHashMap<>();
+
+    private final boolean enabled;
+    private final ViewtonCache<Key, Result> results;
+    private final ViewtonOffHeapCache offHeap;
+    private final Invalidation invalidation;
+
+    /**
+     * Versions of queried entity types, incremented by every change of an entity of the type.
+     */
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new `ViewtonResultCache` configured by {@code viewton.result-cache} properties.
+     *
+     * @param properties           The tuning properties, see {@link ViewtonProperties}.
+     * @param entityManagerFactory The factory which Hibernate events are listened to,
+     *                             {@code null} if the cache is disabled.
+     */
+    @Autowired
+    public ViewtonResultCache(ViewtonProperties properties, @Nullable EntityManagerFactory entityManagerFactory) {
+        this(properties.getResultCache().getMaxSize(), properties.getResultCache().getMaxRows(),
+                properties.getResultCache().getMaxMemoryBytes(),
+                properties.getResultCache().getExpireAfterWriteSeconds(), properties.getResultCache().getOffHeapBytes(),
+                properties.getResultCache().getFile(), entityManagerFactory);
+    }
+
+    /**
+     * Constructs a new `ViewtonResultCache`.
+     *
+     * @param maxSize                 The maximum number of cached responses, {@code 0} disables the cache
+     *                                unless responses are stored off the heap.
+     * @param maxRows                 The maximum total number of rows of cached responses.
+     * @param maxMemoryBytes          The maximum estimated memory of cached responses.
+     * @param expireAfterWriteSeconds Seconds after caching when a response is evicted, {@code 0} to not expire responses.
+     * @param offHeapBytes            The size of the buffer responses are stored in off the heap,
+     *                                {@code 0} to store responses on the heap.
+     * @param file                    The file the off-heap buffer is mapped to, empty to not persist responses.
+     * @param entityManagerFactory    The factory which Hibernate events are listened to,
+     *                                {@code null} if the cache is disabled.
+     */
+    public ViewtonResultCache(
+            int maxSize,
+            long maxRows,
+            long maxMemoryBytes,
+            long expireAfterWriteSeconds,
+            int offHeapBytes,
+            String file,
+            @Nullable EntityManagerFactory entityManagerFactory) {
+        this(maxSize, maxRows, maxMemoryBytes, Duration.ofSeconds(expireAfterWriteSeconds),
+                offHeapBytes == 0 ? null : new ViewtonOffHeapCache(offHeapBytes,
+                        file.isEmpty() ? null : Path.of(file), Duration.ofSeconds(expireAfterWriteSeconds),
+                        SerializedResponse::isReadable),
+                (maxSize == 0 && offHeapBytes == 0) || entityManagerFactory == null ? null : entityManagerFactory
+                        .unwrap(SessionFactoryImplementor.class)
+                        .getServiceRegistry()
+                        .requireService(EventListenerRegistry.class));
+    }
+
+    ViewtonResultCache(
+            int maxSize,
+            long maxRows,
+            long maxMemoryBytes,
+            Duration expireAfterWrite,
+            @Nullable EventListenerRegistry listeners
+    ) {
+        this(maxSize, maxRows, maxMemoryBytes, expireAfterWrite, null, listeners);
+    }
+
+    ViewtonResultCache(
+            int maxSize,
+            long maxRows,
+            long maxMemoryBytes,
+            Duration expireAfterWrite,
+            @Nullable ViewtonOffHeapCache offHeap,
+            @Nullable EventListenerRegistry listeners
+    ) {
+        this.enabled = maxSize > 0 || offHeap != null;
+        this.offHeap = offHeap;
+        this.results = new ViewtonCache<>(offHeap == null ? maxSize : 0, Duration.ZERO, expireAfterWrite, List.of(
+                new ViewtonCache.Bound<>(Result::getRows, maxRows),
+                new ViewtonCache.Bound<>(Result::getBytes, maxMemoryBytes)));
+
+        if (enabled && listeners == null) {
+            throw new IllegalArgumentException("Result cache requires an entity manager factory to listen to changes");
+        }
+        this.invalidation = enabled ? listen(listeners) : null;
+    }
+
+    /**
+     * @return {@code true} if responses are cached.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code true} if responses are stored off the heap, see {@link #getSerialized(ViewtonQuery, Class, String, Supplier)}.
+     */
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    /**
+     * Returns the cached rows of the query, or loads and caches them. The rows are shared by all the requests
+     * of the query, so they should be mapped to a new response rather than returned.
+     *
+     * @param query      The query selecting explicit attributes.
+     * @param entityType The entity type of the query.
+     * @param attributes The number of selected attributes, used to estimate the memory of the response.
+     * @param loader     Loads the rows if they are not cached.
+     * @return The rows.
+     */
+    ViewtonResponseDto<Object[]> get(
+            ViewtonQuery query,
+            Class<?> entityType,
+            int attributes,
+            Supplier<ViewtonResponseDto<Object[]>> loader
+    ) {
+        Key key = new Key(query, entityType);
+        Result cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached.getResponse();
+        }
+
+        AtomicLong version = versions.computeIfAbsent(entityType, type -> new AtomicLong());
+        long loadedVersion = version.get();
+        ViewtonResponseDto<Object[]> response = loader.get();
+        if (version.get() == loadedVersion) {
+            long rows = size(response.getList()) + size(response.getSum()) + size(response.getAvg());
+            results.put(key, new Result(response, rows, rows * (ROW_BYTES + attributes * VALUE_BYTES)));
+            // the entity type could be changed and invalidated right before the response was put
+            if (version.get() != loadedVersion) {
+                results.invalidate(key);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Returns the cached serialized response of the query, or loads and caches it. Responses are stored off the heap,
+     * keyed by the query, the entity type and its mapping, and grouped by the entity type, so they are invalidated
+     * by its changes. Responses restored from the file which could not be decoded are missed and removed.
+     *
+     * @param query      The query selecting explicit attributes.
+     * @param entityType The entity type of the query.
+     * @param mapping    The fingerprint of the mapping of the entity type, see {@link SerializedResponse#mapping}.
+     * @param loader     Loads and serializes the response if it is not cached.
+     * @return The response.
+     */
+    SerializedResponse getSerialized(
+            ViewtonQuery query,
+            Class<?> entityType,
+            String mapping,
+            Supplier<SerializedResponse> loader
+    ) {
+        String key = SerializedResponse.key(query, entityType, mapping);
+        byte[] cached = offHeap.getIfPresent(key);
+        if (cached != null) {
+            return SerializedResponse.restore(cached);
+        }
+
+        AtomicLong version = versions.computeIfAbsent(entityType, type -> new AtomicLong());
+        long loadedVersion = version.get();
+        SerializedResponse response = loader.get();
+        // a response shared by several requests is stored once
+        if (response.getData() != null && version.get() == loadedVersion && response.markStored()) {
+            offHeap.put(entityType.getName(), key, response.getData());
+            // the entity type could be changed and invalidated right before the response was put
+            if (version.get() != loadedVersion) {
+                offHeap.invalidate(key);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Removes the cached responses of the entity type and of its super types,
+     * e.g. after the entities are changed by a bulk query.
+     *
+     * @param entityType The changed entity type.
+     */
+    public void invalidate(Class<?> entityType) {
+        versions.forEach((queried, version) -> {
+            if (queried.isAssignableFrom(entityType)) {
+                version.incrementAndGet();
+                results.invalidateAll(key -> key.getEntityType() == queried);
+            }
+        });
+        if (offHeap != null) {
+            // responses restored from the file could be of types which were not queried since the restart
+            for (Class<?> type = entityType; type != null; type = type.getSuperclass()) {
+                offHeap.invalidateGroup(type.getName());
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached responses.
+     */
+    public void invalidateAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        results.invalidateAll();
+        if (offHeap != null) {
+            offHeap.invalidateAll();
+        }
+    }
+
+    /**
+     * @return Hits, misses and evictions of responses.
+     */
+    public ViewtonCacheStats getStats() {
+        return offHeap == null ? results.getStats() : offHeap.getStats();
+    }
+
+    /**
+     * Stops listening to changes of entities and flushes the file responses are stored in, if any.
+     */
+    @Override
+    public void close() {
+        if (invalidation != null) {
+            invalidation.caches.remove(this);
+        }
+        if (offHeap != null) {
+            offHeap.close();
+        }
+    }
+
+    private Invalidation listen(EventListenerRegistry registry) {
+        Invalidation invalidation;
+        synchronized (INVALIDATIONS) {
+            invalidation = INVALIDATIONS.computeIfAbsent(registry, ViewtonResultCache::register);
+        }
+        invalidation.caches.add(this);
+        return invalidation;
+    }
+
+    private static Invalidation register(EventListenerRegistry registry) {
+        Invalidation invalidation = new Invalidation();
+        registry.appendListeners(EventType.POST_INSERT, invalidation);
+        registry.appendListeners(EventType.POST_UPDATE, invalidation);
+        registry.appendListeners(EventType.POST_DELETE, invalidation);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, invalidation);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, invalidation);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, invalidation);
+        return invalidation;
+    }
+
+    private static long size(List<?> rows) {
+        return rows == null ? 0 : rows.size();
+    }
+
+    /**
+     * Invalidates responses of a changed entity when the change is flushed, so the transaction making it
+     * does not read stale responses, and when it is committed or rolled back, so other transactions
+     * do not cache the data read before the commit.
+     */
+    private static final class Invalidation implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        private final List<ViewtonResultCache> caches = new CopyOnWriteArrayList<>();
+
+        private void invalidate(Class<?> entityType) {
+            caches.forEach(cache -> cache.invalidate(entityType));
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return true;
+        }
+    }
+
+    @Data
+    private static final class Key {
+        private final ViewtonQuery query;
+        private final Class<?> entityType;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Result {
+        private final ViewtonResponseDto<Object[]> response;
+        private final long rows;
+        private final long bytes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.viewton;
+
+/**
+ * Hibernate session used to perform Viewton's queries.
+ * <p>
+ * Configured by the application attribute {@code viewton.session-mode}.
+ * </p>
+ */
+public enum ViewtonSessionMode {
+
+    /**
+     * Queries are performed by the session of the current transaction.
+     */
+    SESSION,
+
+    /**
+     * Queries are performed by a read-only {@code StatelessSession} opened on the connection of the current
+     * transaction. Selected values are never managed, so a stateless session saves the persistence context
+     * overhead per row and does not grow the first-level cache with large pages.
+     * Keep in mind that a stateless session never flushes, so queries do not see pending changes
+     * of the current transaction.
+     */
+    STATELESS
+}
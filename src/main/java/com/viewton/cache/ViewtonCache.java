@@ -0,0 +1,317 @@
+package com.viewton.cache;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe bounded cache used by Viewton's caches.
+ * <p>
+ * Entries are evicted in the least recently used order when the cache exceeds its maximum size or
+ * any of its {@link Bound}s of the total weight of entries (e.g. the number of rows or the estimated memory),
+ * and entries which were not accessed for the {@code expireAfterAccess} duration or were put earlier than
+ * {@code expireAfterWrite} ago are evicted on access.
+ * Values are loaded outside the lock, so concurrent misses of the same key could load the value twice,
+ * and the last loaded value is kept.
+ * </p>
+ *
+ * <p>A cache with zero maximum size is disabled: every access loads the value and counts as a miss.</p>
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class ViewtonCache<K, V> {
+
+    private final int maxSize;
+    private final long expireAfterAccessNanos;
+    private final long expireAfterWriteNanos;
+    private final List<Bound<? super V>> bounds;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] weights;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new `ViewtonCache`.
+     *
+     * @param maxSize           The maximum number of entries, {@code 0} disables the cache.
+     * @param expireAfterAccess The duration after the last access when an entry expires,
+     *                          {@link Duration#ZERO} to never expire entries.
+     */
+    public ViewtonCache(int maxSize, Duration expireAfterAccess) {
+        this(maxSize, expireAfterAccess, Duration.ZERO, List.of());
+    }
+
+    /**
+     * Constructs a new `ViewtonCache` bounded by weights of entries as well.
+     *
+     * @param maxSize           The maximum number of entries, {@code 0} disables the cache.
+     * @param expireAfterAccess The duration after the last access when an entry expires,
+     *                          {@link Duration#ZERO} to not expire entries by access.
+     * @param expireAfterWrite  The duration after an entry is put when it expires,
+     *                          {@link Duration#ZERO} to not expire entries by age.
+     * @param bounds            Bounds of the total weight of entries.
+     */
+    public ViewtonCache(int maxSize, Duration expireAfterAccess, Duration expireAfterWrite, List<Bound<? super V>> bounds) {
+        this(maxSize, expireAfterAccess, expireAfterWrite, bounds, System::nanoTime);
+    }
+
+    ViewtonCache(int maxSize, Duration expireAfterAccess, LongSupplier nanoClock) {
+        this(maxSize, expireAfterAccess, Duration.ZERO, List.of(), nanoClock);
+    }
+
+    ViewtonCache(
+            int maxSize,
+            Duration expireAfterAccess,
+            Duration expireAfterWrite,
+            List<Bound<? super V>> bounds,
+            LongSupplier nanoClock
+    ) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size should not be negative, but was: " + maxSize);
+        }
+        if (expireAfterAccess.isNegative() || expireAfterWrite.isNegative()) {
+            throw new IllegalArgumentException("Expiration should not be negative, but was: "
+                    + (expireAfterAccess.isNegative() ? expireAfterAccess : expireAfterWrite));
+        }
+
+        this.maxSize = maxSize;
+        this.expireAfterAccessNanos = expireAfterAccess.toNanos();
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.bounds = List.copyOf(bounds);
+        this.weights = new long[bounds.size()];
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the cached value of the key, or loads and caches it.
+     *
+     * @param key    The key.
+     * @param loader Loads the value of the key if it is not cached.
+     * @return The value of the key.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = loader.apply(key);
+        put(key, value);
+
+        return value;
+    }
+
+    /**
+     * Returns the cached value of the key and counts a hit or a miss.
+     *
+     * @param key The key.
+     * @return The value, {@code null} if it is not cached or expired.
+     */
+    public V getIfPresent(K key) {
+        if (maxSize == 0) {
+            misses.increment();
+            return null;
+        }
+
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                release(entries.remove(key));
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+
+            entry.accessed = now;
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches the value of the key, evicting the least recently used entries if the cache is full.
+     * A value heavier than a bound on its own is not cached.
+     *
+     * @param key   The key.
+     * @param value The value, {@code null} values are not cached.
+     */
+    public void put(K key, V value) {
+        if (maxSize == 0 || value == null) {
+            return;
+        }
+
+        long[] valueWeights = new long[bounds.size()];
+        for (int i = 0; i < valueWeights.length; i++) {
+            valueWeights[i] = bounds.get(i).weigher.applyAsLong(value);
+            if (valueWeights[i] > bounds.get(i).maxWeight) {
+                // the previous value of the key is outdated as well
+                invalidate(key);
+                return;
+            }
+        }
+
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            release(entries.put(key, new Entry<>(value, now, valueWeights)));
+            for (int i = 0; i < valueWeights.length; i++) {
+                weights[i] += valueWeights[i];
+            }
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxSize || isOverweight()) && eldest.hasNext()) {
+                release(eldest.next().getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the value of the key.
+     *
+     * @param key The key.
+     */
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            release(entries.remove(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the values of the keys matching the predicate.
+     *
+     * @param keys The predicate of keys.
+     */
+    public void invalidateAll(Predicate<? super K> keys) {
+        lock.lock();
+        try {
+            entries.entrySet().removeIf(entry -> {
+                if (!keys.test(entry.getKey())) {
+                    return false;
+                }
+                release(entry.getValue());
+                return true;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            Arrays.fill(weights, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The current statistics of the cache.
+     */
+    public ViewtonCacheStats getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+
+        return new ViewtonCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return expireAfterAccessNanos > 0 && now - entry.accessed >= expireAfterAccessNanos
+                || expireAfterWriteNanos > 0 && now - entry.written >= expireAfterWriteNanos;
+    }
+
+    private boolean isOverweight() {
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > bounds.get(i).maxWeight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subtracts weights of a removed entry from the total weights.
+     */
+    private void release(Entry<V> entry) {
+        if (entry == null) {
+            return;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] -= entry.weights[i];
+        }
+    }
+
+    /**
+     * Bound of the total weight of entries.
+     *
+     * @param <V> The type of weighed values.
+     */
+    @Getter
+    public static final class Bound<V> {
+        private final ToLongFunction<? super V> weigher;
+        private final long maxWeight;
+
+        /**
+         * @param weigher   Weighs a value, e.g. by its number of rows.
+         * @param maxWeight The maximum total weight of entries.
+         */
+        public Bound(ToLongFunction<? super V> weigher, long maxWeight) {
+            if (maxWeight < 0) {
+                throw new IllegalArgumentException("Maximum weight should not be negative, but was: " + maxWeight);
+            }
+            this.weigher = weigher;
+            this.maxWeight = maxWeight;
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long written;
+        private final long[] weights;
+        private long accessed;
+
+        private Entry(V value, long now, long[] weights) {
+            this.value = value;
+            this.written = now;
+            this.weights = weights;
+            this.accessed = now;
+        }
+    }
+}
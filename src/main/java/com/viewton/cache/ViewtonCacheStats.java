@@ -0,0 +1,42 @@
+package com.viewton.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Statistics of a {@link ViewtonCache} since its creation.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ViewtonCacheStats {
+
+    /**
+     * Number of accesses which found a cached value.
+     */
+    private final long hits;
+
+    /**
+     * Number of accesses which did not find a cached value.
+     */
+    private final long misses;
+
+    /**
+     * Number of entries evicted by size or expiration.
+     */
+    private final long evictions;
+
+    /**
+     * Current number of entries.
+     */
+    private final int size;
+
+    /**
+     * @return Ratio of hits to all the accesses, {@code 0} if the cache was not accessed.
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,519 @@
+package com.viewton.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Thread-safe cache of serialized values stored outside of the Java heap, so cached values are not traced
+ * by the garbage collector. Only the index of keys is kept on the heap.
+ * <p>
+ * Values are appended to a ring buffer of a fixed capacity: when a value does not fit into the rest
+ * of the buffer, writing wraps around to its start, and the oldest values overwritten by new ones are evicted.
+ * Values are stored in a direct buffer, or in a memory-mapped file if a file is given, in which case the values
+ * written before a restart are restored when the file is opened again. Invalidated values are marked
+ * in the buffer, so they are not restored either. A restored value could have been written by another version
+ * of the application, so it is checked on its first read, and a value failing the check is removed and missed.
+ * A file is locked while it is open, so it could not be shared by several processes.
+ * </p>
+ * <p>
+ * Every value belongs to a group (e.g. the entity type it was read from), so the values of a group could be
+ * invalidated together. Values put earlier than {@code expireAfterWrite} ago are evicted on access and are not
+ * restored, by the wall clock, since the age of restored values is measured across restarts.
+ * </p>
+ * <p>
+ * Every hit copies the whole value to a new array on the heap, since its record could be overwritten by a new value
+ * as soon as the lock is released, so a view of the buffer could not be handed out. The copy is a single primitive
+ * array, which is not traced element by element, but it is allocated for every hit, however little of it is read.
+ * </p>
+ */
+public class ViewtonOffHeapCache implements AutoCloseable {
+
+    private static final int FILE_MAGIC = 0x56574F48;
+    private static final int FORMAT = 1;
+
+    /**
+     * Magic, format, capacity, position, oldest and end, padded.
+     */
+    private static final int HEADER_SIZE = 32;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int POSITION_OFFSET = 12;
+    private static final int OLDEST_OFFSET = 16;
+    private static final int END_OFFSET = 20;
+
+    private static final int LIVE = 0x4C495645;
+    private static final int DEAD = 0x44454144;
+
+    /**
+     * Status, lengths of the group, the key and the value, the checksum and the time of writing.
+     */
+    private static final int RECORD_HEADER_SIZE = 28;
+
+    private final int capacity;
+    private final long expireAfterWriteMillis;
+    private final Predicate<byte[]> restoredCheck;
+    private final LongSupplier clock;
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Slot> index = new HashMap<>();
+    private final TreeMap<Integer, String> records = new TreeMap<>();
+    private final Map<String, Set<String>> groups = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The offset the next record is written at. Records before it are the newest ones.
+     */
+    private int position = HEADER_SIZE;
+
+    /**
+     * Records of the previous lap of the ring, which are not overwritten yet, are between {@code oldest} and {@code end}.
+     */
+    private int oldest = HEADER_SIZE;
+    private int end = HEADER_SIZE;
+    private boolean closed;
+
+    /**
+     * Constructs a new `ViewtonOffHeapCache`.
+     *
+     * @param capacity         The size of the buffer in bytes.
+     * @param file             The file the buffer is mapped to, {@code null} to not persist values.
+     * @param expireAfterWrite The duration after a value is put when it expires,
+     *                         {@link Duration#ZERO} to not expire values.
+     * @throws IllegalStateException If the file is locked by another cache.
+     * @throws UncheckedIOException  If the file could not be opened.
+     */
+    public ViewtonOffHeapCache(int capacity, @Nullable Path file, Duration expireAfterWrite) {
+        this(capacity, file, expireAfterWrite, value -> true);
+    }
+
+    /**
+     * Constructs a new `ViewtonOffHeapCache` checking values restored from the file.
+     *
+     * @param capacity         The size of the buffer in bytes.
+     * @param file             The file the buffer is mapped to, {@code null} to not persist values.
+     * @param expireAfterWrite The duration after a value is put when it expires,
+     *                         {@link Duration#ZERO} to not expire values.
+     * @param restoredCheck    Checks a restored value on its first read, e.g. that it could be decoded.
+     * @throws IllegalStateException If the file is locked by another cache.
+     * @throws UncheckedIOException  If the file could not be opened.
+     */
+    public ViewtonOffHeapCache(
+            int capacity,
+            @Nullable Path file,
+            Duration expireAfterWrite,
+            Predicate<byte[]> restoredCheck
+    ) {
+        this(capacity, file, expireAfterWrite, restoredCheck, System::currentTimeMillis);
+    }
+
+    ViewtonOffHeapCache(
+            int capacity,
+            @Nullable Path file,
+            Duration expireAfterWrite,
+            Predicate<byte[]> restoredCheck,
+            LongSupplier clock
+    ) {
+        if (capacity <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Off-heap cache capacity should be greater than "
+                    + HEADER_SIZE + " bytes, but was: " + capacity);
+        }
+        if (expireAfterWrite.isNegative()) {
+            throw new IllegalArgumentException("Expiration should not be negative, but was: " + expireAfterWrite);
+        }
+
+        this.capacity = capacity;
+        this.expireAfterWriteMillis = expireAfterWrite.toMillis();
+        this.restoredCheck = restoredCheck;
+        this.clock = clock;
+
+        if (file == null) {
+            this.channel = null;
+            this.fileLock = null;
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+            writeHeader();
+            return;
+        }
+
+        try {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.fileLock = lock(channel, file);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the off-heap cache file " + file, e);
+        }
+        restore();
+    }
+
+    /**
+     * Returns a copy of the cached value of the key and counts a hit or a miss.
+     *
+     * @param key The key.
+     * @return The value, {@code null} if it is not cached, expired or failed the check of restored values.
+     */
+    public byte[] getIfPresent(String key) {
+        long now = clock.getAsLong();
+        Slot slot;
+        byte[] value = null;
+        lock.readLock().lock();
+        try {
+            slot = closed ? null : index.get(key);
+            if (slot != null && !isExpired(slot.written, now)) {
+                value = new byte[slot.valueLength];
+                buffer.get(slot.offset + slot.length - slot.valueLength, value);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (value != null && (!slot.restored || check(slot, value))) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        if (slot != null) {
+            lock.writeLock().lock();
+            try {
+                if (index.get(key) == slot) {
+                    remove(key);
+                    evictions.increment();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Caches the value of the key, evicting the oldest values it overwrites.
+     * A value which does not fit into the buffer on its own is not cached.
+     *
+     * @param group The group of the value, see {@link #invalidateGroup(String)}.
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(String group, String key, byte[] value) {
+        byte[] groupBytes = group.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long recordLength = (long) RECORD_HEADER_SIZE + groupBytes.length + keyBytes.length + value.length;
+        if (recordLength > capacity - HEADER_SIZE) {
+            // the previous value of the key is outdated as well
+            invalidate(key);
+            return;
+        }
+        int length = (int) recordLength;
+
+        CRC32 crc = new CRC32();
+        crc.update(groupBytes);
+        crc.update(keyBytes);
+        crc.update(value);
+        long now = clock.getAsLong();
+
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            remove(key);
+            if (position + length > capacity) {
+                // the rest of the buffer is too short, so the tail of the previous lap is lost
+                evict(records.tailMap(position, true).keySet().toArray(Integer[]::new));
+                end = position;
+                position = HEADER_SIZE;
+            }
+            int offset = position;
+            evict(records.subMap(offset, true, offset + length, false).keySet().toArray(Integer[]::new));
+            end = Math.max(end, offset + length);
+            Integer next = records.ceilingKey(offset + length);
+            oldest = next == null || next >= end ? end : next;
+            // the header excludes the record until it is written, so a partially written record is not restored
+            buffer.putInt(POSITION_OFFSET, offset);
+            buffer.putInt(OLDEST_OFFSET, oldest);
+            buffer.putInt(END_OFFSET, end);
+
+            buffer.putInt(offset, LIVE);
+            buffer.putInt(offset + 4, groupBytes.length);
+            buffer.putInt(offset + 8, keyBytes.length);
+            buffer.putInt(offset + 12, value.length);
+            buffer.putInt(offset + 16, (int) crc.getValue());
+            buffer.putLong(offset + 20, now);
+            buffer.put(offset + RECORD_HEADER_SIZE, groupBytes);
+            buffer.put(offset + RECORD_HEADER_SIZE + groupBytes.length, keyBytes);
+            buffer.put(offset + RECORD_HEADER_SIZE + groupBytes.length + keyBytes.length, value);
+            position = offset + length;
+            buffer.putInt(POSITION_OFFSET, position);
+
+            add(new Slot(offset, length, value.length, group, now), key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the value of the key.
+     *
+     * @param key The key.
+     */
+    public void invalidate(String key) {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the values of the group.
+     *
+     * @param group The group.
+     */
+    public void invalidateGroup(String group) {
+        lock.writeLock().lock();
+        try {
+            Set<String> keys = closed ? null : groups.get(group);
+            if (keys != null) {
+                for (String key : keys.toArray(String[]::new)) {
+                    remove(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                index.clear();
+                records.clear();
+                groups.clear();
+                position = HEADER_SIZE;
+                oldest = HEADER_SIZE;
+                end = HEADER_SIZE;
+                writeHeader();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The current statistics of the cache.
+     */
+    public ViewtonCacheStats getStats() {
+        int size;
+        lock.readLock().lock();
+        try {
+            size = index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new ViewtonCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Flushes the file and releases its lock. The cache does not cache values after it is closed.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (channel != null) {
+                ((MappedByteBuffer) buffer).force();
+                fileLock.release();
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close the off-heap cache file", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static FileLock lock(FileChannel channel, Path file) throws IOException {
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("Off-heap cache file " + file + " is used by another cache");
+        }
+
+        return fileLock;
+    }
+
+    /**
+     * Rebuilds the index of a file written before: the previous lap of the ring first, then the newest records,
+     * so a value of a key written later replaces the earlier one. A file of another capacity is cleared.
+     */
+    private void restore() {
+        int restoredPosition = buffer.getInt(POSITION_OFFSET);
+        int restoredOldest = buffer.getInt(OLDEST_OFFSET);
+        int restoredEnd = buffer.getInt(END_OFFSET);
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FORMAT || buffer.getInt(CAPACITY_OFFSET) != capacity
+                || restoredPosition < HEADER_SIZE || restoredPosition > capacity
+                || restoredOldest < HEADER_SIZE || restoredOldest > restoredEnd || restoredEnd > capacity) {
+            writeHeader();
+            return;
+        }
+
+        long now = clock.getAsLong();
+        scan(restoredOldest, restoredEnd, now);
+        scan(HEADER_SIZE, restoredPosition, now);
+        position = restoredPosition;
+        oldest = restoredOldest;
+        end = restoredEnd;
+    }
+
+    private void scan(int from, int to, long now) {
+        int offset = from;
+        while (offset + RECORD_HEADER_SIZE <= to) {
+            int status = buffer.getInt(offset);
+            int groupLength = buffer.getInt(offset + 4);
+            int keyLength = buffer.getInt(offset + 8);
+            int valueLength = buffer.getInt(offset + 12);
+            long length = (long) RECORD_HEADER_SIZE + groupLength + keyLength + valueLength;
+            if (status != LIVE && status != DEAD || groupLength < 0 || keyLength < 0 || valueLength < 0
+                    || offset + length > to) {
+                // the rest of the region was not written completely
+                return;
+            }
+
+            if (status == LIVE) {
+                byte[] bytes = new byte[(int) length - RECORD_HEADER_SIZE];
+                buffer.get(offset + RECORD_HEADER_SIZE, bytes);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                long written = buffer.getLong(offset + 20);
+                if ((int) crc.getValue() != buffer.getInt(offset + 16) || isExpired(written, now)) {
+                    buffer.putInt(offset, DEAD);
+                } else {
+                    String group = new String(bytes, 0, groupLength, StandardCharsets.UTF_8);
+                    String key = new String(bytes, groupLength, keyLength, StandardCharsets.UTF_8);
+                    remove(key);
+                    Slot slot = new Slot(offset, (int) length, valueLength, group, written);
+                    slot.restored = true;
+                    add(slot, key);
+                }
+            }
+            offset += (int) length;
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FORMAT);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(POSITION_OFFSET, position);
+        buffer.putInt(OLDEST_OFFSET, oldest);
+        buffer.putInt(END_OFFSET, end);
+    }
+
+    /**
+     * Checks a restored value once, the following reads of the slot are not checked.
+     */
+    private boolean check(Slot slot, byte[] value) {
+        if (!restoredCheck.test(value)) {
+            return false;
+        }
+        slot.restored = false;
+        return true;
+    }
+
+    private boolean isExpired(long written, long now) {
+        return expireAfterWriteMillis > 0 && now - written >= expireAfterWriteMillis;
+    }
+
+    private void add(Slot slot, String key) {
+        index.put(key, slot);
+        records.put(slot.offset, key);
+        groups.computeIfAbsent(slot.group, group -> new HashSet<>()).add(key);
+    }
+
+    /**
+     * Removes the value of the key from the index and marks its record dead, so it is not restored.
+     */
+    private void remove(String key) {
+        Slot slot = index.remove(key);
+        if (slot == null) {
+            return;
+        }
+
+        records.remove(slot.offset);
+        Set<String> keys = groups.get(slot.group);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            groups.remove(slot.group);
+        }
+        buffer.putInt(slot.offset, DEAD);
+    }
+
+    private void evict(Integer[] offsets) {
+        for (Integer offset : offsets) {
+            remove(records.get(offset));
+            evictions.increment();
+        }
+    }
+
+    private static final class Slot {
+        private final int offset;
+        private final int length;
+        private final int valueLength;
+        private final String group;
+        private final long written;
+
+        /**
+         * Whether the value was restored from the file and is not checked yet.
+         */
+        private volatile boolean restored;
+
+        private Slot(int offset, int length, int valueLength, String group, long written) {
+            this.offset = offset;
+            this.length = length;
+            this.valueLength = valueLength;
+            this.group = group;
+            this.written = written;
+        }
+    }
+}
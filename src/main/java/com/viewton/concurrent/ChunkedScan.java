@@ -0,0 +1,131 @@
+package com.viewton.concurrent;
+
+import com.viewton.dto.RawOrderBy;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Splitting of a scan of all the rows matching a query into chunks of disjoint id ranges, which are read
+ * in parallel and merged:
+ * <pre>
+ * select min(id), max(id) from entity where ...
+ * select attributes... from entity where ... and id between MIN and MIN + STEP - 1 order by ...
+ * select attributes... from entity where ... and id between MIN + STEP and MIN + 2 * STEP - 1 order by ...
+ * </pre>
+ * Ranges are of equal width, so chunks are balanced as long as ids are evenly distributed.
+ * <p>
+ * Sorted chunks are merged by the values of sorting attributes selected after the attributes of a row.
+ * Values are compared by their natural order, with {@code null} as the smallest value, and chunks are sorted
+ * by the database the same way, see {@link #order(List, int, List)}.
+ * </p>
+ */
+public final class ChunkedScan {
+
+    private static final Set<Class<?>> INTEGRAL_TYPES = Set.of(
+            Long.class, long.class, Integer.class, int.class, Short.class, short.class, BigInteger.class);
+
+    private ChunkedScan() {
+    }
+
+    /**
+     * @return {@code true} if the id of the type could be split to ranges.
+     */
+    public static boolean supports(Class<?> idType) {
+        return INTEGRAL_TYPES.contains(idType);
+    }
+
+    /**
+     * Splits ids from min to max inclusive into ranges of equal width.
+     *
+     * @return At most {@code chunks} ranges, fewer if there are fewer ids.
+     */
+    public static List<Range> split(long min, long max, int chunks) {
+        long span = max - min;
+        if (span < 0 || chunks < 2) {
+            // overflowing span is not worth splitting
+            return List.of(new Range(min, max));
+        }
+
+        long step = span / chunks + 1;
+        List<Range> ranges = new ArrayList<>(chunks);
+        for (long from = min; from <= max && from >= min; from += step) {
+            ranges.add(new Range(from, max - from < step ? max : from + step - 1));
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Returns the order of rows of sorted chunks. Values are compared as they are stored in the database
+     * (e.g. an enum by its name or ordinal, depending on its mapping), so rows are merged in the order
+     * the database sorts them in.
+     *
+     * @param orders           Sorting of the query.
+     * @param index            Index of the value of the first sorting attribute in a row.
+     * @param relationalValues Converters of values of sorting attributes to values stored in the database,
+     *                         in the order of sorting.
+     * @return The comparator, or {@code null} if the query is not sorted.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Comparator<Object[]> order(List<RawOrderBy> orders, int index, List<UnaryOperator<Object>> relationalValues) {
+        Comparator<Object[]> order = null;
+        for (int i = 0; i < orders.size(); i++) {
+            int valueIndex = index + i;
+            UnaryOperator<Object> relationalValue = relationalValues.get(i);
+            Comparator<Object[]> key = Comparator.comparing(
+                    row -> row[valueIndex] == null ? null : (Comparable) relationalValue.apply(row[valueIndex]),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (!orders.get(i).isAscending()) {
+                key = key.reversed();
+            }
+            order = order == null ? key : order.thenComparing(key);
+        }
+
+        return order;
+    }
+
+    /**
+     * Range of ids from {@code from} to {@code to} inclusive.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static final class Range {
+        private final long from;
+        private final long to;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Predicate toPredicate(Path id, CriteriaBuilder cb) {
+            Class<?> idType = id.getJavaType();
+            return cb.between(id, toId(from, idType), toId(to, idType));
+        }
+
+        @SuppressWarnings("rawtypes")
+        private static Comparable toId(long value, Class<?> idType) {
+            if (idType == Integer.class || idType == int.class) {
+                return (int) value;
+            }
+            if (idType == Short.class || idType == short.class) {
+                return (short) value;
+            }
+            if (idType == BigInteger.class) {
+                return BigInteger.valueOf(value);
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.viewton.concurrent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Reads several streams in parallel, each on its own virtual thread, and merges their elements into a single
+ * iterator read by the calling thread.
+ * <p>
+ * Without an order, elements are taken as soon as any stream produces them. With an order, every stream
+ * is expected to be sorted by it, and the streams are merged by a k-way merge, so the result is sorted too.
+ * </p>
+ * <p>
+ * Every stream is buffered by a bounded queue, so a stream is read no faster than its elements are taken
+ * and memory does not depend on the number of elements. Threads are interrupted and the streams are closed
+ * when the merge is closed, exhausted or any stream fails.
+ * </p>
+ *
+ * @param <T> The type of elements.
+ */
+class ParallelMerge<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final List<BlockingQueue<Object>> queues = new ArrayList<>();
+    private final Comparator<? super T> order;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int sources;
+
+    /**
+     * Heads of the streams in the k-way merge, {@code null} until the first element is requested.
+     */
+    private PriorityQueue<Head<T>> heads;
+    private int ended;
+    private Object next;
+    private volatile boolean closed;
+
+    /**
+     * Starts reading the streams.
+     *
+     * @param sources     Open the streams. Called on the threads reading the streams.
+     * @param order       The order of the streams, {@code null} if they are not sorted.
+     * @param bufferSize  The number of elements buffered per stream.
+     * @param transaction Runs the reading of a stream, e.g. in a transaction.
+     */
+    ParallelMerge(
+            List<Supplier<Stream<T>>> sources,
+            Comparator<? super T> order,
+            int bufferSize,
+            Consumer<Runnable> transaction
+    ) {
+        this.order = order;
+        this.sources = sources.size();
+
+        // unordered streams share a single queue, so elements are taken from any of them
+        BlockingQueue<Object> shared = order == null ? new ArrayBlockingQueue<>(bufferSize * Math.max(1, sources.size())) : null;
+        for (Supplier<Stream<T>> source : sources) {
+            BlockingQueue<Object> queue = shared == null ? new ArrayBlockingQueue<>(bufferSize) : shared;
+            queues.add(queue);
+            executor.execute(() -> read(source, queue, transaction));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            next = order == null ? takeAny() : takeMin();
+            if (next == END) {
+                close();
+            }
+        }
+
+        return next != null && next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = (T) next;
+        next = null;
+        return element;
+    }
+
+    /**
+     * Stops reading the streams. Safe to call several times.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private void read(Supplier<Stream<T>> source, BlockingQueue<Object> queue, Consumer<Runnable> transaction) {
+        try {
+            transaction.accept(() -> {
+                try (Stream<T> stream = source.get()) {
+                    stream.forEach(element -> put(queue, element));
+                }
+            });
+            put(queue, END);
+        } catch (Closed e) {
+            // the merge is closed, nobody waits for the rest
+        } catch (RuntimeException | Error e) {
+            if (!closed) {
+                // elements read before the failure are useless
+                queue.clear();
+                putFailure(queue, new Failure(e));
+            }
+        }
+    }
+
+    private void putFailure(BlockingQueue<Object> queue, Failure failure) {
+        try {
+            put(queue, failure);
+        } catch (Closed e) {
+            // the merge is closed, nobody waits for the failure
+        }
+    }
+
+    private void put(BlockingQueue<Object> queue, Object element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Closed();
+        }
+    }
+
+    private Object takeAny() {
+        while (ended < sources) {
+            Object element = take(queues.get(0));
+            if (element != END) {
+                return element;
+            }
+            ended++;
+        }
+
+        return END;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object takeMin() {
+        if (heads == null) {
+            heads = new PriorityQueue<>(sources, (a, b) -> order.compare(a.element, b.element));
+            for (BlockingQueue<Object> queue : queues) {
+                Object element = take(queue);
+                if (element != END) {
+                    heads.add(new Head<>((T) element, queue));
+                }
+            }
+        }
+
+        Head<T> head = heads.poll();
+        if (head == null) {
+            return END;
+        }
+        Object following = take(head.queue);
+        if (following != END) {
+            heads.add(new Head<>((T) following, head.queue));
+        }
+
+        return head.element;
+    }
+
+    private Object take(BlockingQueue<Object> queue) {
+        Object element;
+        try {
+            element = queue.take();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parallel streams", e);
+        }
+
+        if (element instanceof Failure failure) {
+            close();
+            if (failure.error instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw (Error) failure.error;
+        }
+
+        return element;
+    }
+
+    private static final class Head<T> {
+        private final T element;
+        private final BlockingQueue<Object> queue;
+
+        private Head(T element, BlockingQueue<Object> queue) {
+            this.element = element;
+            this.queue = queue;
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable error;
+
+        private Failure(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Unwinds a reading thread interrupted by closing the merge.
+     */
+    private static final class Closed extends RuntimeException {
+        private Closed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.viewton.concurrent;
+
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Subscription which pulls elements of a lazy stream only when the subscriber requests them.
+ * <p>
+ * Elements are emitted by a single thread running {@link #run()}, which waits while there is no demand.
+ * The stream is opened by this thread and closed when it is exhausted, failed or the subscription is cancelled,
+ * so resources held by the stream (e.g. a database cursor) are bound to the emitting thread.
+ * An empty stream is completed and closed at once, without waiting for demand.
+ * </p>
+ * <p>
+ * A subscriber throwing from {@code onNext} violates the Reactive Streams contract, so the subscription
+ * is cancelled and the stream is closed without signalling {@code onError} to it.
+ * </p>
+ *
+ * @param <T> The type of elements.
+ */
+class StreamSubscription<T> implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Supplier<Stream<T>> source;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition demanded = lock.newCondition();
+
+    private long demand;
+    private boolean cancelled;
+    private Throwable error;
+
+    StreamSubscription(Flow.Subscriber<? super T> subscriber, Supplier<Stream<T>> source) {
+        this.subscriber = subscriber;
+        this.source = source;
+    }
+
+    @Override
+    public void request(long n) {
+        lock.lock();
+        try {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested number of elements should be positive, but was: " + n);
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            demanded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            demanded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens the stream and emits its elements as they are requested, until the stream is exhausted,
+     * failed or the subscription is cancelled. Should be run by a single thread.
+     */
+    void run() {
+        try (Stream<T> stream = source.get()) {
+            Iterator<T> iterator = stream.iterator();
+            if (!iterator.hasNext()) {
+                subscriber.onComplete();
+                return;
+            }
+            while (awaitDemand()) {
+                if (!iterator.hasNext()) {
+                    subscriber.onComplete();
+                    return;
+                }
+                if (!emit(iterator.next())) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Passes the element to the subscriber, cancelling the subscription if the subscriber throws.
+     *
+     * @return {@code false} if the subscription is cancelled.
+     */
+    private boolean emit(T element) {
+        try {
+            subscriber.onNext(element);
+            return true;
+        } catch (Throwable e) {
+            cancel();
+            return false;
+        }
+    }
+
+    /**
+     * Signals the error to the subscriber unless the subscription is cancelled.
+     */
+    void fail(Throwable e) {
+        if (!isCancelled()) {
+            cancel();
+            subscriber.onError(e);
+        }
+    }
+
+    /**
+     * Waits until the next element is requested and takes it from the demand.
+     *
+     * @return {@code false} if the subscription is cancelled.
+     */
+    private boolean awaitDemand() throws Throwable {
+        lock.lock();
+        try {
+            while (demand == 0 && !cancelled && error == null) {
+                demanded.await();
+            }
+            if (cancelled) {
+                return false;
+            }
+            if (error != null) {
+                throw error;
+            }
+            if (demand != Long.MAX_VALUE) {
+                demand--;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isCancelled() {
+        lock.lock();
+        try {
+            return cancelled;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.viewton.concurrent;
+
+/**
+ * Consistency of the sub-queries (list, sum, avg and count) performed for a single request.
+ * <p>
+ * Configured by the application attribute {@code viewton.concurrent.consistency}
+ * and applied only when concurrent mode is enabled.
+ * </p>
+ */
+public enum ViewtonConsistency {
+
+    /**
+     * All the sub-queries are performed one after another in a single read-only transaction,
+     * so each of them observes the same data. Portable databases do not allow sharing one snapshot
+     * between several connections, so this mode performs sub-queries sequentially even if concurrent mode is enabled.
+     */
+    SNAPSHOT,
+
+    /**
+     * Every sub-query is performed in its own read-only transaction with its own connection.
+     * Results could be taken from different moments of time (e.g. count could not match the list
+     * if the table was modified between sub-queries).
+     */
+    RELAXED
+}
@@ -0,0 +1,276 @@
+package com.viewton.concurrent;
+
+import com.viewton.config.ViewtonProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Executes Viewton's sub-queries (list, sum, avg, count) in read-only transactions.
+ * <p>
+ * By default, sub-queries of a request are performed one after another in a single transaction.
+ * When concurrent mode is enabled ({@code viewton.concurrent.enabled=true}) and consistency is
+ * {@link ViewtonConsistency#RELAXED}, each sub-query is performed on a virtual thread in its own
+ * read-only transaction, so it gets its own {@code EntityManager} and connection.
+ * The number of sub-queries of a single request running at the same time is bounded
+ * by {@code viewton.concurrent.parallelism}.
+ * </p>
+ *
+ * <p>Keep in mind that a concurrent request could hold up to {@code parallelism} connections at once,
+ * so connection pool should be sized accordingly.</p>
+ *
+ * <p>Asynchronous requests ({@code ViewtonRepository#listAsync} etc.) run on the executor bean named
+ * {@value #ASYNC_EXECUTOR}, or on virtual threads if there is no such bean.</p>
+ */
+@Component
+public class ViewtonQueryExecutor implements DisposableBean {
+
+    /**
+     * Name of the executor bean used by asynchronous requests.
+     */
+    public static final String ASYNC_EXECUTOR = "viewtonAsyncExecutor";
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean concurrent;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final Executor asyncExecutor;
+    private final ExecutorService defaultAsyncExecutor;
+
+    /**
+     * Constructs a new `ViewtonQueryExecutor` configured by {@code viewton.concurrent} properties.
+     *
+     * @param transactionManager The transaction manager used to open read-only transactions.
+     * @param properties         The tuning properties, see {@link ViewtonProperties}.
+     * @param asyncExecutor      Executor of asynchronous requests, {@code null} to run them on virtual threads.
+     */
+    @Autowired
+    public ViewtonQueryExecutor(
+            PlatformTransactionManager transactionManager,
+            ViewtonProperties properties,
+            @Nullable @Qualifier(ASYNC_EXECUTOR) Executor asyncExecutor) {
+        this(transactionManager, properties.getConcurrent().isEnabled(), properties.getConcurrent().getConsistency(),
+                properties.getConcurrent().getParallelism(), asyncExecutor);
+    }
+
+    /**
+     * Constructs a new `ViewtonQueryExecutor`.
+     *
+     * @param transactionManager The transaction manager used to open read-only transactions.
+     * @param enabled            Whether concurrent mode is enabled.
+     * @param consistency        Consistency of the sub-queries of a single request.
+     * @param parallelism        Maximum number of sub-queries of a single request running at the same time.
+     * @param asyncExecutor      Executor of asynchronous requests, {@code null} to run them on virtual threads.
+     */
+    public ViewtonQueryExecutor(
+            PlatformTransactionManager transactionManager,
+            boolean enabled,
+            ViewtonConsistency consistency,
+            int parallelism,
+            @Nullable Executor asyncExecutor) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive, but was: " + parallelism);
+        }
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.concurrent = enabled && consistency == ViewtonConsistency.RELAXED;
+        this.parallelism = parallelism;
+        this.executor = concurrent ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.defaultAsyncExecutor = asyncExecutor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.asyncExecutor = asyncExecutor == null ? defaultAsyncExecutor : asyncExecutor;
+    }
+
+    /**
+     * @return {@code true} if sub-queries of a request should be performed concurrently.
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Performs the action in a read-only transaction. Joins the current transaction if it exists.
+     *
+     * @param action The action to perform.
+     * @param <R>    The result type.
+     * @return The result of the action.
+     */
+    public <R> R inReadOnlyTransaction(Supplier<R> action) {
+        return readOnlyTransaction.execute(status -> action.get());
+    }
+
+    /**
+     * Performs the request asynchronously on the executor of asynchronous requests.
+     * The request is responsible for its transactions, so every task gets its own {@code EntityManager}.
+     *
+     * @param request The request to perform.
+     * @param <R>     The result type.
+     * @return A future completed with the result of the request, or exceptionally if the request failed.
+     */
+    public <R> CompletableFuture<R> supplyAsync(Supplier<R> request) {
+        return CompletableFuture.supplyAsync(request, asyncExecutor);
+    }
+
+    /**
+     * Creates a publisher of the lazy stream. Every subscriber gets its own stream, which is opened
+     * and read in a read-only transaction on the executor of asynchronous requests. Elements are pulled
+     * from the stream only as they are requested, and the transaction (with its connection) ends when
+     * the stream is exhausted, failed or the subscription is cancelled.
+     * <p>
+     * The executing thread is held by the subscription while the subscriber does not request elements,
+     * which is cheap for the default virtual threads.
+     * </p>
+     *
+     * @param source Opens the stream. Called in the transaction of the subscription.
+     * @param <T>    The type of elements.
+     * @return A new publisher.
+     */
+    public <T> Flow.Publisher<T> publish(Supplier<Stream<T>> source) {
+        return subscriber -> {
+            Objects.requireNonNull(subscriber, "Subscriber should not be null");
+            StreamSubscription<T> subscription = new StreamSubscription<>(subscriber, source);
+            subscriber.onSubscribe(subscription);
+            asyncExecutor.execute(() -> {
+                try {
+                    inReadOnlyTransaction(() -> {
+                        subscription.run();
+                        return null;
+                    });
+                } catch (RuntimeException e) {
+                    subscription.fail(e);
+                }
+            });
+        };
+    }
+
+    /**
+     * Reads the streams in parallel, each on its own virtual thread in its own read-only transaction,
+     * and merges them into a single lazy stream. If the order is given, every stream should be sorted by it,
+     * and they are merged by a k-way merge, so the merged stream is sorted too. Otherwise, elements are
+     * returned as soon as any stream produces them.
+     * <p>
+     * Every stream is buffered by a bounded queue, so streams are read no faster than the merged stream
+     * is consumed. The merged stream should be closed after use: closing it stops reading and closes the streams.
+     * All the streams are open at the same time, so they hold a connection each.
+     * </p>
+     *
+     * @param sources    Open the streams. Called in the transactions of the streams.
+     * @param order      The order of the streams, {@code null} if they are not sorted.
+     * @param bufferSize The number of elements buffered per stream.
+     * @param <T>        The type of elements.
+     * @return The merged stream, which should be closed.
+     */
+    public <T> Stream<T> merge(List<Supplier<Stream<T>>> sources, @Nullable Comparator<? super T> order, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size should be positive, but was: " + bufferSize);
+        }
+
+        ParallelMerge<T> merge = new ParallelMerge<>(sources, order, bufferSize, reading -> inReadOnlyTransaction(() -> {
+            reading.run();
+            return null;
+        }));
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merge, Spliterator.ORDERED), false)
+                .onClose(merge::close);
+    }
+
+    /**
+     * Opens a scope for sub-queries of a single request.
+     * Scope should be closed after all the results are taken.
+     *
+     * @return A new {@link Scope}.
+     * @throws IllegalStateException If concurrent mode is disabled.
+     */
+    public Scope openScope() {
+        if (!concurrent) {
+            throw new IllegalStateException("Concurrent mode is disabled");
+        }
+
+        return new Scope();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (defaultAsyncExecutor != null) {
+            defaultAsyncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * A group of sub-queries of a single request, running concurrently.
+     * Limits number of simultaneously running sub-queries and cancels unfinished ones on close.
+     */
+    public class Scope implements AutoCloseable {
+
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final List<Future<?>> forks = new ArrayList<>();
+
+        private Scope() {
+        }
+
+        /**
+         * Starts the sub-query on a virtual thread in its own read-only transaction.
+         *
+         * @param subQuery The sub-query to perform.
+         * @param <R>      The result type.
+         * @return A supplier which waits for the sub-query and returns its result.
+         */
+        public <R> Supplier<R> fork(Supplier<R> subQuery) {
+            Future<R> future = executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return readOnlyTransaction.execute(status -> subQuery.get());
+                } finally {
+                    permits.release();
+                }
+            });
+            forks.add(future);
+
+            return () -> join(future);
+        }
+
+        private <R> R join(Future<R> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for sub-query", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Sub-query failed", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            forks.forEach(future -> future.cancel(true));
+        }
+    }
+}
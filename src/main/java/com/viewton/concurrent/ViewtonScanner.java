@@ -0,0 +1,158 @@
+package com.viewton.concurrent;
+
+import com.viewton.ViewtonRepository;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.RawOrderBy;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.mapper.RowMapper;
+import com.viewton.mapper.RowMapperFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.IdentifiableType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Reads all the entities matching a query by several cursors in parallel.
+ * <p>
+ * If all the entities are requested ({@code page_size=-1}), the query is neither distinct nor keyset,
+ * and the entity has a single integral id, the range of ids of matching entities is probed by
+ * {@code min(id)} and {@code max(id)} and split into ranges of equal width (see {@link ChunkedScan}).
+ * Every range is read by its own cursor on a virtual thread in its own read-only transaction (holding a connection),
+ * and rows are merged as they are read, or by a k-way merge preserving the order if the query is sorted
+ * (see {@link ViewtonQueryExecutor#merge}). Sorted values are merged by the natural order of their database values,
+ * with nulls as the smallest values, so the order could differ from a single query on nulls and on strings
+ * ordered by a collation. Otherwise, rows are read by a single cursor, as by
+ * {@link ViewtonRepository#stream(ViewtonQuery, Class)}.
+ * </p>
+ * <p>
+ * Chunks are read in separate transactions, so they do not share a snapshot of the database.
+ * </p>
+ */
+@Component
+public class ViewtonScanner {
+
+    private final ViewtonRepository repository;
+    private final EntityManager entityManager;
+    private final ViewtonQueryExecutor queryExecutor;
+    private final RowMapperFactory rowMappers;
+    private final int streamFetchSize;
+
+    public ViewtonScanner(
+            ViewtonRepository repository,
+            EntityManager entityManager,
+            ViewtonQueryExecutor queryExecutor,
+            RowMapperFactory rowMappers,
+            ViewtonProperties properties) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.queryExecutor = queryExecutor;
+        this.rowMappers = rowMappers;
+        this.streamFetchSize = properties.getStream().getFetchSize();
+    }
+
+    /**
+     * Returns a lazy stream of entities matching the query, read by {@code chunks} cursors in parallel if possible.
+     * Every chunk buffers up to {@code viewton.stream.fetch-size} rows. The stream should be consumed
+     * within the surrounding transaction and closed after use:
+     * <pre>
+     * try (Stream&lt;Payment&gt; payments = viewtonScanner.scan(query, Payment.class, 8)) {
+     *     payments.forEach(writer::write);
+     * }
+     * </pre>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering and sorting parameters.
+     * @param entityType The entity class type to query.
+     * @param chunks     The number of chunks read in parallel.
+     * @param <T>        The entity type.
+     * @return A stream of entities which should be closed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <T> Stream<T> scan(ViewtonQuery query, Class<T> entityType, int chunks) {
+        List<String> mappingAttributes = repository.getSelectedAttributes(query, entityType, entityType);
+        RowMapper<T> mapper = rowMappers.get(entityType, mappingAttributes);
+
+        return scanRows(query, entityType, mappingAttributes, chunks, streamFetchSize).map(mapper::map);
+    }
+
+    /**
+     * Returns a lazy stream of the selected attributes of rows matching the query, read by {@code chunks} cursors
+     * in parallel if possible. Rows of chunks are followed by the values of sorting attributes.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering and sorting parameters.
+     * @param entityType The entity class type to query.
+     * @param attributes The names of the selected attributes.
+     * @param chunks     The number of chunks read in parallel.
+     * @param fetchSize  The JDBC fetch size, and the number of rows buffered by every chunk.
+     * @param <T>        The entity type.
+     * @return A stream of rows which should be closed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public <T> Stream<Object[]> scanRows(
+            ViewtonQuery query,
+            Class<T> entityType,
+            List<String> attributes,
+            int chunks,
+            int fetchSize
+    ) {
+        IdentifiableType<T> model = entityManager.getMetamodel().entity(entityType);
+        if (!isChunked(query, model, chunks)) {
+            return repository.scrollRows(query, entityType, attributes, fetchSize, null);
+        }
+
+        Object[] bounds = queryExecutor.inReadOnlyTransaction(() -> repository.idBounds(query, entityType));
+        if (bounds[0] == null) {
+            return Stream.empty();
+        }
+
+        List<String> chunkAttributes = new ArrayList<>(attributes);
+        query.getRawOrderByes().forEach(orderBy -> chunkAttributes.add(orderBy.getFieldName()));
+        List<Supplier<Stream<Object[]>>> sources = ChunkedScan
+                .split(((Number) bounds[0]).longValue(), ((Number) bounds[1]).longValue(), chunks)
+                .stream()
+                .map(chunk -> (Supplier<Stream<Object[]>>) () ->
+                        repository.scrollRows(query, entityType, chunkAttributes, fetchSize, chunk))
+                .toList();
+
+        Comparator<Object[]> order = ChunkedScan.order(query.getRawOrderByes(), attributes.size(),
+                getRelationalValues(entityType, query.getRawOrderByes()));
+        return queryExecutor.merge(sources, order, fetchSize);
+    }
+
+    /**
+     * Returns converters of values of the sorting attributes to values stored in the database.
+     */
+    private List<UnaryOperator<Object>> getRelationalValues(Class<?> entityType, List<RawOrderBy> orders) {
+        EntityPersister persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityType);
+
+        return orders.stream()
+                .map(orderBy -> {
+                    JdbcMapping mapping = persister.findSubPart(orderBy.getFieldName()).getSingleJdbcMapping();
+                    return (UnaryOperator<Object>) mapping::convertToRelationalValue;
+                })
+                .toList();
+    }
+
+    private boolean isChunked(ViewtonQuery query, IdentifiableType<?> model, int chunks) {
+        return chunks > 1
+                && query.getPageSize() == Integer.MAX_VALUE
+                && query.getListOffset() == 0
+                && !query.isKeyset()
+                && !query.isDistinct()
+                && model.hasSingleIdAttribute()
+                && ChunkedScan.supports(model.getIdType().getJavaType());
+    }
+}
@@ -0,0 +1,134 @@
+package com.viewton.concurrent;
+
+import com.viewton.config.ViewtonProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical requests performed at the same time: the first request (the leader) is performed,
+ * and identical requests arriving while it is in flight wait for its result instead of querying the database.
+ * Failures of the leader are shared as well.
+ * <p>
+ * Coalescing is enabled by {@code viewton.single-flight.enabled=true}. A waiting request gives up after
+ * {@code viewton.single-flight.max-wait-millis} and performs the request on its own, so a slow leader
+ * does not hold the others longer than that.
+ * </p>
+ * <p>
+ * Waiting requests receive the same result instance as the leader, so a shared result should not be modified,
+ * but copied or mapped by every request. The repository shares the selected rows, and every request maps them
+ * to its own response.
+ * </p>
+ */
+@Component
+public class ViewtonSingleFlight {
+
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Constructs a new `ViewtonSingleFlight` configured by {@code viewton.single-flight} properties.
+     *
+     * @param properties The tuning properties, see {@link ViewtonProperties}.
+     */
+    @Autowired
+    public ViewtonSingleFlight(ViewtonProperties properties) {
+        this(properties.getSingleFlight().isEnabled(), properties.getSingleFlight().getMaxWaitMillis());
+    }
+
+    /**
+     * Constructs a new `ViewtonSingleFlight`.
+     *
+     * @param enabled       Whether identical requests are coalesced.
+     * @param maxWaitMillis The maximum time a request waits for the result of an identical one.
+     */
+    public ViewtonSingleFlight(boolean enabled, long maxWaitMillis) {
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Maximum wait should not be negative, but was: " + maxWaitMillis);
+        }
+
+        this.enabled = enabled;
+        this.maxWaitNanos = Duration.ofMillis(maxWaitMillis).toNanos();
+    }
+
+    /**
+     * @return {@code true} if identical requests are coalesced.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Performs the request, or waits for the result of an identical request in flight.
+     *
+     * @param key     The key of the request, identical requests should have equal keys.
+     * @param request The request to perform.
+     * @param <R>     The result type.
+     * @return The result of the request.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R execute(Object key, Supplier<R> request) {
+        if (!enabled) {
+            return request.get();
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, own);
+        if (leader == null) {
+            return lead(key, own, request);
+        }
+
+        try {
+            R result = (R) leader.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return result;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            executions.increment();
+            return request.get();
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical request", e);
+        }
+    }
+
+    /**
+     * @return Executed and coalesced requests since the creation.
+     */
+    public ViewtonSingleFlightStats getStats() {
+        return new ViewtonSingleFlightStats(executions.sum(), coalesced.sum(), timeouts.sum(), inFlight.size());
+    }
+
+    private <R> R lead(Object key, CompletableFuture<Object> own, Supplier<R> request) {
+        executions.increment();
+        try {
+            R result = request.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.viewton.concurrent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Statistics of a {@link ViewtonSingleFlight} since its creation.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ViewtonSingleFlightStats {
+
+    /**
+     * Number of requests performed, including the ones which gave up waiting.
+     */
+    private final long executions;
+
+    /**
+     * Number of requests which received the result of an identical request.
+     */
+    private final long coalesced;
+
+    /**
+     * Number of requests which gave up waiting for an identical request and were performed on their own.
+     */
+    private final long timeouts;
+
+    /**
+     * Current number of requests in flight.
+     */
+    private final int inFlight;
+
+    /**
+     * @return Ratio of coalesced requests to all the requests, {@code 0} if there were no requests.
+     */
+    public double getCoalescedRate() {
+        long requests = executions + coalesced;
+        return requests == 0 ? 0 : (double) coalesced / requests;
+    }
+}
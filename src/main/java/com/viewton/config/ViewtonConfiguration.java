@@ -1,13 +1,15 @@
 package com.viewton.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Configuration which extends component scan for spring context.
+ * Configuration which extends component scan for spring context and binds {@link ViewtonProperties}.
  */
 @Configuration
 @ComponentScan("com.viewton")
+@EnableConfigurationProperties(ViewtonProperties.class)
 public class ViewtonConfiguration {
 
 }
@@ -0,0 +1,234 @@
+package com.viewton.config;
+
+import com.viewton.ViewtonCountStrategy;
+import com.viewton.ViewtonEngine;
+import com.viewton.ViewtonSessionMode;
+import com.viewton.concurrent.ViewtonConsistency;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning properties of the repository and its components, bound from the application attributes
+ * prefixed with {@code viewton}:
+ * <pre>
+ * viewton.request.default-page-size=50
+ * viewton.concurrent.enabled=false
+ * viewton.concurrent.consistency=RELAXED
+ * viewton.concurrent.parallelism=4
+ * viewton.count.strategy=SEPARATE
+ * viewton.deferred-join.offset-threshold=10000
+ * viewton.stream.fetch-size=1000
+ * viewton.stream.clear-interval=1000
+ * viewton.session-mode=SESSION
+ * viewton.engine=CRITERIA
+ * viewton.plan-cache.max-size=1000
+ * viewton.plan-cache.expire-after-access-seconds=0
+ * viewton.query-cache.max-size=1000
+ * viewton.query-cache.expire-after-access-seconds=0
+ * viewton.row-mapper-cache.max-size=1000
+ * viewton.aggregate.slices=1
+ * viewton.single-flight.enabled=false
+ * viewton.single-flight.max-wait-millis=1000
+ * viewton.result-cache.max-size=0
+ * viewton.result-cache.max-rows=100000
+ * viewton.result-cache.max-memory-bytes=67108864
+ * viewton.result-cache.expire-after-write-seconds=60
+ * viewton.result-cache.off-heap-bytes=0
+ * viewton.result-cache.file=
+ * </pre>
+ * A new instance holds the default values, so it could be created and adjusted manually outside of Spring.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("viewton")
+public class ViewtonProperties {
+
+    private final Request request = new Request();
+    private final Concurrent concurrent = new Concurrent();
+    private final Count count = new Count();
+    private final DeferredJoin deferredJoin = new DeferredJoin();
+    private final Stream stream = new Stream();
+    private final PlanCache planCache = new PlanCache();
+    private final QueryCache queryCache = new QueryCache();
+    private final RowMapperCache rowMapperCache = new RowMapperCache();
+    private final Aggregate aggregate = new Aggregate();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ResultCache resultCache = new ResultCache();
+
+    /**
+     * The session used to perform queries, see {@link ViewtonSessionMode}.
+     */
+    private ViewtonSessionMode sessionMode = ViewtonSessionMode.SESSION;
+
+    /**
+     * The engine which builds and performs queries, see {@link ViewtonEngine}.
+     */
+    private ViewtonEngine engine = ViewtonEngine.CRITERIA;
+
+    @Getter
+    @Setter
+    public static class Request {
+
+        /**
+         * The page size used when pagination is not specified.
+         */
+        private int defaultPageSize = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrent {
+
+        /**
+         * Whether sub-queries of a request are performed concurrently.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Consistency of the sub-queries of a single request, see {@link ViewtonConsistency}.
+         */
+        private ViewtonConsistency consistency = ViewtonConsistency.RELAXED;
+
+        /**
+         * Maximum number of sub-queries of a single request running at the same time.
+         */
+        private int parallelism = 4;
+    }
+
+    @Getter
+    @Setter
+    public static class Count {
+
+        /**
+         * The strategy of counting entities, see {@link ViewtonCountStrategy}.
+         */
+        private ViewtonCountStrategy strategy = ViewtonCountStrategy.SEPARATE;
+    }
+
+    @Getter
+    @Setter
+    public static class DeferredJoin {
+
+        /**
+         * The offset after which pages are selected by the deferred join, {@code -1} disables the deferred join.
+         */
+        private int offsetThreshold = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+
+        /**
+         * The JDBC fetch size of streamed queries.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * The number of streamed entities after which the session is cleared, {@code 0} disables clearing.
+         */
+        private int clearInterval = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class PlanCache {
+
+        /**
+         * The maximum number of cached plans of the native engine, {@code 0} disables the cache.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * Seconds after the last use when a plan is evicted, {@code 0} to not expire plans.
+         */
+        private long expireAfterAccessSeconds = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class QueryCache {
+
+        /**
+         * The maximum number of cached queries parsed from request parameters, {@code 0} disables the cache.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * Seconds after the last use when a query is evicted, {@code 0} to not expire queries.
+         */
+        private long expireAfterAccessSeconds = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class RowMapperCache {
+
+        /**
+         * The maximum number of cached mappers of selected rows, {@code 0} disables the cache.
+         */
+        private int maxSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Aggregate {
+
+        /**
+         * The number of slices of id ranges aggregates are calculated by in parallel, {@code 1} disables slicing.
+         */
+        private int slices = 1;
+    }
+
+    @Getter
+    @Setter
+    public static class SingleFlight {
+
+        /**
+         * Whether identical requests performed at the same time are coalesced into a single execution.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum time a request waits for the result of an identical one.
+         */
+        private long maxWaitMillis = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class ResultCache {
+
+        /**
+         * The maximum number of cached responses, {@code 0} disables the cache
+         * unless responses are stored off the heap.
+         */
+        private int maxSize = 0;
+
+        /**
+         * The maximum total number of rows of cached responses.
+         */
+        private long maxRows = 100_000;
+
+        /**
+         * The maximum estimated memory of cached responses.
+         */
+        private long maxMemoryBytes = 64 * 1024 * 1024;
+
+        /**
+         * Seconds after caching when a response is evicted, {@code 0} to not expire responses.
+         */
+        private long expireAfterWriteSeconds = 60;
+
+        /**
+         * The size of the buffer responses are stored in off the heap, {@code 0} to store responses on the heap.
+         */
+        private int offHeapBytes = 0;
+
+        /**
+         * The file the off-heap buffer is mapped to, empty to not persist responses.
+         */
+        private String file = "";
+    }
+}
@@ -1,7 +1,9 @@
 package com.viewton.dto;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -10,10 +12,12 @@ import java.util.List;
  * Contains attributes avg value of which will be selected and
  * group by attributes to group by table's columns.
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 @AllArgsConstructor
 public class AvgAttributes implements AggregateAttributes {
 
-    private List<String> attributes;
-    private List<String> groupByAttributes;
+    private final List<String> attributes;
+    private final List<String> groupByAttributes;
 }
@@ -0,0 +1,24 @@
+package com.viewton.dto;
+
+import com.viewton.dto.columnar.ColumnarResult;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Columnar counterpart of {@link ViewtonResponseDto}: the page and aggregates are stored by columns
+ * (see {@link ColumnarResult}) instead of objects, which is compact for large analytic pages.
+ * <p>
+ * {@code list}, {@code sum} and {@code avg} are {@code null} if they were not requested.
+ * {@code hasNext} and {@code nextCursor} have the same meaning as in {@link ViewtonResponseDto}.
+ * </p>
+ */
+@Data
+@RequiredArgsConstructor
+public class ColumnarResponseDto {
+    private final ColumnarResult list;
+    private final ColumnarResult sum;
+    private final ColumnarResult avg;
+    private final Long count;
+    private Boolean hasNext;
+    private String nextCursor;
+}
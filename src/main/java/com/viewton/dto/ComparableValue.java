@@ -12,6 +12,6 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public class ComparableValue {
-    private Comparable value;
-    private boolean ignoreCase;
+    private final Comparable value;
+    private final boolean ignoreCase;
 }
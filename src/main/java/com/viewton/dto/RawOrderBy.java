@@ -1,7 +1,9 @@
 package com.viewton.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 
 /**
  * Represents an ordering condition for sorting query results. This class holds the field name
@@ -13,10 +15,12 @@ import lombok.Getter;
  * A query parameter like <code>?sorting=-fieldName</code> would represent descending order.</p>
  */
 @Getter
+@ToString
+@EqualsAndHashCode
 @AllArgsConstructor
 public class RawOrderBy {
-    private String fieldName;
-    private Order order;
+    private final String fieldName;
+    private final Order order;
 
     public boolean isAscending() {
         return order == Order.ASCENDING;
@@ -1,7 +1,10 @@
 package com.viewton.dto;
 
 import com.viewton.RawWhereClause;
-import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 /**
  * This class represents a parsed value extracted from a "where" clause in the request parameters.
@@ -18,10 +21,29 @@ import lombok.Data;
  *   <li>ignoreCase: true</li>
  *   <li>javaType: depends on your entity field type</li>
  * </ul>
+ *
+ * <p>Values are immutable, so parsed queries could be shared between requests and threads.
+ * The Java type is known only when the value is compared with an entity field,
+ * so it is attached to a copy of the value by {@link #withJavaType(Class)}.</p>
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
 public class RawValue {
-    private String value;
-    private boolean ignoreCase = false;
-    private Class<?> javaType;
+    private final String value;
+    private final boolean ignoreCase;
+    private final Class<?> javaType;
+
+    public RawValue(String value, boolean ignoreCase) {
+        this(value, ignoreCase, null);
+    }
+
+    /**
+     * @param javaType The Java type of the compared entity field.
+     * @return A copy of this value with the specified Java type.
+     */
+    public RawValue withJavaType(Class<?> javaType) {
+        return new RawValue(value, ignoreCase, javaType);
+    }
 }
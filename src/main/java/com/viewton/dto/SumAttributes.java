@@ -1,14 +1,18 @@
 package com.viewton.dto;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.List;
 
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 @AllArgsConstructor
 public class SumAttributes implements AggregateAttributes {
 
-    private List<String> attributes;
-    private List<String> groupByAttributes;
+    private final List<String> attributes;
+    private final List<String> groupByAttributes;
 }
@@ -2,7 +2,9 @@ package com.viewton.dto;
 
 import com.viewton.RawWhereClause;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -18,24 +20,37 @@ import java.util.List;
  * <p>Fields are populated using the data parsed from the request parameters, and the
  * resulting object can be used to create SQL queries using the Criteria API or other
  * methods.</p>
+ *
+ * <p>The query is immutable, so a parsed query could be cached and shared between requests and threads
+ * (see {@code ViewtonQueryCache}).</p>
  */
-@Data
-@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder(toBuilder = true)
 public class ViewtonQuery {
-    private List<? extends RawWhereClause> rawWhereClauses;
-    private List<RawOrderBy> rawOrderByes;
-    private List<String> attributes;
-    private SumAttributes sum;
-    private AvgAttributes avg;
-    private int pageSize;
-    private int page;
-    private boolean count;
-    private boolean distinct;
+    private final List<? extends RawWhereClause> rawWhereClauses;
+    private final List<RawOrderBy> rawOrderByes;
+    private final List<String> attributes;
+    private final SumAttributes sum;
+    private final AvgAttributes avg;
+    private final int pageSize;
+    private final int page;
+    private final boolean count;
+    private final boolean distinct;
+    private final boolean noList;
+    private final boolean hasNext;
+    private final boolean keyset;
+    private final String after;
 
     public boolean doNotCount() {
         return !count;
     }
 
+    public boolean doNotList() {
+        return noList;
+    }
+
     public boolean doNotSum() {
         return !isSum();
     }
@@ -52,4 +67,9 @@ public class ViewtonQuery {
     public int getPage() {
         return (page - 1) * pageSize;
     }
+
+    // keyset pagination seeks the page by the cursor, so entities are not skipped
+    public int getListOffset() {
+        return keyset ? 0 : getPage();
+    }
 }
@@ -14,6 +14,10 @@ import java.util.stream.Stream;
  * and the total count of matching entities. It also provides utility methods for accessing and working with
  * the query results in a convenient manner.
  * </p>
+ * <p>
+ * {@code hasNext} tells if there are entities after the returned page. It is {@code null} if it was not requested.
+ * {@code nextCursor} is the cursor of the next page in keyset pagination, {@code null} if there is no next page.
+ * </p>
  *
  * @param <T> The type of the entities in the response.
  */
@@ -24,6 +28,8 @@ public class ViewtonResponseDto<T> {
     private final List<T> sum;
     private final List<T> avg;
     private final Long count;
+    private Boolean hasNext;
+    private String nextCursor;
 
     public Optional<T> firstAvgResult() {
         if (this.avg != null) {
@@ -0,0 +1,84 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Values of a single attribute of all the rows of a {@link ColumnarResult}.
+ * <p>
+ * Nulls are marked in the {@code nulls} bitmap: the row {@code i} is null if the bit {@code i % 64}
+ * of the word {@code nulls[i / 64]} is set. The bitmap is {@code null} if the column has no nulls.
+ * Values of null rows in primitive arrays are zero.
+ * </p>
+ */
+@Getter
+public abstract class Column {
+
+    private final String name;
+    private final ColumnType type;
+    private final long[] nulls;
+
+    protected Column(String name, ColumnType type, long[] nulls) {
+        this.name = name;
+        this.type = type;
+        this.nulls = nulls;
+    }
+
+    /**
+     * @param row The index of the row.
+     * @return {@code true} if the value of the row is null.
+     */
+    public boolean isNull(int row) {
+        return nulls != null && (nulls[row >> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @param row The index of the row.
+     * @return The boxed value of the row, {@code null} if it is null.
+     */
+    public abstract Object get(int row);
+
+    /**
+     * Builds the column of the attribute from selected rows, choosing the encoding by the type of its values.
+     *
+     * @param name  The name of the attribute.
+     * @param rows  Selected rows.
+     * @param index The index of the attribute in a row.
+     * @return The column of the attribute.
+     */
+    static Column of(String name, List<Object[]> rows, int index) {
+        long[] nulls = nulls(rows, index);
+        Object sample = rows.stream().map(row -> row[index]).filter(Objects::nonNull).findFirst().orElse(null);
+
+        if (sample instanceof Long) {
+            return new LongColumn(name, rows, index, nulls);
+        }
+        if (sample instanceof Integer || sample instanceof Short || sample instanceof Byte) {
+            return new IntColumn(name, rows, index, nulls);
+        }
+        if (sample instanceof Double || sample instanceof Float) {
+            return new DoubleColumn(name, rows, index, nulls);
+        }
+        if (sample instanceof Enum<?> || sample instanceof String && DictionaryColumn.isLowCardinality(rows, index)) {
+            return new DictionaryColumn(name, rows, index, nulls);
+        }
+
+        return new ObjectColumn(name, rows, index, nulls);
+    }
+
+    private static long[] nulls(List<Object[]> rows, int index) {
+        long[] nulls = null;
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i)[index] == null) {
+                if (nulls == null) {
+                    nulls = new long[(rows.size() + 63) >> 6];
+                }
+                nulls[i >> 6] |= 1L << i;
+            }
+        }
+
+        return nulls;
+    }
+}
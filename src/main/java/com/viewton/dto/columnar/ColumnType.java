@@ -0,0 +1,32 @@
+package com.viewton.dto.columnar;
+
+/**
+ * Encoding of a {@link Column} of a {@link ColumnarResult}.
+ */
+public enum ColumnType {
+
+    /**
+     * {@code long[]} values of {@code Long} attributes, see {@link LongColumn}.
+     */
+    LONG,
+
+    /**
+     * {@code int[]} values of {@code Integer}, {@code Short} and {@code Byte} attributes, see {@link IntColumn}.
+     */
+    INT,
+
+    /**
+     * {@code double[]} values of {@code Double} and {@code Float} attributes, see {@link DoubleColumn}.
+     */
+    DOUBLE,
+
+    /**
+     * Codes of values in a dictionary, used for enums and low-cardinality strings, see {@link DictionaryColumn}.
+     */
+    DICTIONARY,
+
+    /**
+     * Values of any other type, see {@link ObjectColumn}.
+     */
+    OBJECT
+}
@@ -0,0 +1,70 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows of a query stored by columns: one array per selected attribute instead of an object per row.
+ * Numeric columns are stored in primitive arrays, enums and low-cardinality strings are dictionary-encoded,
+ * and nulls are marked in bitmaps (see {@link Column}). Columns are in the order of selected attributes.
+ *
+ * <p>Example of reading a column:</p>
+ * <pre>
+ * LongColumn amounts = (LongColumn) result.getColumn("amount");
+ * for (int i = 0; i &lt; result.getSize(); i++) {
+ *     if (!amounts.isNull(i)) {
+ *         total += amounts.getValues()[i];
+ *     }
+ * }
+ * </pre>
+ */
+@Getter
+public class ColumnarResult {
+
+    private final int size;
+    private final List<Column> columns;
+
+    private ColumnarResult(int size, List<Column> columns) {
+        this.size = size;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Builds columns from selected rows.
+     *
+     * @param attributes Names of selected attributes in the order of values of a row.
+     * @param rows       Selected rows, values after the last attribute are ignored,
+     *                   and attributes after the last value of a row are {@code null}.
+     * @return The columnar result.
+     */
+    public static ColumnarResult of(List<String> attributes, List<Object[]> rows) {
+        if (rows.stream().anyMatch(row -> row.length < attributes.size())) {
+            // an aggregate of an empty selection is a row without values
+            rows = rows.stream()
+                    .map(row -> row.length < attributes.size() ? Arrays.copyOf(row, attributes.size()) : row)
+                    .toList();
+        }
+        List<Column> columns = new ArrayList<>(attributes.size());
+        for (int i = 0; i < attributes.size(); i++) {
+            columns.add(Column.of(attributes.get(i), rows, i));
+        }
+
+        return new ColumnarResult(rows.size(), columns);
+    }
+
+    /**
+     * @param name The name of the attribute.
+     * @return The column of the attribute.
+     * @throws IllegalArgumentException If the attribute is not selected.
+     */
+    public Column getColumn(String name) {
+        return columns.stream()
+                .filter(column -> column.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Attribute is not selected: " + name));
+    }
+}
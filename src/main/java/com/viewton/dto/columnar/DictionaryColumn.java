@@ -0,0 +1,57 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dictionary-encoded column of enums and low-cardinality strings: distinct values are stored once
+ * in the {@code dictionary}, and rows hold {@code codes}, the indexes of their values in the dictionary.
+ * Enums are stored by their names.
+ */
+@Getter
+public class DictionaryColumn extends Column {
+
+    private final String[] dictionary;
+    private final int[] codes;
+
+    DictionaryColumn(String name, List<Object[]> rows, int index, long[] nulls) {
+        super(name, ColumnType.DICTIONARY, nulls);
+        Map<String, Integer> codesByValue = new HashMap<>();
+        this.codes = new int[rows.size()];
+        for (int i = 0; i < codes.length; i++) {
+            Object value = rows.get(i)[index];
+            if (value != null) {
+                String key = value instanceof Enum<?> enumValue ? enumValue.name() : value.toString();
+                codes[i] = codesByValue.computeIfAbsent(key, k -> codesByValue.size());
+            }
+        }
+
+        this.dictionary = new String[codesByValue.size()];
+        codesByValue.forEach((value, code) -> dictionary[code] = value);
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : dictionary[codes[row]];
+    }
+
+    /**
+     * Strings are dictionary-encoded if there are at most half as many distinct values as rows.
+     */
+    static boolean isLowCardinality(List<Object[]> rows, int index) {
+        int limit = rows.size() / 2;
+        Set<Object> distinct = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[index] != null && distinct.add(row[index]) && distinct.size() > limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
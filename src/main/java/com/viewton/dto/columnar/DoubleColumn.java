@@ -0,0 +1,28 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Column of {@code Double} and {@code Float} values.
+ */
+@Getter
+public class DoubleColumn extends Column {
+
+    private final double[] values;
+
+    DoubleColumn(String name, List<Object[]> rows, int index, long[] nulls) {
+        super(name, ColumnType.DOUBLE, nulls);
+        this.values = new double[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = rows.get(i)[index];
+            values[i] = value == null ? 0 : ((Number) value).doubleValue();
+        }
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+}
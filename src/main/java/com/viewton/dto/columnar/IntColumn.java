@@ -0,0 +1,28 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Column of {@code Integer}, {@code Short} and {@code Byte} values.
+ */
+@Getter
+public class IntColumn extends Column {
+
+    private final int[] values;
+
+    IntColumn(String name, List<Object[]> rows, int index, long[] nulls) {
+        super(name, ColumnType.INT, nulls);
+        this.values = new int[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = rows.get(i)[index];
+            values[i] = value == null ? 0 : ((Number) value).intValue();
+        }
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+}
@@ -0,0 +1,28 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Column of {@code Long} values.
+ */
+@Getter
+public class LongColumn extends Column {
+
+    private final long[] values;
+
+    LongColumn(String name, List<Object[]> rows, int index, long[] nulls) {
+        super(name, ColumnType.LONG, nulls);
+        this.values = new long[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = rows.get(i)[index];
+            values[i] = value == null ? 0 : ((Number) value).longValue();
+        }
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+}
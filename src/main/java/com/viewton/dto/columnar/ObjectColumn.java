@@ -0,0 +1,27 @@
+package com.viewton.dto.columnar;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Column of values which have no specific encoding, e.g. {@code BigDecimal}, dates or high-cardinality strings.
+ */
+@Getter
+public class ObjectColumn extends Column {
+
+    private final Object[] values;
+
+    ObjectColumn(String name, List<Object[]> rows, int index, long[] nulls) {
+        super(name, ColumnType.OBJECT, nulls);
+        this.values = new Object[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rows.get(i)[index];
+        }
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+}
@@ -0,0 +1,85 @@
+package com.viewton.export;
+
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Writes rows as comma-separated values (RFC 4180). Values are written as in JSON (see {@code JsonWriter}):
+ * enums by their names, {@code java.time} values as ISO-8601 and {@code byte[]} as Base64.
+ */
+class CsvWriter implements RowWriter {
+
+    private static final String LINE_BREAK = "\r\n";
+
+    private final Writer writer;
+    private final List<String> attributes;
+    private final StringBuilder line = new StringBuilder();
+
+    CsvWriter(Writer writer, List<String> attributes) {
+        this.writer = writer;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public void header() {
+        writeLine(attributes.toArray());
+    }
+
+    @Override
+    public void row(Object[] row) {
+        writeLine(row);
+    }
+
+    private void writeLine(Object[] values) {
+        line.setLength(0);
+        for (int i = 0; i < attributes.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (i < values.length && values[i] != null) {
+                appendField(text(values[i]));
+            }
+        }
+        line.append(LINE_BREAK);
+        RowWriter.write(writer, line.toString());
+    }
+
+    private void appendField(String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+        }
+        if (value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.viewton.export;
+
+import com.viewton.json.JsonWriter;
+
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Format of exported rows, see {@link ViewtonExport}.
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma-separated values (RFC 4180): a header line of attribute names followed by a line per row.
+     * Values containing commas, quotes or line breaks are quoted, {@code null} values are empty.
+     */
+    CSV {
+        @Override
+        RowWriter writer(Writer writer, List<String> attributes) {
+            return new CsvWriter(writer, attributes);
+        }
+    },
+
+    /**
+     * Newline-delimited JSON: a JSON object of the selected attributes per line, see {@link JsonWriter}.
+     */
+    NDJSON {
+        @Override
+        RowWriter writer(Writer writer, List<String> attributes) {
+            return new RowWriter() {
+                @Override
+                public void header() {
+                }
+
+                @Override
+                public void row(Object[] row) {
+                    new JsonWriter(writer).row(attributes, row);
+                    RowWriter.write(writer, "\n");
+                }
+            };
+        }
+    };
+
+    /**
+     * Creates the writer of rows of the attributes in this format.
+     */
+    abstract RowWriter writer(Writer writer, List<String> attributes);
+}
@@ -0,0 +1,84 @@
+package com.viewton.export;
+
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes exported rows to an output stream in UTF-8, in the format of the export and compressed by gzip
+ * if requested. Rows are written through a fixed-size buffer, so memory does not depend on the number of rows.
+ * The output stream is not closed, so it stays owned by the caller (e.g. a servlet container).
+ */
+public class ExportWriter {
+
+    private final OutputStream output;
+    private final GZIPOutputStream gzip;
+    private final Writer writer;
+    private final RowWriter rowWriter;
+
+    /**
+     * Number of written rows, not counting the header.
+     */
+    @Getter
+    private long rows;
+
+    private ExportWriter(OutputStream output, GZIPOutputStream gzip, Writer writer, RowWriter rowWriter) {
+        this.output = output;
+        this.gzip = gzip;
+        this.writer = writer;
+        this.rowWriter = rowWriter;
+    }
+
+    /**
+     * Opens the writer and writes the header if it is requested.
+     *
+     * @param export     The options of the export.
+     * @param output     The output stream rows are written to.
+     * @param attributes Names of exported attributes in the order of values of a row.
+     * @return The writer of rows.
+     */
+    public static ExportWriter open(ViewtonExport export, OutputStream output, List<String> attributes) {
+        try {
+            GZIPOutputStream gzip = export.isGzip() ? new GZIPOutputStream(output, true) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip == null ? output : gzip, StandardCharsets.UTF_8));
+            ExportWriter exportWriter = new ExportWriter(output, gzip, writer, export.getFormat().writer(writer, attributes));
+            if (export.isHeader()) {
+                exportWriter.rowWriter.header();
+            }
+            return exportWriter;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the values of exported attributes, values after the last attribute are ignored.
+     */
+    public void write(Object[] row) {
+        rowWriter.row(row);
+        rows++;
+    }
+
+    /**
+     * Flushes written rows and finishes the gzip stream if the output is compressed, without closing the output.
+     */
+    public void finish() {
+        try {
+            writer.flush();
+            if (gzip != null) {
+                gzip.finish();
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.viewton.export;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writer of exported rows in some {@link ExportFormat}.
+ */
+interface RowWriter {
+
+    /**
+     * Writes the header before the first row, if the format has one.
+     */
+    void header();
+
+    /**
+     * Writes the values of selected attributes, values after the last attribute are ignored.
+     */
+    void row(Object[] row);
+
+    static void write(Writer writer, String value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
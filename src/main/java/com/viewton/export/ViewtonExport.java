@@ -0,0 +1,53 @@
+package com.viewton.export;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Options of the export of rows matching a query, see {@link ViewtonExporter}.
+ *
+ * <pre>
+ * ViewtonExport export = ViewtonExport.builder()
+ *         .format(ExportFormat.NDJSON)
+ *         .gzip(true)
+ *         .fetchSize(5000)
+ *         .build();
+ * </pre>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder
+public class ViewtonExport {
+
+    /**
+     * Format of exported rows, CSV by default.
+     */
+    @Builder.Default
+    private final ExportFormat format = ExportFormat.CSV;
+
+    /**
+     * Whether the output is compressed by gzip.
+     */
+    private final boolean gzip;
+
+    /**
+     * JDBC fetch size of the cursor, {@code 0} stands for {@code viewton.stream.fetch-size}.
+     */
+    private final int fetchSize;
+
+    /**
+     * Number of chunks of id ranges read in parallel, {@code 1} (not split) by default,
+     * see {@link com.viewton.concurrent.ViewtonScanner}.
+     */
+    @Builder.Default
+    private final int chunks = 1;
+
+    /**
+     * Whether the header is written, if the format has one.
+     */
+    @Builder.Default
+    private final boolean header = true;
+}
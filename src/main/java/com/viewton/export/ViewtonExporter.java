@@ -0,0 +1,104 @@
+package com.viewton.export;
+
+import com.viewton.ViewtonQueryCache;
+import com.viewton.ViewtonRepository;
+import com.viewton.concurrent.ViewtonQueryExecutor;
+import com.viewton.concurrent.ViewtonScanner;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.ViewtonQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exports the selected attributes of rows matching a query to an output stream as CSV or NDJSON,
+ * see {@link ExportFormat}.
+ */
+@Component
+public class ViewtonExporter {
+
+    private final ViewtonRepository repository;
+    private final ViewtonScanner scanner;
+    private final ViewtonQueryExecutor queryExecutor;
+    private final ViewtonQueryCache queryCache;
+    private final int defaultPageSize;
+    private final int streamFetchSize;
+
+    public ViewtonExporter(
+            ViewtonRepository repository,
+            ViewtonScanner scanner,
+            ViewtonQueryExecutor queryExecutor,
+            ViewtonQueryCache queryCache,
+            ViewtonProperties properties) {
+        this.repository = repository;
+        this.scanner = scanner;
+        this.queryExecutor = queryExecutor;
+        this.queryCache = queryCache;
+        this.defaultPageSize = properties.getRequest().getDefaultPageSize();
+        this.streamFetchSize = properties.getStream().getFetchSize();
+    }
+
+    /**
+     * Exports rows matching the request parameters to the output stream,
+     * see {@link #export(ViewtonQuery, Class, ViewtonExport, OutputStream)}.
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param export        The format and other options of the export.
+     * @param output        The output stream rows are written to.
+     * @param <T>           The entity type.
+     * @return The number of exported rows.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> long export(
+            Map<String, String> requestParams,
+            Class<T> entityType,
+            ViewtonExport export,
+            OutputStream output
+    ) {
+        return export(queryCache.get(requestParams, defaultPageSize), entityType, export, output);
+    }
+
+    /**
+     * Exports the selected attributes of rows matching the query to the output stream.
+     * Columns are in the order of {@code attributes} of the request.
+     * Filters, sorting and pagination are applied the same way as for `list`, so {@code page_size=-1} exports
+     * all the matching rows, while count and aggregates are not exported.
+     * <p>
+     * Rows are read by a forward-only cursor with the fetch size of the export ({@code viewton.stream.fetch-size}
+     * by default) and written straight from the selected tuples, without instantiating entities,
+     * so memory stays constant regardless of the number of rows. The output stream is flushed but not closed.
+     * </p>
+     * <p>
+     * If the export has several chunks, the scan is split into chunks of id ranges read in parallel,
+     * see {@link ViewtonScanner}.
+     * </p>
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param export     The format and other options of the export.
+     * @param output     The output stream rows are written to.
+     * @param <T>        The entity type.
+     * @return The number of exported rows.
+     * @throws java.io.UncheckedIOException If rows could not be written.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> long export(ViewtonQuery query, Class<T> entityType, ViewtonExport export, OutputStream output) {
+        List<String> attributes = repository.getSelectedAttributes(query, entityType, Object[].class);
+        int fetchSize = export.getFetchSize() > 0 ? export.getFetchSize() : streamFetchSize;
+
+        return queryExecutor.inReadOnlyTransaction(() -> {
+            ExportWriter writer = ExportWriter.open(export, output, attributes);
+            try (Stream<Object[]> rows = scanner.scanRows(query, entityType, attributes, export.getChunks(), fetchSize)) {
+                rows.forEach(writer::write);
+            }
+            writer.finish();
+            return writer.getRows();
+        });
+    }
+}
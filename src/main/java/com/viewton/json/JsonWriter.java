@@ -0,0 +1,221 @@
+package com.viewton.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Minimal streaming JSON writer of selected rows: values are written straight to the underlying writer,
+ * without building a tree of objects or instantiating entities.
+ * <p>
+ * Values are written the way Jackson writes them with Spring Boot defaults:
+ * </p>
+ * <ul>
+ *   <li>integers, {@link BigInteger} and {@link BigDecimal} as numbers, {@code NaN} and infinite floating point
+ *   numbers as strings;</li>
+ *   <li>enums by their names;</li>
+ *   <li>{@code java.time} values as ISO-8601 strings;</li>
+ *   <li>{@code byte[]} as Base64 strings;</li>
+ *   <li>other values by their {@code toString()}.</li>
+ * </ul>
+ * <p>
+ * The writer does not validate the structure of the document. It is not thread-safe and does not close
+ * the underlying writer. {@link IOException}s are rethrown as {@link UncheckedIOException}.
+ * </p>
+ */
+public class JsonWriter {
+
+    private final Writer writer;
+
+    /**
+     * Whether a value was written at each level of nesting, to separate the next one by a comma.
+     */
+    private boolean[] nonEmpty = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next property of the current object.
+     */
+    public JsonWriter name(String name) {
+        separate();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a value, see the class description for the supported types.
+     */
+    public JsonWriter value(Object value) {
+        separate();
+        if (value == null) {
+            write("null");
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            string(value.toString());
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte || value instanceof BigInteger) {
+            write(value.toString());
+        } else if (value instanceof BigDecimal decimal) {
+            write(decimal.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isFinite(number)) {
+                write(value.toString());
+            } else {
+                string(value.toString());
+            }
+        } else if (value instanceof Enum<?> constant) {
+            string(constant.name());
+        } else if (value instanceof LocalDateTime dateTime) {
+            string(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime));
+        } else if (value instanceof TemporalAccessor) {
+            string(value.toString());
+        } else if (value instanceof byte[] bytes) {
+            string(Base64.getEncoder().encodeToString(bytes));
+        } else {
+            string(value.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Writes a row as an object which properties are the names and the values of the row in the same order.
+     * Values after the last name are ignored, while names after the last value are written with {@code null} values.
+     */
+    public JsonWriter row(List<String> names, Object[] values) {
+        beginObject();
+        for (int i = 0; i < names.size(); i++) {
+            name(names.get(i)).value(i < values.length ? values[i] : null);
+        }
+        return endObject();
+    }
+
+    /**
+     * Writes rows as an array of objects (see {@link #row(List, Object[])}), or {@code null} if rows are {@code null}.
+     */
+    public JsonWriter rows(List<String> names, List<Object[]> rows) {
+        if (rows == null) {
+            return value(null);
+        }
+
+        beginArray();
+        rows.forEach(row -> row(names, row));
+        return endArray();
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonWriter open(char bracket) {
+        separate();
+        write(bracket);
+        if (++depth == nonEmpty.length) {
+            nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        nonEmpty[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing to close by '" + bracket + "'");
+        }
+        depth--;
+        write(bracket);
+        return this;
+    }
+
+    /**
+     * Separates the next value from the previous one at the current level, unless it follows a property name.
+     */
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (nonEmpty[depth]) {
+            write(',');
+        }
+        nonEmpty[depth] = true;
+    }
+
+    private void string(String value) {
+        write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            write(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"' -> write("\\\"");
+                case '\\' -> write("\\\\");
+                case '\n' -> write("\\n");
+                case '\r' -> write("\\r");
+                case '\t' -> write("\\t");
+                case '\b' -> write("\\b");
+                case '\f' -> write("\\f");
+                default -> write(String.format("\\u%04x", (int) c));
+            }
+        }
+        write(value, start, value.length());
+        write('"');
+    }
+
+    private void write(String value) {
+        write(value, 0, value.length());
+    }
+
+    private void write(String value, int start, int end) {
+        try {
+            writer.write(value, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(char c) {
+        try {
+            writer.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.viewton.json;
+
+import com.viewton.ViewtonQueryCache;
+import com.viewton.ViewtonRepository;
+import com.viewton.ViewtonResponseSink;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes responses to queries as JSON, with the same properties as {@link ViewtonResponseDto}:
+ * {@code list}, {@code sum}, {@code avg}, {@code count}, {@code hasNext} and {@code nextCursor}.
+ * Entities of the list are written as objects of the selected attributes only.
+ * <p>
+ * Values are written straight from the selected tuples without instantiating entities, see {@link JsonWriter}.
+ * The page is written row by row as it is read by a cursor, so it is not collected in memory, which makes
+ * {@code page_size=-1} responses as cheap as the writer is, see
+ * {@link ViewtonRepository#writeResponse(ViewtonQuery, Class, ViewtonResponseSink)}.
+ * </p>
+ */
+@Component
+public class ViewtonJsonWriter {
+
+    private final ViewtonRepository repository;
+    private final ViewtonQueryCache queryCache;
+    private final int defaultPageSize;
+
+    public ViewtonJsonWriter(ViewtonRepository repository, ViewtonQueryCache queryCache, ViewtonProperties properties) {
+        this.repository = repository;
+        this.queryCache = queryCache;
+        this.defaultPageSize = properties.getRequest().getDefaultPageSize();
+    }
+
+    /**
+     * Writes the response to the request parameters as JSON in UTF-8, see {@link #write(ViewtonQuery, Class, Writer)}.
+     * The output stream is flushed but not closed.
+     *
+     * @param requestParams A map of request parameters used to build the `ViewtonQuery`.
+     * @param entityType    The entity class type to query.
+     * @param output        The output stream the response is written to.
+     * @param <T>           The entity type.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> void write(Map<String, String> requestParams, Class<T> entityType, OutputStream output) {
+        write(queryCache.get(requestParams, defaultPageSize), entityType,
+                new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes the response to the query as JSON. Properties are written in the order their sub-queries
+     * are performed. The writer is flushed but not closed.
+     *
+     * @param query      The `ViewtonQuery` containing the filtering, sorting, and pagination parameters.
+     * @param entityType The entity class type to query.
+     * @param writer     The writer the response is written to.
+     * @param <T>        The entity type.
+     * @throws java.io.UncheckedIOException If the response could not be written.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public <T> void write(ViewtonQuery query, Class<T> entityType, Writer writer) {
+        repository.writeResponse(query, entityType, new JsonSink(new JsonWriter(writer)));
+    }
+
+    /**
+     * Writes the parts of a response as properties of a JSON object, and the missing ones as {@code null}.
+     */
+    private static final class JsonSink implements ViewtonResponseSink {
+
+        private final JsonWriter json;
+        private List<String> attributes;
+        private boolean started;
+        private boolean listWritten;
+        private boolean aggregatesWritten;
+
+        private JsonSink(JsonWriter json) {
+            this.json = json;
+        }
+
+        @Override
+        public void beginList(List<String> attributes) {
+            this.attributes = attributes;
+            start().name("list").beginArray();
+        }
+
+        @Override
+        public void row(Object[] row) {
+            json.row(attributes, row);
+        }
+
+        @Override
+        public void endList() {
+            json.endArray();
+            listWritten = true;
+        }
+
+        @Override
+        public void aggregates(
+                List<String> sumAttributes,
+                List<Object[]> sum,
+                List<String> avgAttributes,
+                List<Object[]> avg
+        ) {
+            start().name("sum").rows(sumAttributes, sum)
+                    .name("avg").rows(avgAttributes, avg);
+            aggregatesWritten = true;
+        }
+
+        @Override
+        public void end(Long count, Boolean hasNext, String nextCursor) {
+            start();
+            if (!listWritten) {
+                json.name("list").value(null);
+            }
+            if (!aggregatesWritten) {
+                json.name("sum").value(null).name("avg").value(null);
+            }
+            json.name("count").value(count)
+                    .name("hasNext").value(hasNext)
+                    .name("nextCursor").value(nextCursor)
+                    .endObject()
+                    .flush();
+        }
+
+        /**
+         * Begins the object on the first part of the response, so nothing is written if the query is rejected.
+         */
+        private JsonWriter start() {
+            if (!started) {
+                json.beginObject();
+                started = true;
+            }
+            return json;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.viewton.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Conversions of selected numbers to the numeric type of the property they are mapped to.
+ * <p>
+ * The database returns some aggregates in a type other than the type of the attribute, e.g. {@code avg}
+ * of a {@code Long} or a {@code BigDecimal} attribute is a {@code Double}, so a number of another type
+ * is converted the way Java converts numbers: a fractional number is truncated to an integral type,
+ * and a {@code double} is converted to {@code BigDecimal} by its canonical string representation.
+ * Values of other types, and numbers of the target type, are passed as they are.
+ * </p>
+ */
+final class NumberConversions {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+            long.class, Long.class,
+            int.class, Integer.class,
+            short.class, Short.class,
+            byte.class, Byte.class,
+            double.class, Double.class,
+            float.class, Float.class);
+
+    private static final MethodHandle CONVERT;
+
+    static {
+        try {
+            CONVERT = MethodHandles.lookup().findStatic(NumberConversions.class, "convert",
+                    MethodType.methodType(Object.class, Class.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private NumberConversions() {
+    }
+
+    /**
+     * @return {@code true} if numbers of other types are converted to the type.
+     */
+    static boolean isNumeric(Class<?> type) {
+        Class<?> wrapper = WRAPPERS.getOrDefault(type, type);
+        return WRAPPERS.containsValue(wrapper) || wrapper == BigDecimal.class || wrapper == BigInteger.class;
+    }
+
+    /**
+     * Adapts the handle to convert its argument at the position to the type, if the type is numeric.
+     *
+     * @param handle   The handle which argument at the position is of the {@code Object} type.
+     * @param position The position of the argument.
+     * @param type     The type the argument is converted to.
+     * @return The adapted handle of the same type.
+     */
+    static MethodHandle filter(MethodHandle handle, int position, Class<?> type) {
+        if (!isNumeric(type)) {
+            return handle;
+        }
+
+        return MethodHandles.filterArguments(handle, position,
+                MethodHandles.insertArguments(CONVERT, 0, WRAPPERS.getOrDefault(type, type)));
+    }
+
+    /**
+     * Converts a number of another numeric type to the type.
+     *
+     * @param type  The target type, a number is converted to the wrapper of a primitive type.
+     * @param value The value, which is returned as is if it is not a number or is already of the type.
+     * @return The converted value.
+     */
+    static Object convert(Class<?> type, Object value) {
+        if (!(value instanceof Number number) || type.isInstance(value) || !isNumeric(type)) {
+            return value;
+        }
+
+        Class<?> wrapper = WRAPPERS.getOrDefault(type, type);
+        if (wrapper == Long.class) {
+            return number.longValue();
+        }
+        if (wrapper == Integer.class) {
+            return number.intValue();
+        }
+        if (wrapper == Short.class) {
+            return number.shortValue();
+        }
+        if (wrapper == Byte.class) {
+            return number.byteValue();
+        }
+        if (wrapper == Double.class) {
+            return number.doubleValue();
+        }
+        if (wrapper == Float.class) {
+            return number.floatValue();
+        }
+        if (wrapper == BigDecimal.class) {
+            return number instanceof BigInteger integer ? new BigDecimal(integer)
+                    : number instanceof Double || number instanceof Float ? BigDecimal.valueOf(number.doubleValue())
+                    : BigDecimal.valueOf(number.longValue());
+        }
+
+        return number instanceof BigDecimal decimal ? decimal.toBigInteger() : BigInteger.valueOf(number.longValue());
+    }
+}
@@ -0,0 +1,199 @@
+package com.viewton.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mappers of selected rows to projections which are not entities: records, interfaces, maps and arrays.
+ * A projection is validated against the selected aliases when its mapper is created, so mapping of a row
+ * does not look up properties. Numbers of another numeric type than a property of a record or an interface
+ * are converted to its type, see {@link NumberConversions}.
+ */
+final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * @return {@code true} if the type is a projection supported by this class.
+     */
+    static boolean isProjection(Class<?> type) {
+        return type == Map.class || type == Object[].class || type.isRecord() || type.isInterface();
+    }
+
+    /**
+     * Returns names of properties of a record or an interface projection:
+     * components of a record in the order of declaration, and properties of getters of an interface.
+     *
+     * @return The names of properties, or {@code null} for other types.
+     */
+    static List<String> getProperties(Class<?> type) {
+        if (type.isRecord()) {
+            return Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList();
+        }
+        if (type.isInterface() && type != Map.class) {
+            return getGetters(type).keySet().stream().toList();
+        }
+
+        return null;
+    }
+
+    static <T> RowMapper<T> create(Class<T> type, List<String> aliases) {
+        if (type == Object[].class) {
+            int size = aliases.size();
+            // rows are not shared, so a row without extra values is returned as is
+            return row -> type.cast(row.length == size ? row : Arrays.copyOf(row, size));
+        }
+        if (type == Map.class) {
+            Map<String, Integer> indexes = indexes(aliases);
+            int size = aliases.size();
+            return row -> type.cast(new RowMap(aliases, indexes, Arrays.copyOf(row, size)));
+        }
+        if (type.isRecord()) {
+            return record(type, aliases);
+        }
+
+        return proxy(type, aliases);
+    }
+
+    private static <T> RowMapper<T> record(Class<T> type, List<String> aliases) {
+        RecordComponent[] components = type.getRecordComponents();
+        Map<String, Integer> indexes = indexes(aliases);
+        validate(type, aliases, Arrays.stream(components).map(RecordComponent::getName).toList());
+
+        int[] columns = new int[components.length];
+        for (int i = 0; i < components.length; i++) {
+            columns[i] = indexes.getOrDefault(components[i].getName(), -1);
+            if (columns[i] < 0 && components[i].getType().isPrimitive()) {
+                throw new IllegalArgumentException("Component '" + components[i].getName()
+                        + "' of primitive type is not selected for " + type.getName());
+            }
+        }
+
+        MethodHandle constructor = canonicalConstructor(type, components);
+        return row -> {
+            Object[] arguments = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                arguments[i] = columns[i] < 0 ? null : row[columns[i]];
+            }
+            try {
+                return type.cast(constructor.invokeExact(arguments));
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to map row to " + type.getName(), e);
+            }
+        };
+    }
+
+    private static MethodHandle canonicalConstructor(Class<?> type, RecordComponent[] components) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(
+                    Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new));
+            constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(components.length));
+            for (int i = 0; i < components.length; i++) {
+                handle = NumberConversions.filter(handle, i, components[i].getType());
+            }
+            return handle.asSpreader(Object[].class, components.length);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Record " + type.getName() + " has no accessible canonical constructor", e);
+        }
+    }
+
+    private static <T> RowMapper<T> proxy(Class<T> type, List<String> aliases) {
+        Map<String, Method> getters = getGetters(type);
+        validate(type, aliases, getters.keySet());
+
+        Map<Method, Integer> columns = new HashMap<>();
+        Map<String, Integer> indexes = indexes(aliases);
+        getters.forEach((property, getter) -> {
+            Integer index = indexes.get(property);
+            if (index == null && getter.getReturnType().isPrimitive()) {
+                throw new IllegalArgumentException("Property '" + property
+                        + "' of primitive type is not selected for " + type.getName());
+            }
+            columns.put(getter, index);
+        });
+
+        ClassLoader classLoader = type.getClassLoader();
+        Class<?>[] interfaces = {type};
+        return row -> {
+            Object[] values = Arrays.copyOf(row, aliases.size());
+            InvocationHandler handler = (proxy, method, arguments) -> {
+                if (columns.containsKey(method)) {
+                    Integer index = columns.get(method);
+                    return index == null ? null : NumberConversions.convert(method.getReturnType(), values[index]);
+                }
+                return switch (method.getName()) {
+                    case "toString" -> type.getSimpleName() + new RowMap(aliases, indexes, values);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == arguments[0];
+                    default -> InvocationHandler.invokeDefault(proxy, method, arguments);
+                };
+            };
+            return type.cast(Proxy.newProxyInstance(classLoader, interfaces, handler));
+        };
+    }
+
+    /**
+     * Returns abstract getters of the interface by their property names: {@code getName()}, {@code isName()}
+     * or {@code name()}.
+     */
+    private static Map<String, Method> getGetters(Class<?> type) {
+        Map<String, Method> getters = new LinkedHashMap<>();
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || method.getParameterCount() != 0
+                    || method.getReturnType() == void.class) {
+                continue;
+            }
+            getters.put(toProperty(method.getName()), method);
+        }
+
+        return getters;
+    }
+
+    private static String toProperty(String getter) {
+        if (getter.startsWith("get") && getter.length() > 3) {
+            return Character.toLowerCase(getter.charAt(3)) + getter.substring(4);
+        }
+        if (getter.startsWith("is") && getter.length() > 2) {
+            return Character.toLowerCase(getter.charAt(2)) + getter.substring(3);
+        }
+
+        return getter;
+    }
+
+    private static void validate(Class<?> type, List<String> aliases, Collection<String> properties) {
+        List<String> unknown = new ArrayList<>(aliases);
+        unknown.removeAll(properties);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Projection " + type.getName() + " has no properties " + unknown);
+        }
+    }
+
+    private static Map<String, Integer> indexes(List<String> aliases) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < aliases.size(); i++) {
+            indexes.putIfAbsent(Objects.requireNonNull(aliases.get(i)), i);
+        }
+
+        return indexes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.viewton.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Method handles of the no-args constructor and property setters of a class, resolved once per class.
+ * <p>
+ * Properties are resolved the same way as by Hibernate's {@code AliasToBeanResultTransformer}:
+ * a setter method {@code setName} of the class or its superclasses first, and the field otherwise.
+ * Handles are adapted to the {@code (Object, Object)void} type, so values are cast (and unboxed for primitives)
+ * on invocation. Numbers of another numeric type than the property are converted to its type,
+ * see {@link NumberConversions}.
+ * </p>
+ */
+final class PropertySetters {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<PropertySetters> SETTERS = new ClassValue<>() {
+        @Override
+        protected PropertySetters computeValue(Class<?> type) {
+            return new PropertySetters(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Map<String, MethodHandle> setters = new ConcurrentHashMap<>();
+
+    private PropertySetters(Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+    }
+
+    static PropertySetters of(Class<?> type) {
+        return SETTERS.get(type);
+    }
+
+    /**
+     * @return The no-args constructor adapted to the {@code ()Object} type.
+     */
+    MethodHandle getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * @param property The name of the property.
+     * @return The setter of the property adapted to the {@code (Object, Object)void} type.
+     * @throws IllegalArgumentException If the class has neither a setter nor a field of the property.
+     */
+    MethodHandle getSetter(String property) {
+        return setters.computeIfAbsent(property, this::findSetter);
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Class " + type.getName() + " has no accessible no-args constructor", e);
+        }
+    }
+
+    private MethodHandle findSetter(String property) {
+        try {
+            Method method = findSetterMethod(property);
+            if (method != null) {
+                method.setAccessible(true);
+                return NumberConversions.filter(MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE),
+                        1, method.getParameterTypes()[0]);
+            }
+
+            Field field = findField(property);
+            if (field != null) {
+                field.setAccessible(true);
+                return NumberConversions.filter(MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE),
+                        1, field.getType());
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Property '" + property + "' of " + type.getName() + " is not accessible", e);
+        }
+
+        throw new IllegalArgumentException("Could not find setter of '" + property + "' in " + type.getName());
+    }
+
+    private Method findSetterMethod(String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                    return method;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private Field findField(String property) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+
+        return null;
+    }
+}
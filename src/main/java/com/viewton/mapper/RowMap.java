@@ -0,0 +1,73 @@
+package com.viewton.mapper;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unmodifiable map view of a selected row. Keys and their indexes are shared by all the rows of a mapper,
+ * so a row holds only its values. Entries are iterated in the order of the selected attributes.
+ */
+final class RowMap extends AbstractMap<String, Object> {
+
+    private final List<String> keys;
+    private final Map<String, Integer> indexes;
+    private final Object[] values;
+
+    RowMap(List<String> keys, Map<String, Integer> indexes, Object[] values) {
+        this.keys = keys;
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Integer index = indexes.get(key);
+        return index == null ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexes.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.size();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(keys.get(index), values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.viewton.mapper;
+
+/**
+ * Maps a selected row to an instance of the result type.
+ * Mappers are created by {@link RowMapperFactory}, which binds them to the list of aliases of the row values.
+ *
+ * @param <T> The result type.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the row to a new instance. Values are assigned in the order of aliases of the mapper,
+     * and values after the last alias are ignored.
+     *
+     * @param row Selected values.
+     * @return A new instance with the values assigned.
+     */
+    T map(Object[] row);
+}
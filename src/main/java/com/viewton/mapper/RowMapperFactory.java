@@ -0,0 +1,133 @@
+package com.viewton.mapper;
+
+import com.viewton.cache.ViewtonCache;
+import com.viewton.cache.ViewtonCacheStats;
+import com.viewton.config.ViewtonProperties;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Creates mappers of selected rows to entities (or other classes with a no-args constructor),
+ * replacing Hibernate's {@code AliasToBeanResultTransformer}, and to projections:
+ * <ul>
+ *   <li>records, created by the canonical constructor;</li>
+ *   <li>interfaces, implemented by proxies which getters ({@code getName()}, {@code isName()} or {@code name()})
+ *   return the selected values;</li>
+ *   <li>{@code Map<String, Object>}, an unmodifiable map of selected attributes;</li>
+ *   <li>{@code Object[]}, the selected values in the order of attributes.</li>
+ * </ul>
+ * <p>
+ * Constructor and setters of a class are resolved by reflection once, as method handles, and a mapper
+ * of a list of aliases is created once and cached, so mapping of a row only invokes the constructor
+ * and setters of the aliases. Properties are resolved the same way as by {@code AliasToBeanResultTransformer}.
+ * Aliases are validated against a record or an interface when its mapper is created: every alias should be
+ * a property of the projection, while properties which are not selected are {@code null}.
+ * </p>
+ * <p>
+ * The number of cached mappers is configured by {@code viewton.row-mapper-cache.max-size}
+ * ({@code 0} disables the cache of mappers, while constructors and setters are still resolved once).
+ * </p>
+ */
+@Component
+public class RowMapperFactory {
+
+    private final ViewtonCache<Key, RowMapper<?>> mappers;
+
+    /**
+     * Constructs a new `RowMapperFactory` configured by {@code viewton.row-mapper-cache} properties.
+     *
+     * @param properties The tuning properties, see {@link ViewtonProperties}.
+     */
+    @Autowired
+    public RowMapperFactory(ViewtonProperties properties) {
+        this(properties.getRowMapperCache().getMaxSize());
+    }
+
+    /**
+     * Constructs a new `RowMapperFactory`.
+     *
+     * @param maxSize The maximum number of cached mappers, {@code 0} disables the cache.
+     */
+    public RowMapperFactory(int maxSize) {
+        this.mappers = new ViewtonCache<>(maxSize, Duration.ZERO);
+    }
+
+    /**
+     * Returns the mapper of rows of the aliases to instances of the type.
+     *
+     * @param type    The result type.
+     * @param aliases Properties of the type the values of a row are assigned to, in the order of the values.
+     * @param <T>     The result type.
+     * @return The mapper.
+     * @throws IllegalArgumentException If the type has no no-args constructor or some alias has no property.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RowMapper<T> get(Class<T> type, List<String> aliases) {
+        return (RowMapper<T>) mappers.get(new Key(type, List.copyOf(aliases)), key -> create(type, key.getAliases()));
+    }
+
+    /**
+     * Returns properties of a record or an interface projection, which are selected when the request
+     * does not specify attributes.
+     *
+     * @param type The result type.
+     * @return Names of properties, or {@code null} if the type is neither
+     * a record nor an interface (so all the attributes of the entity are selected).
+     */
+    public List<String> getProjectedProperties(Class<?> type) {
+        return Projections.getProperties(type);
+    }
+
+    /**
+     * @return Hits, misses and evictions of mappers.
+     */
+    public ViewtonCacheStats getStats() {
+        return mappers.getStats();
+    }
+
+    private static <T> RowMapper<T> create(Class<T> type, List<String> aliases) {
+        if (Projections.isProjection(type)) {
+            return Projections.create(type, aliases);
+        }
+
+        PropertySetters properties = PropertySetters.of(type);
+        MethodHandle constructor = properties.getConstructor();
+        MethodHandle[] setters = aliases.stream().map(properties::getSetter).toArray(MethodHandle[]::new);
+
+        return row -> {
+            Object instance = newInstance(type, constructor);
+            for (int i = 0; i < setters.length; i++) {
+                try {
+                    setters[i].invokeExact(instance, row[i]);
+                } catch (Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(
+                            "Unable to set '" + aliases.get(i) + "' of " + type.getName() + " to " + row[i], e);
+                }
+            }
+            return type.cast(instance);
+        };
+    }
+
+    private static Object newInstance(Class<?> type, MethodHandle constructor) {
+        try {
+            return constructor.invokeExact();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to instantiate " + type.getName(), e);
+        }
+    }
+
+    @Data
+    private static final class Key {
+        private final Class<?> type;
+        private final List<String> aliases;
+    }
+}
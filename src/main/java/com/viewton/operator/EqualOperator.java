@@ -3,6 +3,8 @@ package com.viewton.operator;
 import com.viewton.dto.ComparableValue;
 import com.viewton.RawWhereClause;
 import com.viewton.operator.common.EqualBasedOperator;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -25,4 +27,23 @@ public class EqualOperator extends EqualBasedOperator {
     public Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb) {
         return convertEquals(firstValueToComparable(clause, path), path, cb);
     }
+
+    /**
+     * Renders an equality operator as a SQL condition based on
+     * {@link EqualBasedOperator#convertEqualsToSql(ComparableValue, SqlColumn, SqlParameters)}.
+     *
+     * @param clause     The {@link RawWhereClause} containing the equality condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the value is bound to.
+     * @return A SQL condition representing the equality comparison.
+     */
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        return convertEqualsToSql(firstValueToComparable(clause, column), column, parameters);
+    }
+
+    @Override
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        bindEqualsToSql(firstValueToComparable(clause, column), column, parameters);
+    }
 }
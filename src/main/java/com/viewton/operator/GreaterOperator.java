@@ -1,6 +1,8 @@
 package com.viewton.operator;
 
 import com.viewton.RawWhereClause;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -22,4 +24,27 @@ public class GreaterOperator extends Operator {
     public Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb) {
         return cb.greaterThan(path, firstValueToComparable(clause, path).getValue());
     }
+
+    /**
+     * Renders a "greater than" operator as a SQL condition.
+     *
+     * @param clause     The {@link RawWhereClause} containing the greater-than condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the value is bound to.
+     * @return A SQL condition representing the greater-than comparison.
+     */
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        return column.getName() + " > " + parameters.bind(column, firstValueToComparable(clause, column).getValue());
+    }
+
+    @Override
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        parameters.bind(column, firstValueToComparable(clause, column).getValue());
+    }
+
+    @Override
+    public boolean supportsSql() {
+        return true;
+    }
 }
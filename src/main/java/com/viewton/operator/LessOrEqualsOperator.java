@@ -1,6 +1,8 @@
 package com.viewton.operator;
 
 import com.viewton.RawWhereClause;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -23,4 +25,27 @@ public class LessOrEqualsOperator extends Operator {
     public Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb) {
         return cb.lessThanOrEqualTo(path, firstValueToComparable(clause, path).getValue());
     }
+
+    /**
+     * Renders a "less than or equal" operator as a SQL condition.
+     *
+     * @param clause     The {@link RawWhereClause} containing the less-than-or-equal condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the value is bound to.
+     * @return A SQL condition representing the less-than-or-equal comparison.
+     */
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        return column.getName() + " <= " + parameters.bind(column, firstValueToComparable(clause, column).getValue());
+    }
+
+    @Override
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        parameters.bind(column, firstValueToComparable(clause, column).getValue());
+    }
+
+    @Override
+    public boolean supportsSql() {
+        return true;
+    }
 }
@@ -2,6 +2,8 @@ package com.viewton.operator;
 
 import com.viewton.RawWhereClause;
 import com.viewton.operator.common.EqualBasedOperator;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -17,4 +19,14 @@ public class NotEqualOperator extends EqualBasedOperator {
     public Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb) {
         return cb.not(convertEquals(firstValueToComparable(clause, path), path, cb));
     }
+
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        return "not (" + convertEqualsToSql(firstValueToComparable(clause, column), column, parameters) + ")";
+    }
+
+    @Override
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        bindEqualsToSql(firstValueToComparable(clause, column), column, parameters);
+    }
 }
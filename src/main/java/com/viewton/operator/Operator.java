@@ -2,7 +2,8 @@ package com.viewton.operator;
 
 import com.viewton.dto.ComparableValue;
 import com.viewton.RawWhereClause;
-import com.viewton.type.JavaTypeToComparableResolver;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -17,6 +18,10 @@ import java.util.List;
  * on fields in query parameters. This class encapsulates the operator value and provides common functionality
  * for all operator types.
  * </p>
+ *
+ * <p>Besides the Criteria API predicate, an operator could render itself as a SQL condition
+ * for the native engine, see {@link #toSql(RawWhereClause, SqlColumn, SqlParameters)}.
+ * Queries with operators which do not support SQL are performed by the Criteria API.</p>
  */
 @Getter
 public abstract class Operator {
@@ -33,17 +38,59 @@ public abstract class Operator {
 
     public abstract Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb);
 
+    /**
+     * Checks if the operator could be rendered as a SQL condition by
+     * {@link #toSql(RawWhereClause, SqlColumn, SqlParameters)}.
+     *
+     * @return {@code false} by default, so custom operators are performed by the Criteria API.
+     */
+    public boolean supportsSql() {
+        return false;
+    }
+
+    /**
+     * Renders the operator as a SQL condition on the column. Values are bound as parameters,
+     * so the condition contains only placeholders.
+     * <p>
+     * Rendered SQL is cached by the shape of the query, so the condition should depend only on the number of values,
+     * their case sensitivity and {@code null} markers, but not on the values themselves.
+     * </p>
+     *
+     * @param clause     The {@link RawWhereClause} containing the condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the values are bound to.
+     * @return A SQL condition equivalent to {@link #toPredicate(RawWhereClause, Path, CriteriaBuilder)}.
+     * @throws UnsupportedOperationException If the operator does not support SQL.
+     */
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        throw new UnsupportedOperationException("Operator '" + value + "' does not support SQL");
+    }
+
+    /**
+     * Binds values of the clause the same way as {@link #toSql(RawWhereClause, SqlColumn, SqlParameters)},
+     * when the SQL of the query is taken from the plan cache. By default, the condition is rendered and dropped.
+     *
+     * @param clause     The {@link RawWhereClause} containing the condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the values are bound to.
+     */
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        toSql(clause, column, parameters);
+    }
+
     protected List<ComparableValue> valueToComparable(RawWhereClause clause, Path path) {
-        return clause.getValues()
-                .stream()
-                .map((rawValue -> {
-                    rawValue.setJavaType(path.getJavaType());
-                    return JavaTypeToComparableResolver.toJavaComparable(rawValue);
-                }))
-                .toList();
+        return valueToComparable(clause, path.getJavaType());
+    }
+
+    protected List<ComparableValue> valueToComparable(RawWhereClause clause, Class<?> javaType) {
+        return clause.toComparableValues(javaType);
     }
 
     protected ComparableValue firstValueToComparable(RawWhereClause clause, Path path) {
         return this.valueToComparable(clause, path).get(0);
     }
+
+    protected ComparableValue firstValueToComparable(RawWhereClause clause, SqlColumn column) {
+        return this.valueToComparable(clause, column.getJavaType()).get(0);
+    }
 }
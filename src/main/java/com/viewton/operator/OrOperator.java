@@ -3,10 +3,14 @@ package com.viewton.operator;
 import com.viewton.dto.ComparableValue;
 import com.viewton.RawWhereClause;
 import com.viewton.operator.common.EqualBasedOperator;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 
+import java.util.stream.Collectors;
+
 public class OrOperator extends EqualBasedOperator {
 
     public OrOperator() {
@@ -29,4 +33,26 @@ public class OrOperator extends EqualBasedOperator {
                         .toArray(Predicate[]::new)
         );
     }
+
+    /**
+     * Renders an "or" operator as a SQL condition based on
+     * {@link EqualBasedOperator#convertEqualsToSql(ComparableValue, SqlColumn, SqlParameters)}.
+     *
+     * @param clause     The RawWhereClause containing the or condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the values are bound to.
+     * @return A SQL condition representing the "or" comparison.
+     */
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        return valueToComparable(clause, column.getJavaType()).stream()
+                .map(fieldValue -> convertEqualsToSql(fieldValue, column, parameters))
+                .collect(Collectors.joining(" or ", "(", ")"));
+    }
+
+    @Override
+    public void bindSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        valueToComparable(clause, column.getJavaType())
+                .forEach(fieldValue -> bindEqualsToSql(fieldValue, column, parameters));
+    }
 }
@@ -2,6 +2,8 @@ package com.viewton.operator;
 
 import com.viewton.dto.ComparableValue;
 import com.viewton.RawWhereClause;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -31,4 +33,28 @@ public class RangeOperator extends Operator {
 
         return cb.between(path, pair.get(0).getValue(), pair.get(1).getValue());
     }
+
+    /**
+     * Renders a range operator as a SQL condition.
+     *
+     * @param clause     The {@link RawWhereClause} containing the range condition.
+     * @param column     The column of the entity field.
+     * @param parameters Parameters of the SQL query the values are bound to.
+     * @return A SQL condition representing the range comparison.
+     */
+    @Override
+    public String toSql(RawWhereClause clause, SqlColumn column, SqlParameters parameters) {
+        List<ComparableValue> pair = valueToComparable(clause, column.getJavaType());
+        if (pair.size() != 2) {
+            throw new IllegalArgumentException("Invalid range clause: " + clause);
+        }
+
+        return column.getName() + " between " + parameters.bind(column, pair.get(0).getValue())
+                + " and " + parameters.bind(column, pair.get(1).getValue());
+    }
+
+    @Override
+    public boolean supportsSql() {
+        return true;
+    }
 }
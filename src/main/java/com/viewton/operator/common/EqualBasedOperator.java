@@ -2,11 +2,20 @@ package com.viewton.operator.common;
 
 import com.viewton.dto.ComparableValue;
 import com.viewton.operator.Operator;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 
 public abstract class EqualBasedOperator extends Operator {
+
+    /**
+     * Explicit escape character of like patterns of both engines. Some databases escape by backslash
+     * by default, so an explicit one keeps backslash a plain character.
+     */
+    private static final char LIKE_ESCAPE = '!';
+
     public EqualBasedOperator(String value) {
         super(value);
     }
@@ -29,13 +38,73 @@ public abstract class EqualBasedOperator extends Operator {
         Class javaType = path.getJavaType();
         if (String.class.isAssignableFrom(javaType)) {
             if (comparableValue.isIgnoreCase()) {
-                return cb.like(path, value.toString());
+                return cb.like(path, likePattern(comparableValue), LIKE_ESCAPE);
             } else {
-                return cb.like(cb.lower(path), value.toString().toLowerCase());
+                return cb.like(cb.lower(path), likePattern(comparableValue), LIKE_ESCAPE);
             }
         }
 
         return cb.equal(path, value);
     }
 
+    /**
+     * SQL counterpart of {@link #convertEquals(ComparableValue, Path, CriteriaBuilder)}.
+     *
+     * @param comparableValue The {@link ComparableValue} value to compare.
+     * @param column          The column of the entity field.
+     * @param parameters      Parameters of the SQL query the value is bound to.
+     * @return A SQL condition representing the equality comparison.
+     */
+    protected String convertEqualsToSql(ComparableValue comparableValue, SqlColumn column, SqlParameters parameters) {
+        String placeholder = bindEqualsToSql(comparableValue, column, parameters);
+
+        if (placeholder == null) {
+            return column.getName() + " is null";
+        }
+
+        if (String.class.isAssignableFrom(column.getJavaType())) {
+            if (comparableValue.isIgnoreCase()) {
+                return column.getName() + " like " + placeholder + " escape '" + LIKE_ESCAPE + "'";
+            } else {
+                return "lower(" + column.getName() + ") like " + placeholder + " escape '" + LIKE_ESCAPE + "'";
+            }
+        }
+
+        return column.getName() + " = " + placeholder;
+    }
+
+    /**
+     * Binds the value of {@link #convertEqualsToSql(ComparableValue, SqlColumn, SqlParameters)}
+     * without rendering the condition.
+     *
+     * @return The placeholder of the value, {@code null} if the value is compared with null and is not bound.
+     */
+    protected String bindEqualsToSql(ComparableValue comparableValue, SqlColumn column, SqlParameters parameters) {
+        Comparable value = comparableValue.getValue();
+
+        if ("null".equals(value)) {
+            return null;
+        }
+
+        if (String.class.isAssignableFrom(column.getJavaType())) {
+            return parameters.bind(column, likePattern(comparableValue));
+        }
+
+        return parameters.bind(column, value);
+    }
+
+    /**
+     * @return The like pattern of the value, lower cased unless marked by ^, with the escape character doubled,
+     * so {@code %} and {@code _} remain wildcards while the rest of characters are matched literally.
+     */
+    private static String likePattern(ComparableValue comparableValue) {
+        String value = comparableValue.getValue().toString();
+        String pattern = comparableValue.isIgnoreCase() ? value : value.toLowerCase();
+        return pattern.replace(String.valueOf(LIKE_ESCAPE), String.valueOf(LIKE_ESCAPE).repeat(2));
+    }
+
+    @Override
+    public boolean supportsSql() {
+        return true;
+    }
 }
@@ -0,0 +1,409 @@
+package com.viewton.sql;
+
+import com.viewton.RawWhereClause;
+import com.viewton.dto.AggregateAttributes;
+import com.viewton.dto.RawOrderBy;
+import com.viewton.dto.ViewtonQuery;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.pagination.AbstractLimitHandler;
+import org.hibernate.dialect.pagination.LimitHandler;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.spi.Limit;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Performs Viewton's sub-queries by SQL rendered straight from the `ViewtonQuery` and executed over JDBC,
+ * bypassing construction and translation of Criteria API queries.
+ * <pre>
+ * select attributes..., [count(*) over()] from table where ... order by ... [offset/limit]
+ * select count(*) from table where ...
+ * select group..., sum(a)..., avg(b)..., [count(*)] from table where ... group by group... [offset/limit]
+ * </pre>
+ * Tables and columns of entities are resolved once from the Hibernate metamodel (see {@link SqlTable}),
+ * where clauses are rendered by the SQL counterparts of operators and pagination is rendered by the dialect.
+ * Values are bound and read by the JDBC mappings of columns, so results are the same as selected by Hibernate.
+ * <p>
+ * Rendered queries are cached by their shape in {@link SqlPlanCache}, so a request of a known shape
+ * only binds its values.
+ * </p>
+ * <p>
+ * A query is supported if the entity is mapped to a single table, all the attributes of the query are mapped
+ * to single columns and all the operators support SQL, see {@link #supports(ViewtonQuery, Class, List)}.
+ * </p>
+ */
+public class NativeSqlEngine {
+
+    private final Map<Class<?>, Optional<SqlTable>> tables = new ConcurrentHashMap<>();
+    private final SessionFactoryImplementor sessionFactory;
+    private final Dialect dialect;
+    private final JdbcServices jdbcServices;
+    private final String doubleType;
+    private final SqlPlanCache planCache;
+
+    public NativeSqlEngine(SessionFactoryImplementor sessionFactory, SqlPlanCache planCache) {
+        this.sessionFactory = sessionFactory;
+        this.planCache = planCache;
+        this.jdbcServices = sessionFactory.getJdbcServices();
+        this.dialect = jdbcServices.getDialect();
+        this.doubleType = sessionFactory.getTypeConfiguration().getDdlTypeRegistry().getTypeName(SqlTypes.DOUBLE, dialect);
+    }
+
+    /**
+     * Checks if the query could be performed by the native engine.
+     *
+     * @param query      The `ViewtonQuery` to perform.
+     * @param entityType The entity class type to query.
+     * @param attributes Attributes selected by the query.
+     * @return {@code true} if the entity, all the attributes and operators of the query are supported.
+     */
+    public boolean supports(ViewtonQuery query, Class<?> entityType, List<String> attributes) {
+        Optional<SqlTable> table = findTable(entityType);
+        if (table.isEmpty()) {
+            return false;
+        }
+
+        return query.getRawWhereClauses().stream().allMatch(clause -> clause.getOperator().supportsSql())
+                && Stream.of(
+                        attributes.stream(),
+                        query.getRawWhereClauses().stream().map(RawWhereClause::getFieldName),
+                        query.getRawOrderByes().stream().map(RawOrderBy::getFieldName),
+                        aggregateAttributes(query.doNotSum() ? null : query.getSum()),
+                        aggregateAttributes(query.doNotAvg() ? null : query.getAvg()))
+                .flatMap(attribute -> attribute)
+                .allMatch(attribute -> table.get().findColumn(attribute).isPresent());
+    }
+
+    /**
+     * Selects a page of attributes of the entities matching the query.
+     *
+     * @param session     The session which connection is used.
+     * @param query       The `ViewtonQuery` containing the filtering and sorting parameters.
+     * @param entityType  The entity class type to query.
+     * @param attributes  Attributes to select.
+     * @param windowCount Whether the total count should be selected by the window function.
+     * @param offset      The offset of the page.
+     * @param maxResults  The size of the page, {@link Integer#MAX_VALUE} for no limit.
+     * @return Rows of attributes followed by the window count if it is selected.
+     */
+    public List<Object[]> list(
+            SharedSessionContractImplementor session,
+            ViewtonQuery query,
+            Class<?> entityType,
+            List<String> attributes,
+            boolean windowCount,
+            int offset,
+            int maxResults
+    ) {
+        Limit limit = limit(offset, maxResults);
+        SqlShape shape = SqlShape.list(entityType, query, attributes, windowCount, limitShape(limit));
+
+        return execute(session, planCache.get(shape, compiled -> compileList(compiled, query, limit)), query, limit);
+    }
+
+    /**
+     * Counts entities matching the query, distinct entities are counted by their ids.
+     *
+     * @param session    The session which connection is used.
+     * @param query      The `ViewtonQuery` containing the filtering parameters.
+     * @param entityType The entity class type to query.
+     * @return The count of entities matching the query.
+     */
+    public long count(SharedSessionContractImplementor session, ViewtonQuery query, Class<?> entityType) {
+        SqlPlan plan = planCache.get(SqlShape.count(entityType, query), compiled -> compileCount(compiled, query));
+
+        return (Long) execute(session, plan, query, Limit.NONE).get(0)[0];
+    }
+
+    /**
+     * Selects group by values followed by sums, averages and count of entities matching the query.
+     * Sums and averages are of the same types as selected by Hibernate: {@code Long} for integral attributes,
+     * {@code Double} for floating point ones and averages.
+     *
+     * @param session       The session which connection is used.
+     * @param query         The `ViewtonQuery` containing the filtering parameters.
+     * @param entityType    The entity class type to query.
+     * @param groupBy       Attributes to group by.
+     * @param sumAttributes Attributes to sum.
+     * @param avgAttributes Attributes to average.
+     * @param withCount     Whether the count should be selected.
+     * @param offset        The offset of the page of groups.
+     * @param maxResults    The size of the page of groups, {@link Integer#MAX_VALUE} for no limit.
+     * @return Rows of group by values, sums, averages and count.
+     */
+    public List<Object[]> aggregate(
+            SharedSessionContractImplementor session,
+            ViewtonQuery query,
+            Class<?> entityType,
+            List<String> groupBy,
+            List<String> sumAttributes,
+            List<String> avgAttributes,
+            boolean withCount,
+            int offset,
+            int maxResults
+    ) {
+        Limit limit = limit(offset, maxResults);
+        SqlShape shape = SqlShape.aggregate(
+                entityType, query, groupBy, sumAttributes, avgAttributes, withCount, limitShape(limit));
+
+        return execute(session, planCache.get(shape, compiled -> compileAggregate(compiled, query, limit)), query, limit);
+    }
+
+    private SqlPlan compileList(SqlShape shape, ViewtonQuery query, Limit limit) {
+        SqlTable table = getTable(shape.getEntityType());
+        List<SqlPlan.ColumnReader> readers = new ArrayList<>();
+        List<String> selections = new ArrayList<>();
+        for (String attribute : shape.getAttributes()) {
+            SqlColumn column = table.getColumn(attribute);
+            selections.add(column.getName());
+            readers.add(columnReader(column));
+        }
+        if (shape.isWindowCount()) {
+            selections.add("count(*) over()");
+            readers.add(NativeSqlEngine::readLong);
+        }
+
+        StringBuilder sql = new StringBuilder("select ")
+                .append(shape.isDistinct() ? "distinct " : "")
+                .append(String.join(", ", selections))
+                .append(" from ").append(table.getName());
+        List<SqlColumn> whereColumns = appendWhere(sql, query, table);
+        appendOrderBy(sql, shape.getOrders(), table);
+
+        return new SqlPlan(limitSql(sql.toString(), limit), whereColumns, readers);
+    }
+
+    private SqlPlan compileCount(SqlShape shape, ViewtonQuery query) {
+        SqlTable table = getTable(shape.getEntityType());
+        StringBuilder sql = new StringBuilder("select ")
+                .append(shape.isDistinct() ? "count(distinct " + table.getId().getName() + ")" : "count(*)")
+                .append(" from ").append(table.getName());
+        List<SqlColumn> whereColumns = appendWhere(sql, query, table);
+
+        return new SqlPlan(sql.toString(), whereColumns, List.of(NativeSqlEngine::readLong));
+    }
+
+    private SqlPlan compileAggregate(SqlShape shape, ViewtonQuery query, Limit limit) {
+        SqlTable table = getTable(shape.getEntityType());
+        List<SqlPlan.ColumnReader> readers = new ArrayList<>();
+        List<String> selections = new ArrayList<>();
+        for (String attribute : shape.getGroupBy()) {
+            SqlColumn column = table.getColumn(attribute);
+            selections.add(column.getName());
+            readers.add(columnReader(column));
+        }
+        for (String attribute : shape.getSumAttributes()) {
+            SqlColumn column = table.getColumn(attribute);
+            selections.add("sum(" + column.getName() + ")");
+            readers.add(sumReader(column.getJavaType()));
+        }
+        for (String attribute : shape.getAvgAttributes()) {
+            // the database could average integral values to an integral value, Hibernate casts them to double
+            selections.add("avg(cast(" + table.getColumn(attribute).getName() + " as " + doubleType + "))");
+            readers.add(NativeSqlEngine::readDouble);
+        }
+        if (shape.isWithCount()) {
+            selections.add("count(*)");
+            readers.add(NativeSqlEngine::readLong);
+        }
+
+        StringBuilder sql = new StringBuilder("select ")
+                .append(String.join(", ", selections))
+                .append(" from ").append(table.getName());
+        List<SqlColumn> whereColumns = appendWhere(sql, query, table);
+        if (!shape.getGroupBy().isEmpty()) {
+            sql.append(" group by ").append(shape.getGroupBy().stream()
+                    .map(attribute -> table.getColumn(attribute).getName())
+                    .collect(joining(", ")));
+        }
+
+        return new SqlPlan(limitSql(sql.toString(), limit), whereColumns, readers);
+    }
+
+    /**
+     * Appends where clauses of the compiled query. Values bound while conditions are rendered are dropped,
+     * because the plan is shared by queries of the same shape which bind their own values.
+     *
+     * @return Columns of where clauses.
+     */
+    private List<SqlColumn> appendWhere(StringBuilder sql, ViewtonQuery query, SqlTable table) {
+        List<? extends RawWhereClause> clauses = query.getRawWhereClauses();
+        List<SqlColumn> columns = clauses.stream()
+                .map(clause -> table.getColumn(clause.getFieldName()))
+                .toList();
+        if (columns.isEmpty()) {
+            return columns;
+        }
+
+        SqlParameters parameters = new SqlParameters();
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < clauses.size(); i++) {
+            RawWhereClause clause = clauses.get(i);
+            conditions.add(clause.getOperator().toSql(clause, columns.get(i), parameters));
+        }
+        sql.append(" where ").append(String.join(" and ", conditions));
+
+        return columns;
+    }
+
+    private void appendOrderBy(StringBuilder sql, List<String> orders, SqlTable table) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        sql.append(" order by ").append(orders.stream()
+                .map(order -> order.startsWith("-")
+                        ? table.getColumn(order.substring(1)).getName() + " desc"
+                        : table.getColumn(order).getName() + " asc")
+                .collect(joining(", ")));
+    }
+
+    /**
+     * Executes the plan on the connection of the session, binding pagination by the dialect
+     * and values of where clauses of the query by their operators.
+     */
+    private List<Object[]> execute(
+            SharedSessionContractImplementor session,
+            SqlPlan plan,
+            ViewtonQuery query,
+            Limit limit
+    ) {
+        SqlParameters parameters = new SqlParameters();
+        List<? extends RawWhereClause> clauses = query.getRawWhereClauses();
+        for (int i = 0; i < clauses.size(); i++) {
+            RawWhereClause clause = clauses.get(i);
+            clause.getOperator().bindSql(clause, plan.getWhereColumns().get(i), parameters);
+        }
+
+        LimitHandler limitHandler = dialect.getLimitHandler();
+        List<SqlPlan.ColumnReader> readers = plan.getReaders();
+        jdbcServices.getSqlStatementLogger().logStatement(plan.getSql());
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(plan.getSql())) {
+                int index = 1;
+                if (!limit.isEmpty()) {
+                    index += limitHandler.bindLimitParametersAtStartOfQuery(limit, statement, index);
+                }
+                index += parameters.bindTo(statement, index, session);
+                if (!limit.isEmpty()) {
+                    limitHandler.bindLimitParametersAtEndOfQuery(limit, statement, index);
+                    limitHandler.setMaxRows(limit, statement);
+                }
+
+                List<Object[]> rows = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Object[] row = new Object[readers.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = readers.get(i).read(resultSet, i + 1, session);
+                        }
+                        rows.add(row);
+                    }
+                }
+                return rows;
+            } catch (SQLException e) {
+                throw jdbcServices.getSqlExceptionHelper().convert(e, "Unable to perform native query", plan.getSql());
+            }
+        });
+    }
+
+    private Limit limit(int offset, int maxResults) {
+        return new Limit(offset > 0 ? offset : null, maxResults < Integer.MAX_VALUE ? maxResults : null);
+    }
+
+    /**
+     * Returns the shape of the pagination: which of offset and limit are present if the dialect binds them
+     * as parameters, otherwise their values, since they are rendered to SQL.
+     */
+    private Object limitShape(Limit limit) {
+        if (dialect.getLimitHandler() instanceof AbstractLimitHandler limitHandler && limitHandler.supportsVariableLimit()) {
+            return List.of(limit.getFirstRow() != null, limit.getMaxRows() != null);
+        }
+
+        return Arrays.asList(limit.getFirstRow(), limit.getMaxRows());
+    }
+
+    private String limitSql(String sql, Limit limit) {
+        return limit.isEmpty() ? sql : dialect.getLimitHandler().processSql(sql, limit);
+    }
+
+    private Optional<SqlTable> findTable(Class<?> entityType) {
+        return tables.computeIfAbsent(entityType,
+                type -> SqlTable.of(sessionFactory.getMappingMetamodel().getEntityDescriptor(type)));
+    }
+
+    private SqlTable getTable(Class<?> entityType) {
+        return findTable(entityType).orElseThrow(() -> new IllegalArgumentException(
+                "Entity is not supported by the native engine: " + entityType));
+    }
+
+    private static Stream<String> aggregateAttributes(AggregateAttributes aggregateAttributes) {
+        if (aggregateAttributes == null) {
+            return Stream.empty();
+        }
+
+        return Stream.concat(
+                aggregateAttributes.getAttributes().stream(),
+                aggregateAttributes.getGroupByAttributes() == null
+                        ? Stream.empty()
+                        : aggregateAttributes.getGroupByAttributes().stream());
+    }
+
+    private static SqlPlan.ColumnReader columnReader(SqlColumn column) {
+        return (resultSet, index, options) -> column.getJdbcMapping().convertToDomainValue(
+                column.getJdbcMapping().getJdbcValueExtractor().extract(resultSet, index, options));
+    }
+
+    /**
+     * Reads a sum of the type Hibernate selects for the attribute type.
+     */
+    private static SqlPlan.ColumnReader sumReader(Class<?> javaType) {
+        return (resultSet, index, options) -> {
+            Number sum = (Number) resultSet.getObject(index);
+            if (sum == null) {
+                return null;
+            }
+            if (BigDecimal.class.equals(javaType)) {
+                return sum instanceof BigDecimal decimal ? decimal : new BigDecimal(sum.toString());
+            }
+            if (BigInteger.class.equals(javaType)) {
+                return sum instanceof BigInteger integer ? integer : new BigDecimal(sum.toString()).toBigInteger();
+            }
+            if (Double.class.equals(javaType) || Float.class.equals(javaType)
+                    || double.class.equals(javaType) || float.class.equals(javaType)) {
+                return sum.doubleValue();
+            }
+
+            return sum.longValue();
+        };
+    }
+
+    private static Object readLong(ResultSet resultSet, int index, WrapperOptions options) throws SQLException {
+        long value = resultSet.getLong(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    private static Object readDouble(ResultSet resultSet, int index, WrapperOptions options) throws SQLException {
+        double value = resultSet.getDouble(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+}
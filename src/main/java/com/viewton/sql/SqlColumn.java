@@ -0,0 +1,32 @@
+package com.viewton.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+
+/**
+ * Column of an entity attribute, resolved from the Hibernate metamodel for the native engine.
+ * Values of the column are bound and read by its {@link JdbcMapping}, so they are converted
+ * (enums, attribute converters, dates) the same way as in Hibernate queries.
+ */
+@Getter
+@AllArgsConstructor
+public class SqlColumn {
+
+    /**
+     * Name of the entity attribute.
+     */
+    private final String attribute;
+
+    /**
+     * Name of the column, as it is rendered in SQL.
+     */
+    private final String name;
+
+    /**
+     * Java type of the entity attribute.
+     */
+    private final Class<?> javaType;
+
+    private final JdbcMapping jdbcMapping;
+}
@@ -0,0 +1,58 @@
+package com.viewton.sql;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of a SQL query of the native engine, in the order of their placeholders.
+ * Every value is bound by the {@code JdbcMapping} of the column it is compared with.
+ */
+public class SqlParameters {
+
+    private final List<SqlColumn> columns = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    /**
+     * Adds the parameter.
+     *
+     * @param column The column the value is compared with.
+     * @param value  The value of the entity attribute.
+     * @return The placeholder of the parameter.
+     */
+    public String bind(SqlColumn column, Object value) {
+        columns.add(column);
+        values.add(value);
+
+        return "?";
+    }
+
+    /**
+     * @return Values of parameters in the order of placeholders.
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Binds parameters to the statement.
+     *
+     * @param statement The statement of the query.
+     * @param index     The index of the first parameter.
+     * @param options   The options of the session.
+     * @return The number of bound parameters.
+     */
+    @SuppressWarnings("unchecked")
+    int bindTo(PreparedStatement statement, int index, WrapperOptions options) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            SqlColumn column = columns.get(i);
+            Object value = column.getJdbcMapping().convertToRelationalValue(values.get(i));
+            column.getJdbcMapping().getJdbcValueBinder().bind(statement, value, index + i, options);
+        }
+
+        return values.size();
+    }
+}
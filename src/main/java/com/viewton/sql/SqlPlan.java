@@ -0,0 +1,38 @@
+package com.viewton.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.type.descriptor.WrapperOptions;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Compiled native query: the SQL with placeholders and the columns needed to bind and read values.
+ * Plans are immutable and shared by all the requests of the same {@link SqlShape}.
+ */
+@Getter
+@AllArgsConstructor
+final class SqlPlan {
+
+    /**
+     * SQL of the query, with the pagination rendered by the dialect.
+     */
+    private final String sql;
+
+    /**
+     * Columns of where clauses in the order of the clauses.
+     */
+    private final List<SqlColumn> whereColumns;
+
+    /**
+     * Readers of selected values in the order of selections.
+     */
+    private final List<ColumnReader> readers;
+
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet resultSet, int index, WrapperOptions options) throws SQLException;
+    }
+}
@@ -0,0 +1,64 @@
+package com.viewton.sql;
+
+import com.viewton.cache.ViewtonCache;
+import com.viewton.cache.ViewtonCacheStats;
+import com.viewton.config.ViewtonProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache of compiled native queries keyed by the shape of the query: entity, selected attributes,
+ * fields and operators of where clauses, sorting, aggregates and flags (see {@link SqlShape}).
+ * A request of a cached shape skips rendering of SQL and only binds the values of its where clauses.
+ * <p>
+ * The size of the cache is configured by {@code viewton.plan-cache.max-size} ({@code 0} disables the cache),
+ * and entries which are not used for {@code viewton.plan-cache.expire-after-access-seconds}
+ * are evicted ({@code 0} keeps them until they are evicted by size).
+ * </p>
+ */
+@Component
+public class SqlPlanCache {
+
+    private final ViewtonCache<SqlShape, SqlPlan> plans;
+
+    /**
+     * Constructs a new `SqlPlanCache` configured by {@code viewton.plan-cache} properties.
+     *
+     * @param properties The tuning properties, see {@link ViewtonProperties}.
+     */
+    @Autowired
+    public SqlPlanCache(ViewtonProperties properties) {
+        this(properties.getPlanCache().getMaxSize(), properties.getPlanCache().getExpireAfterAccessSeconds());
+    }
+
+    /**
+     * Constructs a new `SqlPlanCache`.
+     *
+     * @param maxSize                  The maximum number of cached plans, {@code 0} disables the cache.
+     * @param expireAfterAccessSeconds Seconds after the last use when a plan is evicted, {@code 0} to not expire plans.
+     */
+    public SqlPlanCache(int maxSize, long expireAfterAccessSeconds) {
+        this.plans = new ViewtonCache<>(maxSize, Duration.ofSeconds(expireAfterAccessSeconds));
+    }
+
+    SqlPlan get(SqlShape shape, Function<SqlShape, SqlPlan> compiler) {
+        return plans.get(shape, compiler);
+    }
+
+    /**
+     * @return Hits, misses and evictions of plans.
+     */
+    public ViewtonCacheStats getStats() {
+        return plans.getStats();
+    }
+
+    /**
+     * Removes all the cached plans.
+     */
+    public void clear() {
+        plans.invalidateAll();
+    }
+}
@@ -0,0 +1,96 @@
+package com.viewton.sql;
+
+import com.viewton.RawWhereClause;
+import com.viewton.dto.RawValue;
+import com.viewton.dto.ViewtonQuery;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Shape of a native query: everything the rendered SQL depends on, except the values of where clauses.
+ * Queries of the same shape share the plan, see {@link SqlPlanCache}.
+ */
+@Data
+final class SqlShape {
+
+    enum Kind {
+        LIST, COUNT, AGGREGATE
+    }
+
+    private final Kind kind;
+    private final Class<?> entityType;
+    private final List<String> attributes;
+    private final List<ClauseShape> where;
+    private final List<String> orders;
+    private final boolean distinct;
+    private final boolean windowCount;
+    private final List<String> groupBy;
+    private final List<String> sumAttributes;
+    private final List<String> avgAttributes;
+    private final boolean withCount;
+
+    /**
+     * Shape of the pagination, see {@link NativeSqlEngine}.
+     */
+    private final Object limit;
+
+    static SqlShape list(
+            Class<?> entityType,
+            ViewtonQuery query,
+            List<String> attributes,
+            boolean windowCount,
+            Object limit
+    ) {
+        List<String> orders = query.getRawOrderByes().stream()
+                .map(order -> (order.isAscending() ? "" : "-") + order.getFieldName())
+                .toList();
+
+        return new SqlShape(Kind.LIST, entityType, List.copyOf(attributes), where(query), orders, query.isDistinct(),
+                windowCount, List.of(), List.of(), List.of(), false, limit);
+    }
+
+    static SqlShape count(Class<?> entityType, ViewtonQuery query) {
+        return new SqlShape(Kind.COUNT, entityType, List.of(), where(query), List.of(), query.isDistinct(),
+                false, List.of(), List.of(), List.of(), false, null);
+    }
+
+    static SqlShape aggregate(
+            Class<?> entityType,
+            ViewtonQuery query,
+            List<String> groupBy,
+            List<String> sumAttributes,
+            List<String> avgAttributes,
+            boolean withCount,
+            Object limit
+    ) {
+        return new SqlShape(Kind.AGGREGATE, entityType, List.of(), where(query), List.of(), false, false,
+                List.copyOf(groupBy), List.copyOf(sumAttributes), List.copyOf(avgAttributes), withCount, limit);
+    }
+
+    private static List<ClauseShape> where(ViewtonQuery query) {
+        return query.getRawWhereClauses().stream()
+                .map(ClauseShape::of)
+                .toList();
+    }
+
+    /**
+     * Shape of a where clause: the field, the operator and the flags of values which change the condition.
+     */
+    @Data
+    static final class ClauseShape {
+        private final String fieldName;
+        private final Class<?> operator;
+        private final List<Boolean> ignoreCase;
+        private final List<Boolean> nulls;
+
+        static ClauseShape of(RawWhereClause clause) {
+            return new ClauseShape(
+                    clause.getFieldName(),
+                    clause.getOperator().getClass(),
+                    clause.getValues().stream().map(RawValue::isIgnoreCase).toList(),
+                    clause.getValues().stream().map(value -> "null".equals(value.getValue())).toList()
+            );
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.viewton.sql;
+
+import org.hibernate.metamodel.mapping.BasicEntityIdentifierMapping;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Table of an entity with the columns of its attributes, resolved once from the Hibernate metamodel.
+ * <p>
+ * Only the entities mapped to a single table are resolved: entities of inheritance hierarchies, with secondary tables
+ * or with where restrictions ({@code @SQLRestriction}) need the SQL which only Hibernate knows how to build.
+ * Only the attributes mapped to a single column are resolved, so associations, embeddables and formulas
+ * are not resolved and queries on them are performed by the Criteria API.
+ * </p>
+ */
+final class SqlTable {
+
+    private final String name;
+    private final SqlColumn id;
+    private final Map<String, SqlColumn> columns;
+
+    private SqlTable(String name, SqlColumn id, Map<String, SqlColumn> columns) {
+        this.name = name;
+        this.id = id;
+        this.columns = columns;
+    }
+
+    /**
+     * Resolves the table of the entity.
+     *
+     * @param persister The persister of the entity.
+     * @return The table, or empty if the entity could not be queried by the native engine.
+     */
+    static Optional<SqlTable> of(EntityPersister persister) {
+        if (!(persister instanceof AbstractEntityPersister entityPersister)
+                || entityPersister.getTableSpan() != 1
+                || entityPersister.isInherited()
+                || entityPersister.hasSubclasses()
+                || entityPersister.hasWhereRestrictions()
+                || !(entityPersister.getIdentifierMapping() instanceof BasicEntityIdentifierMapping idMapping)) {
+            return Optional.empty();
+        }
+
+        String tableName = entityPersister.getTableName();
+        Map<String, SqlColumn> columns = new HashMap<>();
+        SqlColumn id = toColumn(idMapping.getAttributeName(), idMapping, tableName);
+        if (id == null) {
+            return Optional.empty();
+        }
+        columns.put(id.getAttribute(), id);
+
+        entityPersister.getAttributeMappings().forEach(attributeMapping -> {
+            if (attributeMapping instanceof BasicValuedModelPart basic) {
+                SqlColumn column = toColumn(attributeMapping.getAttributeName(), basic, tableName);
+                if (column != null) {
+                    columns.put(column.getAttribute(), column);
+                }
+            }
+        });
+
+        return Optional.of(new SqlTable(tableName, id, Map.copyOf(columns)));
+    }
+
+    private static SqlColumn toColumn(String attribute, BasicValuedModelPart part, String tableName) {
+        if (part.isFormula() || !tableName.equals(part.getContainingTableExpression())) {
+            return null;
+        }
+
+        return new SqlColumn(
+                attribute,
+                part.getSelectionExpression(),
+                part.getJavaType().getJavaTypeClass(),
+                part.getJdbcMapping()
+        );
+    }
+
+    String getName() {
+        return name;
+    }
+
+    SqlColumn getId() {
+        return id;
+    }
+
+    /**
+     * @param attribute The name of the entity attribute.
+     * @return The column of the attribute, or empty if the attribute is not mapped to a single column.
+     */
+    Optional<SqlColumn> findColumn(String attribute) {
+        return Optional.ofNullable(columns.get(attribute));
+    }
+
+    /**
+     * @param attribute The name of the entity attribute.
+     * @return The column of the attribute.
+     * @throws IllegalArgumentException If the attribute is not mapped to a single column.
+     */
+    SqlColumn getColumn(String attribute) {
+        return findColumn(attribute).orElseThrow(() -> new IllegalArgumentException(
+                "Attribute '" + attribute + "' is not mapped to a column of " + name));
+    }
+}
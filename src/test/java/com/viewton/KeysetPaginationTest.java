@@ -0,0 +1,30 @@
+package com.viewton;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetPaginationTest {
+
+    @Test
+    @DisplayName("Cursor keeps values, separators and nulls")
+    void cursor_roundTrip() {
+        String cursor = KeysetPagination.encode(
+                Arrays.asList("a.b~c", null, LocalDate.of(2025, 1, 31), new BigDecimal("1.50"), 42L));
+
+        assertEquals(Arrays.asList("a.b~c", null, "2025-01-31", "1.50", "42"), KeysetPagination.decode(cursor));
+    }
+
+    @Test
+    @DisplayName("Malformed cursor is rejected")
+    void cursor_malformed() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decode(""));
+    }
+}
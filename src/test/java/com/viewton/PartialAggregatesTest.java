@@ -0,0 +1,58 @@
+package com.viewton;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PartialAggregatesTest {
+
+    @Test
+    @DisplayName("Sums and counts are added per group, and averages are total sums divided by total counts")
+    void getRows_mergesGroups() {
+        PartialAggregates aggregates = new PartialAggregates(1, 2, 1, true);
+        aggregates.add(new Object[]{"USD", 10L, new BigDecimal("1.5"), 30L, 1L, 2L});
+        aggregates.add(new Object[]{"EUR", 5L, null, 5L, 1L, 1L});
+        aggregates.add(new Object[]{"USD", 20L, new BigDecimal("2.5"), 60L, 3L, 4L});
+
+        List<Object[]> rows = aggregates.getRows();
+
+        assertEquals(2, rows.size());
+        assertArrayEquals(new Object[]{"EUR", 5L, null, 5.0, 1L}, rows.get(0));
+        assertArrayEquals(new Object[]{"USD", 30L, new BigDecimal("4.0"), 22.5, 6L}, rows.get(1));
+    }
+
+    @Test
+    @DisplayName("Groups are sorted by their values with nulls first, whatever order slices were merged in")
+    void getRows_sortedByGroups() {
+        PartialAggregates aggregates = new PartialAggregates(2, 1, 0, false);
+        aggregates.add(new Object[]{"USD", 2, 1L});
+        aggregates.add(new Object[]{"EUR", null, 2L});
+        aggregates.add(new Object[]{null, 5, 3L});
+        aggregates.add(new Object[]{"USD", 1, 4L});
+
+        List<Object[]> rows = aggregates.getRows();
+
+        assertArrayEquals(new Object[]{null, 5, 3L}, rows.get(0));
+        assertArrayEquals(new Object[]{"EUR", null, 2L}, rows.get(1));
+        assertArrayEquals(new Object[]{"USD", 1, 4L}, rows.get(2));
+        assertArrayEquals(new Object[]{"USD", 2, 1L}, rows.get(3));
+    }
+
+    @Test
+    @DisplayName("Aggregates without group by have a single row even if no slice has matching rows")
+    void getRows_withoutGroupBy() {
+        PartialAggregates empty = new PartialAggregates(0, 1, 1, true);
+        assertArrayEquals(new Object[]{null, null, 0L}, empty.getRows().get(0));
+
+        PartialAggregates aggregates = new PartialAggregates(0, 1, 1, false);
+        aggregates.add(new Object[]{null, null, 0L});
+        aggregates.add(new Object[]{7, 7, 1L});
+        assertEquals(1, aggregates.getRows().size());
+        assertArrayEquals(new Object[]{7, 7.0}, aggregates.getRows().get(0));
+    }
+}
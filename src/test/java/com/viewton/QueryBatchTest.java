@@ -0,0 +1,60 @@
+package com.viewton;
+
+import com.viewton.dto.ViewtonQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class QueryBatchTest {
+
+    @Test
+    @DisplayName("Queries differing only in a value of an exact equality are merged")
+    void merge_groupsQueries() {
+        List<ViewtonQuery> queries = List.of(
+                ViewtonQueryMapper.of(Map.of("status", "NEW", "sorting", "id"), 10),
+                ViewtonQueryMapper.of(Map.of("userName", "user1"), 10),
+                ViewtonQueryMapper.of(Map.of("status", "PAID", "sorting", "id"), 10),
+                ViewtonQueryMapper.of(Map.of("userName", "user2"), 10),
+                ViewtonQueryMapper.of(Map.of("status", "NEW", "sorting", "id", "count", "true"), 10),
+                ViewtonQueryMapper.of(Map.of("status", "PAID", "sorting", "-id"), 10),
+                ViewtonQueryMapper.of(Map.of("status", "NEW", "sorting", "id"), 10));
+
+        List<QueryBatch.Merge> merges = QueryBatch.merge(queries, attribute -> !attribute.equals("userName"));
+
+        assertEquals(1, merges.size());
+        assertEquals(List.of(0, 2, 6), merges.get(0).getIndexes());
+        assertEquals("status", merges.get(0).getAttribute());
+        ViewtonQuery merged = merges.get(0).getQuery();
+        assertEquals(20, merged.getPageSize());
+        assertEquals(List.of("NEW", "PAID"), merged.getRawWhereClauses().get(0).getValues().stream()
+                .map(value -> value.getValue()).toList());
+    }
+
+    @Test
+    @DisplayName("Rows are split by values, and pages possibly cut off by the limit are left out")
+    void split_byValues() {
+        QueryBatch.Merge merge = QueryBatch.merge(List.of(
+                ViewtonQueryMapper.of(Map.of("amount", "1"), 2),
+                ViewtonQueryMapper.of(Map.of("amount", "2"), 2),
+                ViewtonQueryMapper.of(Map.of("amount", "3"), 2)), attribute -> true).get(0);
+        Object[] first = {1L}, second = {1L}, third = {1L}, other = {2L};
+
+        Map<Integer, List<Object[]>> pages = merge.split(List.of(first, other, second), 0, Long.class);
+        assertEquals(3, pages.size());
+        assertEquals(List.of(first, second), pages.get(0));
+        assertEquals(List.<Object[]>of(other), pages.get(1));
+        assertEquals(List.of(), pages.get(2));
+
+        pages = merge.split(List.of(first, second, third, other, other, other), 0, Long.class);
+        assertEquals(2, pages.size());
+        assertEquals(List.of(first, second), pages.get(0));
+        assertEquals(List.of(other, other), pages.get(1));
+        // the rows of the last value could be cut off
+        assertFalse(pages.containsKey(2));
+    }
+}
@@ -0,0 +1,112 @@
+package com.viewton;
+
+import com.viewton.dto.Order;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerializedResponseTest {
+
+    @Test
+    @DisplayName("Restored response has the values of the serialized one, and only the read rows are mapped")
+    void restore_decodesReadRows() {
+        Object[] first = {1L, "Name", new BigDecimal("10.50"), BigInteger.TEN, Order.DESCENDING,
+                LocalDate.of(2024, 2, 29), LocalDateTime.of(2024, 2, 29, 23, 59, 1, 5), true, null};
+        Object[] second = {2L, "Другое", null, null, null, null, null, false, 1.5d};
+        ViewtonResponseDto<Object[]> response = new ViewtonResponseDto<>(
+                List.of(first, second), null, List.<Object[]>of(new Object[]{3.25d}), 2L);
+        response.setHasNext(true);
+
+        List<Object[]> mapped = new ArrayList<>();
+        ViewtonResponseDto<Object[]> restored = SerializedResponse.restore(SerializedResponse.of(response).getData())
+                .toResponse(row -> {
+                    mapped.add(row);
+                    return row;
+                }, row -> row, row -> row);
+
+        assertArrayEquals(second, restored.getList().get(1));
+        assertEquals(1, mapped.size());
+        assertSame(restored.getList().get(1), restored.getList().get(1));
+        assertArrayEquals(first, restored.getList().get(0));
+        assertEquals(2, mapped.size());
+        assertNull(restored.getSum());
+        assertArrayEquals(new Object[]{3.25d}, restored.getAvg().get(0));
+        assertEquals(2L, restored.getCount());
+        assertEquals(true, restored.getHasNext());
+        assertNull(restored.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Response with values of unsupported types is not serialized")
+    void of_unsupportedValues() {
+        Object[] row = {new StringBuilder("value")};
+        SerializedResponse serialized = SerializedResponse.of(
+                new ViewtonResponseDto<>(List.<Object[]>of(row), null, null, 0L));
+
+        assertNull(serialized.getData());
+        assertSame(row, serialized.toResponse(values -> values, null, null).getList().get(0));
+    }
+
+    @Test
+    @DisplayName("Key does not depend on the order of conditions, but depends on their values")
+    void key_canonical() {
+        ViewtonQuery query = ViewtonQueryMapper.of(Map.of("status", "NEW", "amount", ">10"), 10);
+        ViewtonQuery reordered = ViewtonQuery.builder()
+                .rawWhereClauses(reversed(query.getRawWhereClauses()))
+                .rawOrderByes(query.getRawOrderByes())
+                .pageSize(query.getPageSize())
+                .page(1)
+                .build();
+        ViewtonQuery other = ViewtonQueryMapper.of(Map.of("status", "NEW", "amount", ">11"), 10);
+
+        assertEquals(SerializedResponse.key(query, Object.class, "m"),
+                SerializedResponse.key(reordered, Object.class, "m"));
+        assertNotEquals(SerializedResponse.key(query, Object.class, "m"),
+                SerializedResponse.key(other, Object.class, "m"));
+        assertNotEquals(SerializedResponse.key(query, Object.class, "m"),
+                SerializedResponse.key(query, Number.class, "m"));
+        assertNotEquals(SerializedResponse.key(query, Object.class, "m"),
+                SerializedResponse.key(query, Object.class, "n"));
+    }
+
+    @Test
+    @DisplayName("Response is not readable if its enum constant or enum type is removed")
+    void isReadable_removedEnums() {
+        byte[] data = SerializedResponse.of(new ViewtonResponseDto<>(
+                List.<Object[]>of(new Object[]{1L, Order.DESCENDING}), null, null, 1L)).getData();
+
+        assertTrue(SerializedResponse.isReadable(data));
+        assertFalse(SerializedResponse.isReadable(replace(data, "DESCENDING", "DESCENDINX")));
+        assertFalse(SerializedResponse.isReadable(replace(data, "dto.Order", "dto.Ordex")));
+    }
+
+    private static byte[] replace(byte[] data, String target, String replacement) {
+        String string = new String(data, StandardCharsets.ISO_8859_1);
+        return string.replace(target, replacement).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static <T> List<T> reversed(List<T> list) {
+        List<T> reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+}
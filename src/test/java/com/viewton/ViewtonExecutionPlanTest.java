@@ -0,0 +1,155 @@
+package com.viewton;
+
+import com.viewton.dto.SumAttributes;
+import com.viewton.dto.ViewtonQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.viewton.ViewtonExecutionPlan.Step.AGGREGATES;
+import static com.viewton.ViewtonExecutionPlan.Step.COUNT;
+import static com.viewton.ViewtonExecutionPlan.Step.LIST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ViewtonExecutionPlanTest {
+
+    @Test
+    @DisplayName("First page: list goes first and gives the count")
+    void firstPage_listGivesCount() {
+        ViewtonQuery query = query(1, 10).count(true).build();
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(query, false, false, false, false);
+
+        assertEquals(List.of(LIST, COUNT), plan.getSteps());
+
+        plan.onList(listResult(7, null));
+
+        assertTrue(plan.isCountKnown());
+        assertEquals(7, plan.getResponseCount());
+    }
+
+    @Test
+    @DisplayName("Full first page does not give the count")
+    void fullFirstPage_countUnknown() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(
+                query(1, 10).count(true).build(), false, false, false, false);
+
+        plan.onList(listResult(10, null));
+
+        assertFalse(plan.isCountKnown());
+    }
+
+    @Test
+    @DisplayName("Distinct list does not give the count")
+    void distinctList_countUnknown() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(
+                query(1, 10).count(true).distinct(true).build(), false, false, false, false);
+
+        plan.onList(listResult(3, null));
+
+        assertFalse(plan.isCountKnown());
+    }
+
+    @Test
+    @DisplayName("Subsequent page: count goes first and skips the list past the total")
+    void subsequentPage_countSkipsList() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(
+                query(5, 10).count(true).build(), false, false, false, false);
+
+        assertEquals(List.of(COUNT, LIST), plan.getSteps());
+
+        plan.onCount(40L);
+
+        assertTrue(plan.isListSkipped());
+        assertFalse(plan.isAggregatesSkipped());
+    }
+
+    @Test
+    @DisplayName("Fused count goes first along with aggregates")
+    void subsequentPage_fusedCountFirst() {
+        ViewtonQuery query = query(2, 10).count(true).sum(new SumAttributes(List.of("amount"), null)).build();
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(query, false, true, true, false);
+
+        assertEquals(List.of(AGGREGATES, LIST, COUNT), plan.getSteps());
+    }
+
+    @Test
+    @DisplayName("Empty selection skips aggregates")
+    void emptyList_skipsAggregates() {
+        ViewtonQuery query = query(1, 10).sum(new SumAttributes(List.of("amount"), null)).build();
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(query, false, false, false, false);
+
+        assertEquals(List.of(LIST, AGGREGATES), plan.getSteps());
+
+        plan.onList(listResult(0, null));
+
+        assertTrue(plan.isAggregatesSkipped());
+        assertEquals(0, plan.getResponseCount());
+    }
+
+    @Test
+    @DisplayName("No list: only count and aggregates are planned")
+    void noList_listNotPlanned() {
+        ViewtonQuery query = query(1, 10).count(true).noList(true)
+                .sum(new SumAttributes(List.of("amount"), null)).build();
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(query, false, true, true, false);
+
+        assertEquals(List.of(AGGREGATES, COUNT), plan.getSteps());
+        assertTrue(plan.isListSkipped());
+    }
+
+    @Test
+    @DisplayName("Has next: last page gives the count")
+    void hasNext_lastPageGivesCount() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(
+                query(2, 10).count(true).hasNext(true).build(), false, false, false, false);
+
+        plan.onCount(null);
+        assertTrue(plan.isNextPageChecked());
+
+        ListResult<Object> listResult = listResult(10, false);
+        plan.onList(listResult);
+
+        assertTrue(plan.isCountKnown());
+        assertEquals(20, plan.getResponseCount());
+        assertFalse(plan.hasNext(listResult));
+    }
+
+    @Test
+    @DisplayName("Has next: known count answers without extra entity")
+    void hasNext_knownCount() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(
+                query(2, 10).count(true).hasNext(true).build(), false, false, false, false);
+
+        plan.onCount(25L);
+
+        assertFalse(plan.isNextPageChecked());
+        assertTrue(plan.hasNext(listResult(10, null)));
+    }
+
+    @Test
+    @DisplayName("Has next is absent if not requested")
+    void hasNext_notRequested() {
+        ViewtonExecutionPlan plan = ViewtonExecutionPlan.plan(query(1, 10).build(), false, false, false, false);
+
+        assertFalse(plan.isNextPageChecked());
+        assertNull(plan.hasNext(listResult(10, null)));
+    }
+
+    private static ListResult<Object> listResult(int size, Boolean hasNext) {
+        return new ListResult<>(new ArrayList<>(Collections.nCopies(size, new Object())), null, hasNext, null);
+    }
+
+    private static ViewtonQuery.ViewtonQueryBuilder query(int page, int pageSize) {
+        return ViewtonQuery.builder()
+                .rawWhereClauses(List.of())
+                .rawOrderByes(List.of())
+                .page(page)
+                .pageSize(pageSize);
+    }
+}
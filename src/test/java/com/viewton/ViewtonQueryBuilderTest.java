@@ -88,6 +88,7 @@ public class ViewtonQueryBuilderTest {
 
         Map<String, String> params = builder.count()
                 .distinct()
+                .hasNext()
                 .page(page)
                 .pageSize(pageSize)
                 .attributes(builder.id(), builder.name(), builder.test5())
@@ -95,6 +96,7 @@ public class ViewtonQueryBuilderTest {
                 .build();
 
         assertEquals("true", params.get("distinct"));
+        assertEquals("true", params.get("has_next"));
         assertEquals(String.valueOf(page), params.get("page"));
         assertEquals(String.valueOf(pageSize), params.get("page_size"));
         assertEquals("id,name,test5", params.get("attributes"));
@@ -0,0 +1,66 @@
+package com.viewton;
+
+import com.viewton.dto.ComparableValue;
+import com.viewton.dto.ViewtonQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ViewtonQueryCacheTest {
+
+    @Test
+    @DisplayName("Identical parameters in any order share the parsed query")
+    void get_sharesParsedQuery() {
+        ViewtonQueryCache cache = new ViewtonQueryCache(10, 0);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("name", "^SomeName");
+        params.put("page_size", "10");
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("page_size", "10");
+        reordered.put("name", "^SomeName");
+
+        ViewtonQuery query = cache.get(params, 50);
+
+        assertSame(query, cache.get(reordered, 50));
+        assertNotSame(query, cache.get(params, 20));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(2, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Mutating parameters after the request does not change the cached query")
+    void get_keyIsSnapshot() {
+        ViewtonQueryCache cache = new ViewtonQueryCache(10, 0);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("page", "2");
+
+        ViewtonQuery query = cache.get(params, 10);
+        params.put("page", "3");
+
+        assertEquals(10, query.getPage());
+        assertEquals(20, cache.get(params, 10).getPage());
+    }
+
+    @Test
+    @DisplayName("Parsed clause is immutable and converts its values once per type")
+    void rawWhereClause_memoizesConversion() {
+        RawWhereClause clause = new RawWhereClause("createdAt", "2025-01-01..2025-02-01");
+
+        List<ComparableValue> values = clause.toComparableValues(LocalDate.class);
+
+        assertSame(values, clause.toComparableValues(LocalDate.class));
+        assertEquals(LocalDate.of(2025, 1, 1), values.get(0).getValue());
+        assertNull(clause.getValues().get(0).getJavaType());
+        assertThrows(UnsupportedOperationException.class, () -> clause.getValues().remove(0));
+    }
+}
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -101,4 +102,25 @@ public class ViewtonQueryMapperTest {
         assertTrue(viewtonQuery.getSum().getAttributes().contains("randomNumber"));
         assertTrue(viewtonQuery.getSum().getAttributes().contains("number"));
     }
+
+    @Test
+    @DisplayName("Keyset cursor is not a where clause")
+    void parseRequestParams_keyset() {
+        Map<String, String> requestParams = Map.of("name", "SomeName", "after", "MQ", "page", "3", "page_size", "10");
+
+        ViewtonQuery viewtonQuery = ViewtonQueryMapper.of(requestParams, 100);
+
+        assertTrue(viewtonQuery.isKeyset());
+        assertEquals("MQ", viewtonQuery.getAfter());
+        assertEquals(0, viewtonQuery.getListOffset());
+        assertEquals(1, viewtonQuery.getRawWhereClauses().size());
+        assertFalse(ViewtonQueryMapper.of(Map.of("name", "SomeName"), 100).isKeyset());
+    }
+
+    @Test
+    @DisplayName("Page size -1 disables pagination")
+    void parseRequestParams_unlimitedPageSize() {
+        assertEquals(Integer.MAX_VALUE, ViewtonQueryMapper.of(Map.of("page_size", "-1"), 100).getPageSize());
+        assertEquals(Integer.MAX_VALUE, ViewtonQueryMapper.of(Map.of(), -1).getPageSize());
+    }
 }
@@ -0,0 +1,123 @@
+package com.viewton;
+
+import com.viewton.cache.ViewtonOffHeapCache;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ViewtonResultCacheTest {
+
+    private final EventListenerRegistry registry = mock(EventListenerRegistry.class);
+    private final ViewtonResultCache cache = new ViewtonResultCache(10, 100, 1_000_000, Duration.ZERO, registry);
+    private final ViewtonQuery query = ViewtonQueryMapper.of(Map.of("status", "NEW"), 10);
+
+    @Test
+    @DisplayName("Responses are cached until an entity of the queried type is changed")
+    void get_invalidatedByChanges() {
+        ViewtonResponseDto<Object[]> first = response(1);
+        assertSame(first, cache.get(query, Number.class, 1, () -> first));
+        assertSame(first, cache.get(query, Number.class, 1, () -> response(2)));
+
+        update(String.class);
+        assertSame(first, cache.get(query, Number.class, 1, () -> response(3)));
+
+        update(Long.class);
+        assertEquals(4, cache.get(query, Number.class, 1, () -> response(4)).getList().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("A response loaded while its entity type was changed is not cached")
+    void get_notCachedIfChangedWhileLoading() {
+        cache.get(query, Number.class, 1, () -> {
+            update(Number.class);
+            return response(1);
+        });
+
+        assertEquals(2, cache.get(query, Number.class, 1, () -> response(2)).getList().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("Responses exceeding the row bound are evicted")
+    void get_boundedByRows() {
+        ViewtonQuery other = ViewtonQueryMapper.of(Map.of("status", "PAID"), 10);
+        cache.get(query, Number.class, 1, () -> response(new Integer[60]));
+        cache.get(other, Number.class, 1, () -> response(new Integer[60]));
+
+        assertEquals(1, cache.getStats().getSize());
+        assertEquals(1, cache.get(query, Number.class, 1, () -> response(1)).getList().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("Caches of the same session factory share a single listener, which invalidates all of them")
+    void listenersRegisteredOncePerRegistry() {
+        ViewtonResultCache second = new ViewtonResultCache(10, 100, 1_000_000, Duration.ZERO, registry);
+        cache.get(query, Number.class, 1, () -> response(1));
+        second.get(query, Number.class, 1, () -> response(1));
+
+        update(Number.class);
+        assertEquals(2, cache.get(query, Number.class, 1, () -> response(2)).getList().get(0)[0]);
+        assertEquals(2, second.get(query, Number.class, 1, () -> response(2)).getList().get(0)[0]);
+
+        second.close();
+        update(Number.class);
+        assertEquals(3, cache.get(query, Number.class, 1, () -> response(3)).getList().get(0)[0]);
+        assertEquals(2, second.get(query, Number.class, 1, () -> response(3)).getList().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("Responses stored off the heap are invalidated by changes of their entity type")
+    void getSerialized_invalidatedByChanges() {
+        EventListenerRegistry offHeapRegistry = mock(EventListenerRegistry.class);
+        ViewtonResultCache offHeap = new ViewtonResultCache(0, 0, 0, Duration.ZERO,
+                new ViewtonOffHeapCache(4096, null, Duration.ZERO), offHeapRegistry);
+        ViewtonQuery rowsQuery = ViewtonQueryMapper.of(Map.of("status", "NEW", "attributes", "id"), 10);
+
+        assertEquals(1L, offHeap.getSerialized(rowsQuery, Integer.class, "mapping", () -> serialized(1L))
+                .toResponse(row -> row[0], null, null).getList().get(0));
+        assertEquals(1L, offHeap.getSerialized(rowsQuery, Integer.class, "mapping", () -> serialized(2L))
+                .toResponse(row -> row[0], null, null).getList().get(0));
+
+        offHeap.invalidate(Integer.class);
+        assertEquals(3L, offHeap.getSerialized(rowsQuery, Integer.class, "mapping", () -> serialized(3L))
+                .toResponse(row -> row[0], null, null).getList().get(0));
+        assertEquals(1, offHeap.getStats().getHits());
+    }
+
+    private static SerializedResponse serialized(Object value) {
+        return SerializedResponse.of(new ViewtonResponseDto<>(List.<Object[]>of(new Object[]{value}), null, null, 0L));
+    }
+
+    private void update(Class<?> entityType) {
+        ArgumentCaptor<PostCommitUpdateEventListener> listener = ArgumentCaptor.forClass(PostCommitUpdateEventListener.class);
+        verify(registry).appendListeners(eq(EventType.POST_COMMIT_UPDATE), listener.capture());
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getMappedClass()).thenAnswer(invocation -> entityType);
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+
+        listener.getValue().onPostUpdate(event);
+    }
+
+    private static ViewtonResponseDto<Object[]> response(Integer... values) {
+        return new ViewtonResponseDto<>(Arrays.stream(values).map(value -> new Object[]{value}).toList(), null, null, 0L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.viewton;
+
+import com.viewton.dto.RawValue;
+import com.viewton.operator.Operator;
+import com.viewton.sql.SqlColumn;
+import com.viewton.sql.SqlParameters;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class WhereClauseSqlTest {
+
+    private static final SqlColumn AMOUNT = new SqlColumn("amount", "amount", Long.class, null);
+    private static final SqlColumn NAME = new SqlColumn("name", "user_name", String.class, null);
+    private static final SqlColumn DATE = new SqlColumn("date", "created_at", LocalDate.class, null);
+
+    @Test
+    @DisplayName("Comparison is rendered with the value bound as a parameter")
+    void toSql_comparison() {
+        assertSql("amount > ?", List.of(100L), AMOUNT, ">100");
+        assertSql("amount >= ?", List.of(100L), AMOUNT, ">=100");
+        assertSql("amount < ?", List.of(100L), AMOUNT, "<100");
+        assertSql("amount <= ?", List.of(100L), AMOUNT, "<=100");
+        assertSql("amount = ?", List.of(100L), AMOUNT, "100");
+    }
+
+    @Test
+    @DisplayName("Strings are compared by like, case insensitively unless marked by ^")
+    void toSql_like() {
+        assertSql("lower(user_name) like ? escape '!'", List.of("john%"), NAME, "John%");
+        assertSql("user_name like ? escape '!'", List.of("Jo!!hn"), NAME, "^Jo!hn");
+    }
+
+    @Test
+    @DisplayName("Criteria like patterns are escaped the same way as the SQL ones")
+    @SuppressWarnings("unchecked")
+    void toPredicate_likeEscapedAsSql() {
+        Path<String> path = mock(Path.class);
+        doReturn(String.class).when(path).getJavaType();
+        Expression<String> lower = mock(Expression.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        doReturn(lower).when(cb).lower(path);
+
+        RawWhereClause caseInsensitive = new RawWhereClause("name", "Jo!hn\\%");
+        caseInsensitive.getOperator().toPredicate(caseInsensitive, path, cb);
+        RawWhereClause caseSensitive = new RawWhereClause("name", "^Jo!hn");
+        caseSensitive.getOperator().toPredicate(caseSensitive, path, cb);
+
+        verify(cb).like(lower, "jo!!hn\\%", '!');
+        verify(cb).like(path, "Jo!!hn", '!');
+    }
+
+    @Test
+    @DisplayName("Range, or, not equal and null are rendered")
+    void toSql_otherOperators() {
+        assertSql("created_at between ? and ?", List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)),
+                DATE, "2025-01-01..2025-02-01");
+        assertSql("(amount = ? or amount = ?)", List.of(1L, 2L), AMOUNT, "1|2");
+        assertSql("not (amount = ?)", List.of(1L), AMOUNT, "<>1");
+        assertSql("user_name is null", List.of(), NAME, "null");
+    }
+
+    @Test
+    @DisplayName("Operators without SQL counterpart are not supported")
+    void toSql_unsupported() {
+        RawWhereClause clause = new RawWhereClause("amount", new Operator("~") {
+            @Override
+            public Predicate toPredicate(RawWhereClause clause, Path path, CriteriaBuilder cb) {
+                return null;
+            }
+        }, List.of(new RawValue("100", false)));
+
+        assertFalse(clause.getOperator().supportsSql());
+        assertThrows(UnsupportedOperationException.class,
+                () -> clause.getOperator().toSql(clause, AMOUNT, new SqlParameters()));
+    }
+
+    private void assertSql(String expectedSql, List<Object> expectedValues, SqlColumn column, String condition) {
+        RawWhereClause clause = new RawWhereClause(column.getAttribute(), condition);
+        SqlParameters parameters = new SqlParameters();
+
+        assertTrue(clause.getOperator().supportsSql());
+        assertEquals(expectedSql, clause.getOperator().toSql(clause, column, parameters));
+        assertEquals(expectedValues, parameters.getValues());
+
+        SqlParameters boundParameters = new SqlParameters();
+        clause.getOperator().bindSql(clause, column, boundParameters);
+        assertEquals(expectedValues, boundParameters.getValues());
+    }
+}
@@ -0,0 +1,23 @@
+package com.viewton.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+public class BenchmarkPayment {
+    @Id
+    private Long id;
+    private String currencyCode;
+    private String userName;
+    private Long amount;
+    private BigDecimal rate;
+    private String description;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,121 @@
+package com.viewton.benchmark;
+
+import com.viewton.ViewtonEngine;
+import com.viewton.ViewtonQueryCache;
+import com.viewton.ViewtonRepository;
+import com.viewton.ViewtonResultCache;
+import com.viewton.ViewtonSessionMode;
+import com.viewton.concurrent.ViewtonConsistency;
+import com.viewton.concurrent.ViewtonQueryExecutor;
+import com.viewton.concurrent.ViewtonSingleFlight;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.dto.ViewtonResponseDto;
+import com.viewton.mapper.RowMapperFactory;
+import com.viewton.sql.SqlPlanCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares list requests performed in {@link ViewtonSessionMode#SESSION} and {@link ViewtonSessionMode#STATELESS}
+ * modes by {@link ViewtonEngine#CRITERIA} and {@link ViewtonEngine#NATIVE} engines on an in-memory H2 database.
+ * <p>
+ * Run with:
+ * </p>
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main SessionModeBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionModeBenchmark {
+
+    private static final int ENTITIES = 20_000;
+
+    @Param({"SESSION", "STATELESS"})
+    private ViewtonSessionMode sessionMode;
+
+    @Param({"CRITERIA", "NATIVE"})
+    private ViewtonEngine engine;
+
+    @Param({"50", "5000"})
+    private int pageSize;
+
+    private SessionFactory sessionFactory;
+    private ViewtonQueryExecutor queryExecutor;
+    private ViewtonRepository repository;
+    private Map<String, String> request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(BenchmarkPayment.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:viewton-benchmark;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "500")
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            for (long id = 1; id <= ENTITIES; id++) {
+                BenchmarkPayment payment = new BenchmarkPayment();
+                payment.setId(id);
+                payment.setCurrencyCode(id % 3 == 0 ? "EUR" : "USD");
+                payment.setUserName("user" + id % 1000);
+                payment.setAmount(id * 10);
+                payment.setRate(BigDecimal.valueOf(id, 2));
+                payment.setDescription("Payment description " + id);
+                payment.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(id));
+                session.persist(payment);
+            }
+        });
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        queryExecutor = new ViewtonQueryExecutor(
+                new JpaTransactionManager(sessionFactory), false, ViewtonConsistency.RELAXED, 1, null);
+        ViewtonProperties properties = new ViewtonProperties();
+        properties.getRequest().setDefaultPageSize(pageSize);
+        properties.setSessionMode(sessionMode);
+        properties.setEngine(engine);
+        repository = new ViewtonRepository(
+                properties, entityManager, queryExecutor,
+                new SqlPlanCache(1000, 0), new ViewtonQueryCache(1000, 0), new RowMapperFactory(1000),
+                new ViewtonSingleFlight(false, 0), new ViewtonResultCache(0, 0, 0, 0, 0, "", null));
+        request = Map.of("currencyCode", "USD", "sorting", "-createdAt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queryExecutor.destroy();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public ViewtonResponseDto<BenchmarkPayment> list() {
+        return repository.list(request, BenchmarkPayment.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.viewton.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ViewtonCacheTest {
+
+    @Test
+    @DisplayName("Least recently used entry is evicted when the cache is full")
+    void put_evictsLeastRecentlyUsed() {
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(2, Duration.ZERO);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.getIfPresent("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(3, cache.getIfPresent("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("Entry expires when it is not accessed for the expiration duration")
+    void getIfPresent_expires() {
+        AtomicLong now = new AtomicLong();
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(10, Duration.ofNanos(100), now::get);
+        cache.put("a", 1);
+
+        now.set(99);
+        assertEquals(1, cache.getIfPresent("a"));
+        now.set(198);
+        assertEquals(1, cache.getIfPresent("a"));
+        now.set(298);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Hits and misses are counted")
+    void get_countsHitsAndMisses() {
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(10, Duration.ZERO);
+
+        assertEquals(1, cache.get("a", key -> 1));
+        assertEquals(1, cache.get("a", key -> 2));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(0.5, cache.getStats().getHitRate());
+    }
+
+    @Test
+    @DisplayName("Cache of zero size is disabled")
+    void get_disabled() {
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(0, Duration.ZERO);
+
+        assertEquals(1, cache.get("a", key -> 1));
+        assertEquals(2, cache.get("a", key -> 2));
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(2, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted when a bound of the total weight is exceeded")
+    void put_evictsByWeight() {
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(10, Duration.ZERO, Duration.ZERO,
+                List.of(new ViewtonCache.Bound<>(Integer::longValue, 10), new ViewtonCache.Bound<>(value -> 1, 3)));
+        cache.put("a", 4);
+        cache.put("b", 4);
+        cache.put("c", 4);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(4, cache.getIfPresent("b"));
+        cache.put("d", 1);
+        cache.put("e", 1);
+        assertNull(cache.getIfPresent("c"));
+        assertEquals(3, cache.getStats().getSize());
+
+        cache.put("b", 11);
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(2, cache.getStats().getSize());
+        cache.put("f", 8);
+        assertEquals(8, cache.getIfPresent("f"));
+        assertEquals(1, cache.getIfPresent("d"));
+    }
+
+    @Test
+    @DisplayName("Entry expires after the expiration duration since it is put, regardless of accesses")
+    void getIfPresent_expiresAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(10, Duration.ZERO, Duration.ofNanos(100), List.of(), now::get);
+        cache.put("a", 1);
+
+        now.set(99);
+        assertEquals(1, cache.getIfPresent("a"));
+        now.set(100);
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    @DisplayName("Entries matching the predicate are invalidated")
+    void invalidateAll_byPredicate() {
+        ViewtonCache<String, Integer> cache = new ViewtonCache<>(10, Duration.ZERO, Duration.ZERO,
+                List.of(new ViewtonCache.Bound<>(Integer::longValue, 10)));
+        cache.put("a1", 5);
+        cache.put("b1", 5);
+        cache.invalidateAll(key -> key.startsWith("a"));
+
+        assertNull(cache.getIfPresent("a1"));
+        assertEquals(5, cache.getIfPresent("b1"));
+        // the weight of the invalidated entry is released
+        cache.put("b2", 5);
+        assertEquals(5, cache.getIfPresent("b1"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.viewton.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ViewtonOffHeapCacheTest {
+
+    /**
+     * The header and two records of a single byte group, a single byte key and a value of 10 bytes.
+     */
+    private static final int CAPACITY = 32 + 2 * 40 + 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Oldest values are evicted when writing wraps around the buffer")
+    void put_wrapsAroundEvictingOldest() {
+        ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, null, Duration.ZERO);
+        cache.put("g", "a", value(1));
+        cache.put("g", "b", value(2));
+        cache.put("g", "c", value(3));
+
+        assertNull(cache.getIfPresent("a"));
+        assertArrayEquals(value(2), cache.getIfPresent("b"));
+        assertArrayEquals(value(3), cache.getIfPresent("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("Values of a file are restored when it is opened again, except the invalidated ones")
+    void restoresValuesOfFile() {
+        Path file = directory.resolve("cache");
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO)) {
+            cache.put("g", "a", value(1));
+            cache.put("g", "b", value(2));
+            cache.put("h", "c", value(3));
+            cache.put("g", "d", value(4));
+            cache.invalidate("c");
+        }
+
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO)) {
+            assertNull(cache.getIfPresent("a"));
+            assertNull(cache.getIfPresent("b"));
+            assertNull(cache.getIfPresent("c"));
+            assertArrayEquals(value(4), cache.getIfPresent("d"));
+
+            cache.put("h", "e", value(5));
+            cache.invalidateGroup("g");
+            assertNull(cache.getIfPresent("d"));
+            assertArrayEquals(value(5), cache.getIfPresent("e"));
+        }
+    }
+
+    @Test
+    @DisplayName("Values expire after write, and expired values are not restored")
+    void getIfPresent_expiresAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        Path file = directory.resolve("cache");
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ofMillis(100), value -> true, now::get)) {
+            cache.put("g", "a", value(1));
+            now.set(50);
+            cache.put("g", "b", value(2));
+
+            now.set(99);
+            assertArrayEquals(value(1), cache.getIfPresent("a"));
+            now.set(100);
+            assertNull(cache.getIfPresent("a"));
+        }
+
+        now.set(150);
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ofMillis(100), value -> true, now::get)) {
+            assertEquals(0, cache.getStats().getSize());
+        }
+    }
+
+    @Test
+    @DisplayName("Restored values are checked on their first read, and values failing the check are removed")
+    void getIfPresent_checksRestoredValues() {
+        Path file = directory.resolve("cache");
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO)) {
+            cache.put("g", "a", value(1));
+            cache.put("g", "b", value(2));
+        }
+
+        AtomicInteger checks = new AtomicInteger();
+        try (ViewtonOffHeapCache cache = new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO, value -> {
+            checks.incrementAndGet();
+            return value[0] != 2;
+        })) {
+            assertArrayEquals(value(1), cache.getIfPresent("a"));
+            assertArrayEquals(value(1), cache.getIfPresent("a"));
+            assertNull(cache.getIfPresent("b"));
+            assertNull(cache.getIfPresent("b"));
+            assertEquals(2, checks.get());
+            assertEquals(1, cache.getStats().getSize());
+            assertEquals(2, cache.getStats().getMisses());
+
+            cache.put("g", "b", value(2));
+            assertArrayEquals(value(2), cache.getIfPresent("b"));
+            assertEquals(2, checks.get());
+        }
+    }
+
+    @Test
+    @DisplayName("A file could not be opened by two caches")
+    void rejectsLockedFile() {
+        Path file = directory.resolve("cache");
+        try (ViewtonOffHeapCache ignored = new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO)) {
+            assertThrows(IllegalStateException.class, () -> new ViewtonOffHeapCache(CAPACITY, file, Duration.ZERO));
+        }
+    }
+
+    private static byte[] value(int value) {
+        byte[] bytes = new byte[10];
+        bytes[0] = (byte) value;
+        return bytes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.viewton.concurrent;
+
+import com.viewton.dto.Order;
+import com.viewton.dto.RawOrderBy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ChunkedScanTest {
+
+    @Test
+    @DisplayName("Ids are split into disjoint ranges covering min to max")
+    void split_coversIds() {
+        assertEquals(List.of(new ChunkedScan.Range(1, 4), new ChunkedScan.Range(5, 8), new ChunkedScan.Range(9, 10)),
+                ChunkedScan.split(1, 10, 3));
+        assertEquals(List.of(new ChunkedScan.Range(5, 5), new ChunkedScan.Range(6, 6)), ChunkedScan.split(5, 6, 4));
+        assertEquals(List.of(new ChunkedScan.Range(7, 7)), ChunkedScan.split(7, 7, 4));
+        assertEquals(List.of(new ChunkedScan.Range(Long.MIN_VALUE, Long.MAX_VALUE)),
+                ChunkedScan.split(Long.MIN_VALUE, Long.MAX_VALUE, 4));
+        assertEquals(4, ChunkedScan.split(Long.MAX_VALUE - 10, Long.MAX_VALUE, 4).size());
+    }
+
+    @Test
+    @DisplayName("Rows are ordered by sorting values following the attributes, nulls first")
+    void order_comparesSortingValues() {
+        Comparator<Object[]> order = ChunkedScan.order(List.of(
+                new RawOrderBy("name", Order.ASCENDING), new RawOrderBy("amount", Order.DESCENDING)), 1,
+                List.of(value -> value.toString().toUpperCase(), UnaryOperator.identity()));
+        List<Object[]> rows = new ArrayList<>(List.of(
+                new Object[]{1, "b", 1L},
+                new Object[]{2, "a", null},
+                new Object[]{3, null, 5L},
+                new Object[]{4, "A", 3L}));
+
+        rows.sort(order);
+
+        assertArrayEquals(new Object[]{3, 4, 2, 1}, rows.stream().map(row -> row[0]).toArray());
+        assertNull(ChunkedScan.order(List.of(), 1, List.of()));
+    }
+}
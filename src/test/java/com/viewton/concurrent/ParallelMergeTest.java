@@ -0,0 +1,92 @@
+package com.viewton.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelMergeTest {
+
+    private static final Consumer<Runnable> NO_TRANSACTION = Runnable::run;
+
+    @Test
+    @DisplayName("Sorted streams are merged preserving the order")
+    void merge_sorted() {
+        List<Supplier<Stream<Integer>>> sources = List.of(
+                () -> Stream.of(1, 4, 7, 10),
+                Stream::empty,
+                () -> Stream.of(2, 3, 8),
+                () -> IntStream.range(5, 7).boxed());
+
+        List<Integer> merged = drain(new ParallelMerge<>(sources, Comparator.naturalOrder(), 1, NO_TRANSACTION));
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 10), merged);
+    }
+
+    @Test
+    @DisplayName("Unsorted streams are merged completely")
+    void merge_unsorted() {
+        List<Supplier<Stream<Integer>>> sources = List.of(
+                () -> IntStream.range(0, 1000).boxed(),
+                () -> IntStream.range(1000, 1500).boxed());
+
+        List<Integer> merged = drain(new ParallelMerge<>(sources, null, 10, NO_TRANSACTION));
+        merged.sort(Comparator.naturalOrder());
+
+        assertEquals(IntStream.range(0, 1500).boxed().toList(), merged);
+        assertFalse(new ParallelMerge<>(List.<Supplier<Stream<Integer>>>of(), null, 1, NO_TRANSACTION).hasNext());
+    }
+
+    @Test
+    @DisplayName("Failure of a stream fails the merge and closes the other streams")
+    void merge_failure() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        List<Supplier<Stream<Integer>>> sources = List.of(
+                () -> Stream.iterate(1, i -> i + 1).onClose(closed::countDown),
+                () -> Stream.of(1, 2).map(i -> {
+                    throw new IllegalArgumentException("failed");
+                }));
+
+        ParallelMerge<Integer> merge = new ParallelMerge<>(sources, null, 1, NO_TRANSACTION);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> drain(merge));
+        assertEquals("failed", e.getMessage());
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Closed merge stops reading the streams")
+    void close_stopsReading() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(2);
+        List<Supplier<Stream<Integer>>> sources = List.of(
+                () -> Stream.iterate(1, i -> i + 1).onClose(closed::countDown),
+                () -> Stream.iterate(0, i -> i + 2).onClose(closed::countDown));
+
+        ParallelMerge<Integer> merge = new ParallelMerge<>(sources, Comparator.naturalOrder(), 4, NO_TRANSACTION);
+        assertEquals(0, merge.next());
+        assertEquals(1, merge.next());
+        merge.close();
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertFalse(merge.hasNext());
+    }
+
+    private static <T> List<T> drain(ParallelMerge<T> merge) {
+        List<T> elements = new ArrayList<>();
+        merge.forEachRemaining(elements::add);
+        return elements;
+    }
+}
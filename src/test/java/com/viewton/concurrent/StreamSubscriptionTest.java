@@ -0,0 +1,144 @@
+package com.viewton.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamSubscriptionTest {
+
+    @Test
+    @DisplayName("Elements are pulled only as they are requested")
+    void request_pullsOnlyRequested() throws InterruptedException {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        StreamSubscription<Integer> subscription = new StreamSubscription<>(subscriber, () -> Stream.iterate(1, i -> i + 1)
+                .peek(i -> pulled.incrementAndGet())
+                .onClose(() -> closed.set(true)));
+
+        Thread emitter = Thread.ofVirtual().start(subscription::run);
+        subscription.request(2);
+        subscriber.awaitReceived(2);
+        Thread.sleep(50);
+
+        assertEquals(List.of(1, 2), subscriber.received);
+        assertEquals(2, pulled.get());
+
+        subscription.cancel();
+        emitter.join(5_000);
+
+        assertTrue(closed.get());
+        assertEquals(1, subscriber.completed.getCount());
+    }
+
+    @Test
+    @DisplayName("Exhausted stream completes the subscriber")
+    void run_completes() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        StreamSubscription<Integer> subscription = new StreamSubscription<>(subscriber, () -> Stream.of(1, 2, 3));
+
+        subscription.request(Long.MAX_VALUE);
+        subscription.run();
+
+        assertEquals(List.of(1, 2, 3), subscriber.received);
+        assertTrue(subscriber.completed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Empty stream completes the subscriber and is closed without waiting for demand")
+    void run_emptyCompletesAtOnce() throws InterruptedException {
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        StreamSubscription<Integer> subscription = new StreamSubscription<>(subscriber,
+                () -> Stream.<Integer>empty().onClose(() -> closed.set(true)));
+
+        subscription.run();
+
+        assertTrue(subscriber.completed.await(1, TimeUnit.SECONDS));
+        assertNull(subscriber.error.get());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Subscriber throwing from onNext cancels the subscription without being signalled the error")
+    void run_onNextThrowsCancels() {
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                throw new IllegalStateException("Subscriber failed");
+            }
+        };
+        StreamSubscription<Integer> subscription = new StreamSubscription<>(subscriber,
+                () -> Stream.of(1, 2, 3).onClose(() -> closed.set(true)));
+
+        subscription.request(Long.MAX_VALUE);
+        subscription.run();
+
+        assertEquals(List.of(1), subscriber.received);
+        assertNull(subscriber.error.get());
+        assertEquals(1, subscriber.completed.getCount());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Non-positive request fails the subscriber")
+    void request_nonPositiveFails() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        StreamSubscription<Integer> subscription = new StreamSubscription<>(subscriber, () -> Stream.of(1));
+
+        subscription.request(0);
+        subscription.run();
+
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error.get());
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        private final List<Integer> received = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private void awaitReceived(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.viewton.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ViewtonQueryExecutorTest {
+
+    @Test
+    @DisplayName("Sub-queries run concurrently, each in its own transaction")
+    void fork_runsConcurrentlyInSeparateTransactions() {
+        PlatformTransactionManager transactionManager = transactionManager();
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager, true, ViewtonConsistency.RELAXED, 4, null);
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        try (ViewtonQueryExecutor.Scope scope = executor.openScope()) {
+            Supplier<Boolean> first = scope.fork(() -> awaitOthers(allStarted));
+            Supplier<Boolean> second = scope.fork(() -> awaitOthers(allStarted));
+            Supplier<Boolean> third = scope.fork(() -> awaitOthers(allStarted));
+
+            assertTrue(first.get());
+            assertTrue(second.get());
+            assertTrue(third.get());
+        } finally {
+            executor.destroy();
+        }
+
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Parallelism bounds simultaneously running sub-queries")
+    void fork_parallelismIsBounded() {
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager(), true, ViewtonConsistency.RELAXED, 2, null);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ViewtonQueryExecutor.Scope scope = executor.openScope()) {
+            Supplier<Integer> sleeping = () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep();
+                return running.decrementAndGet();
+            };
+            scope.fork(sleeping);
+            scope.fork(sleeping);
+            scope.fork(sleeping);
+            scope.fork(sleeping).get();
+        } finally {
+            executor.destroy();
+        }
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    @DisplayName("Sub-query exception is rethrown to the caller")
+    void fork_exceptionIsRethrown() {
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager(), true, ViewtonConsistency.RELAXED, 4, null);
+
+        try (ViewtonQueryExecutor.Scope scope = executor.openScope()) {
+            Supplier<Object> failed = scope.fork(() -> {
+                throw new IllegalArgumentException("Unknown attribute");
+            });
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, failed::get);
+            assertEquals("Unknown attribute", exception.getMessage());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot consistency disables concurrent mode")
+    void snapshotConsistency_notConcurrent() {
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager(), true, ViewtonConsistency.SNAPSHOT, 4, null);
+
+        assertFalse(executor.isConcurrent());
+        assertThrows(IllegalStateException.class, executor::openScope);
+    }
+
+    @Test
+    @DisplayName("Asynchronous requests run on virtual threads by default")
+    void supplyAsync_virtualThreadsByDefault() {
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager(), false, ViewtonConsistency.RELAXED, 4, null);
+
+        try {
+            assertTrue(executor.supplyAsync(() -> Thread.currentThread().isVirtual()).join());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Asynchronous requests run on the configured executor")
+    void supplyAsync_configuredExecutor() {
+        AtomicInteger submitted = new AtomicInteger();
+        Executor direct = task -> {
+            submitted.incrementAndGet();
+            task.run();
+        };
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(transactionManager(), false, ViewtonConsistency.RELAXED, 4, direct);
+
+        assertEquals(42, executor.supplyAsync(() -> 42).join());
+        assertEquals(1, submitted.get());
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return transactionManager;
+    }
+
+    private static boolean awaitOthers(CountDownLatch allStarted) {
+        allStarted.countDown();
+        try {
+            return allStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
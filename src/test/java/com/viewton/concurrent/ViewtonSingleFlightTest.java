@@ -0,0 +1,96 @@
+package com.viewton.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ViewtonSingleFlightTest {
+
+    @Test
+    @DisplayName("Identical requests in flight share a single execution")
+    void execute_coalescesIdenticalRequests() throws Exception {
+        ViewtonSingleFlight singleFlight = new ViewtonSingleFlight(true, 10_000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(List.of("q"), () -> {
+                executions.incrementAndGet();
+                leading.countDown();
+                await(release);
+                return result;
+            }), executor);
+            assertTrue(leading.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<Object>> followers = List.of(
+                    CompletableFuture.supplyAsync(() -> singleFlight.execute(List.of("q"), Object::new), executor),
+                    CompletableFuture.supplyAsync(() -> singleFlight.execute(List.of("q"), Object::new), executor));
+            // waiting followers are not observable, so they are given time to join the leader
+            sleep(200);
+            release.countDown();
+
+            assertSame(result, leader.get());
+            for (CompletableFuture<Object> follower : followers) {
+                assertSame(result, follower.get());
+            }
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1, singleFlight.getStats().getExecutions());
+        assertEquals(2, singleFlight.getStats().getCoalesced());
+        assertEquals(0, singleFlight.getStats().getInFlight());
+    }
+
+    @Test
+    @DisplayName("A request gives up waiting after the maximum wait and is performed on its own")
+    void execute_timesOut() throws Exception {
+        ViewtonSingleFlight singleFlight = new ViewtonSingleFlight(true, 10);
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("q", () -> {
+                leading.countDown();
+                await(release);
+                return "leader";
+            }), executor);
+            assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+            assertEquals("own", singleFlight.execute("q", () -> "own"));
+            release.countDown();
+            assertEquals("leader", leader.get());
+        }
+
+        assertEquals(2, singleFlight.getStats().getExecutions());
+        assertEquals(1, singleFlight.getStats().getTimeouts());
+        assertEquals(0, singleFlight.getStats().getCoalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
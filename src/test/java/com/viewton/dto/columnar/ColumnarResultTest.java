@@ -0,0 +1,81 @@
+package com.viewton.dto.columnar;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarResultTest {
+
+    @Test
+    @DisplayName("Columns are encoded by the type of their values")
+    void of_encodesColumns() {
+        List<Object[]> rows = List.of(
+                new Object[]{1L, 10, 1.5, "EUR", DayOfWeek.MONDAY, BigDecimal.ONE, 100L},
+                new Object[]{2L, null, 2.5, "EUR", DayOfWeek.FRIDAY, null, 100L},
+                new Object[]{null, 30, null, "USD", DayOfWeek.MONDAY, BigDecimal.TEN, 100L},
+                new Object[]{4L, 40, 4.5, "EUR", null, BigDecimal.ONE, 100L});
+
+        ColumnarResult result = ColumnarResult.of(List.of("id", "count", "rate", "currency", "day", "price"), rows);
+
+        assertEquals(4, result.getSize());
+        assertEquals(6, result.getColumns().size());
+        LongColumn ids = assertInstanceOf(LongColumn.class, result.getColumn("id"));
+        assertArrayEquals(new long[]{1, 2, 0, 4}, ids.getValues());
+        assertTrue(ids.isNull(2));
+        assertFalse(ids.isNull(1));
+        assertNull(ids.get(2));
+        assertArrayEquals(new int[]{10, 0, 30, 40}, assertInstanceOf(IntColumn.class, result.getColumn("count")).getValues());
+        assertArrayEquals(new double[]{1.5, 2.5, 0, 4.5},
+                assertInstanceOf(DoubleColumn.class, result.getColumn("rate")).getValues());
+
+        DictionaryColumn currencies = assertInstanceOf(DictionaryColumn.class, result.getColumn("currency"));
+        assertArrayEquals(new String[]{"EUR", "USD"}, currencies.getDictionary());
+        assertArrayEquals(new int[]{0, 0, 1, 0}, currencies.getCodes());
+        assertNull(currencies.getNulls());
+        DictionaryColumn days = assertInstanceOf(DictionaryColumn.class, result.getColumn("day"));
+        assertEquals("FRIDAY", days.get(1));
+        assertNull(days.get(3));
+
+        ObjectColumn prices = assertInstanceOf(ObjectColumn.class, result.getColumn("price"));
+        assertEquals(BigDecimal.TEN, prices.get(2));
+        assertEquals(ColumnType.OBJECT, prices.getType());
+        assertThrows(IllegalArgumentException.class, () -> result.getColumn("unknown"));
+    }
+
+    @Test
+    @DisplayName("High-cardinality strings are not dictionary-encoded and nulls span bitmap words")
+    void of_highCardinality() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            rows.add(new Object[]{i == 129 ? null : "name" + i});
+        }
+
+        Column names = ColumnarResult.of(List.of("name"), rows).getColumn("name");
+
+        assertInstanceOf(ObjectColumn.class, names);
+        assertEquals(3, names.getNulls().length);
+        assertTrue(names.isNull(129));
+        assertFalse(names.isNull(128));
+    }
+
+    @Test
+    @DisplayName("Attributes missing in a row are null")
+    void of_shortRows() {
+        ColumnarResult result = ColumnarResult.of(List.of("amount"), List.<Object[]>of(new Object[0]));
+
+        assertEquals(1, result.getSize());
+        assertTrue(result.getColumn("amount").isNull(0));
+    }
+}
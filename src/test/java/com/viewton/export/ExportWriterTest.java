@@ -0,0 +1,59 @@
+package com.viewton.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExportWriterTest {
+
+    private static final List<String> ATTRIBUTES = List.of("name", "amount", "date");
+
+    @Test
+    @DisplayName("Rows are written as CSV with a header and quoted values")
+    void write_csv() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = write(ViewtonExport.builder().build(), output);
+
+        assertEquals(2, rows);
+        assertEquals("name,amount,date\r\n"
+                        + "\"Doe, \"\"John\"\"\",1.50,2024-01-02\r\n"
+                        + "MAY,,\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Rows are written as gzipped NDJSON")
+    void write_gzippedNdjson() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        write(ViewtonExport.builder().format(ExportFormat.NDJSON).gzip(true).build(), output);
+
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals("{\"name\":\"Doe, \\\"John\\\"\",\"amount\":1.50,\"date\":\"2024-01-02\"}\n"
+                            + "{\"name\":\"MAY\",\"amount\":null,\"date\":null}\n",
+                    new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long write(ViewtonExport export, ByteArrayOutputStream output) {
+        ExportWriter writer = ExportWriter.open(export, output, ATTRIBUTES);
+        writer.write(new Object[]{"Doe, \"John\"", new BigDecimal("1.50"), LocalDate.of(2024, 1, 2), "ignored"});
+        writer.write(new Object[]{Month.MAY, null});
+        writer.finish();
+
+        return writer.getRows();
+    }
+}
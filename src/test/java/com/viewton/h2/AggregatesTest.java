@@ -0,0 +1,120 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonEngine;
+import com.viewton.ViewtonQueryMapper;
+import com.viewton.ViewtonRepository;
+import com.viewton.concurrent.ViewtonConsistency;
+import com.viewton.dto.ViewtonQuery;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class AggregatesTest {
+
+    private static TestDatabase database;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(25);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Aggregates fused into a single query are the same as calculated by separate queries")
+    void fused_sameAsSeparate(int slices) {
+        ViewtonRepository repository = database.repository(properties -> properties.getAggregate().setSlices(slices));
+
+        List<Map<String, String>> requests = List.of(
+                Map.of("sum", "amount,rate", "avg", "amount", "count", "true"),
+                Map.of("currencyCode", "EUR", "sum", "amount", "avg", "amount", "count", "true", "page_size", "3"),
+                Map.of("sum", "amount[currencyCode]", "avg", "amount[currencyCode]", "count", "true"),
+                Map.of("sum", "amount,rate[status]", "avg", "amount[status]", "page_size", "1", "page", "2"),
+                Map.of("userName", "null", "sum", "amount[currencyCode]", "avg", "amount[currencyCode]"),
+                Map.of("attributes", "currencyCode", "distinct", "true", "sum", "amount", "avg", "amount",
+                        "count", "true"),
+                Map.of("attributes", "status", "distinct", "true", "sum", "rate[currencyCode]",
+                        "avg", "amount[currencyCode]", "count", "true"),
+                Map.of("amount", ">1000", "sum", "amount", "avg", "amount", "count", "true")
+        );
+        for (Map<String, String> request : requests) {
+            ViewtonQuery query = ViewtonQueryMapper.of(request, 50);
+            ViewtonResponseDto<TestPayment> fused = repository.list(request, TestPayment.class);
+
+            assertEquals(database.inTransaction(() -> repository.sum(query, TestPayment.class)), fused.getSum(), request.toString());
+            assertEquals(database.inTransaction(() -> repository.avg(query, TestPayment.class)), fused.getAvg(), request.toString());
+            if (query.isCount()) {
+                assertEquals(database.inTransaction(() -> repository.count(query, TestPayment.class)),
+                        fused.getCount(), request.toString());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonConsistency.class)
+    @DisplayName("Aggregates are sliced only with relaxed consistency and outside of a transaction of the caller")
+    void sliced_onlyOutsideOfTransaction(ViewtonConsistency consistency) {
+        ViewtonRepository repository = database.repository(properties -> {
+            properties.getAggregate().setSlices(4);
+            properties.getConcurrent().setConsistency(consistency);
+        });
+        Map<String, String> request = Map.of("sum", "amount[currencyCode]", "count", "true");
+
+        // slices are split by the bounds of ids selected by min and max
+        assertEquals(consistency == ViewtonConsistency.RELAXED,
+                database.executes("max(", () -> repository.list(request, TestPayment.class)));
+        assertFalse(database.executes("max(",
+                () -> database.inTransaction(() -> repository.list(request, TestPayment.class))));
+    }
+
+    @Test
+    @DisplayName("Groups of sliced aggregates are paginated in the order of group values")
+    void sliced_groupsPaginatedInOrder() {
+        ViewtonRepository repository = database.repository(properties -> properties.getAggregate().setSlices(4));
+
+        List<String> all = repository.list(Map.of("sum", "amount[userName]"), TestPayment.class).getSum()
+                .stream().map(TestPayment::getUserName).toList();
+        List<String> page = repository.list(Map.of("sum", "amount[userName]", "page_size", "3", "page", "2"),
+                        TestPayment.class).getSum()
+                .stream().map(TestPayment::getUserName).toList();
+
+        assertEquals(Arrays.asList(null, "user0", "user1", "user2", "user3", "user4", "user5", "user6"), all);
+        assertEquals(List.of("user2", "user3", "user4"), page);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonEngine.class)
+    @DisplayName("Averages are converted to the numeric types of attributes")
+    void avg_convertedToAttributeType(ViewtonEngine engine) {
+        ViewtonRepository repository = database.repository(properties -> properties.setEngine(engine));
+
+        TestPayment avg = repository.list(Map.of("avg", "id,rate"), TestPayment.class).getAvg().get(0);
+        Map<TestPayment.Status, Long> byStatus = repository.list(Map.of("avg", "id[status]"), TestPayment.class)
+                .getAvg()
+                .stream()
+                .collect(Collectors.toMap(TestPayment::getStatus, TestPayment::getId));
+
+        assertEquals(13L, avg.getId());
+        assertEquals(0, new BigDecimal("3.25").compareTo(avg.getRate()), avg.getRate().toString());
+        // 13.5 and 12.76 are truncated
+        assertEquals(Map.of(TestPayment.Status.PAID, 13L, TestPayment.Status.NEW, 12L), byStatus);
+    }
+}
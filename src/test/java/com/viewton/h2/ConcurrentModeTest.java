@@ -0,0 +1,42 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonRepository;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConcurrentModeTest {
+
+    private static TestDatabase database;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(25);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @Test
+    @DisplayName("Request in a transaction of the caller is performed within it and sees its uncommitted changes")
+    void inTransaction_performedSequentially() {
+        ViewtonRepository repository = database.repository(properties -> properties.getConcurrent().setEnabled(true));
+        Map<String, String> request = Map.of("userName", "uncommitted", "sum", "amount", "count", "true");
+
+        ViewtonResponseDto<TestPayment> response = database.withUncommitted(26, "uncommitted",
+                () -> repository.list(request, TestPayment.class));
+
+        assertEquals(1, response.getList().size());
+        assertEquals(260L, response.getSum().get(0).getAmount());
+        assertEquals(1L, response.getCount());
+        assertEquals(0L, repository.list(request, TestPayment.class).getCount());
+    }
+}
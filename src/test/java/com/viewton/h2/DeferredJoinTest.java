@@ -0,0 +1,103 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonCountStrategy;
+import com.viewton.ViewtonRepository;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeferredJoinTest {
+
+    private static TestDatabase database;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(40);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonCountStrategy.class)
+    @DisplayName("Pages selected by the deferred join are the pages selected by offset, with the same count and next page")
+    void list_sameAsOffset(ViewtonCountStrategy countStrategy) {
+        ViewtonRepository deferred = database.repository(properties -> {
+            properties.getCount().setStrategy(countStrategy);
+            properties.getDeferredJoin().setOffsetThreshold(0);
+        });
+        ViewtonRepository offset = database.repository(properties -> {
+            properties.getCount().setStrategy(countStrategy);
+            properties.getDeferredJoin().setOffsetThreshold(-1);
+        });
+
+        List<Map<String, String>> requests = List.of(
+                Map.of("sorting", "id", "page_size", "7", "page", "2", "count", "true"),
+                Map.of("sorting", "-amount", "page_size", "7", "page", "6", "count", "true"),
+                Map.of("sorting", "-amount", "page_size", "7", "page", "6", "has_next", "true"),
+                Map.of("sorting", "userName,id", "page_size", "10", "page", "4", "count", "true", "has_next", "true"),
+                Map.of("sorting", "id", "page_size", "10", "page", "3", "has_next", "true"),
+                Map.of("sorting", "id", "page_size", "10", "page", "5", "count", "true", "has_next", "true"),
+                Map.of("currencyCode", "USD", "sorting", "-id", "page_size", "6", "page", "3", "count", "true"),
+                Map.of("status", "PAID", "sorting", "conclusionDate,id", "page_size", "4", "page", "2",
+                        "attributes", "id,conclusionDate", "count", "true"),
+                Map.of("sum", "amount", "avg", "amount", "sorting", "id", "page_size", "9", "page", "5", "count", "true")
+        );
+        for (Map<String, String> request : requests) {
+            ViewtonResponseDto<TestPayment> expected = offset.list(request, TestPayment.class);
+            ViewtonResponseDto<TestPayment> actual = deferred.list(request, TestPayment.class);
+
+            assertEquals(expected.getList(), actual.getList(), request.toString());
+            assertEquals(expected.getCount(), actual.getCount(), request.toString());
+            assertEquals(expected.getHasNext(), actual.getHasNext(), request.toString());
+            assertEquals(expected.getSum(), actual.getSum(), request.toString());
+            assertEquals(expected.getAvg(), actual.getAvg(), request.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Entities deleted between the id and row selects are skipped, the page is still not the last one")
+    void list_deletedBetweenQueries() {
+        try (TestDatabase modified = new TestDatabase(40)) {
+            ViewtonRepository deferred = modified.repository(
+                    properties -> properties.getDeferredJoin().setOffsetThreshold(0));
+            modified.deleteBefore(" in (", List.of(12L, 15L));
+
+            ViewtonResponseDto<TestPayment> response = deferred.list(
+                    Map.of("sorting", "id", "page_size", "10", "page", "2", "has_next", "true"), TestPayment.class);
+
+            assertEquals(List.of(11L, 13L, 14L, 16L, 17L, 18L, 19L, 20L),
+                    response.getList().stream().map(TestPayment::getId).toList());
+            assertTrue(response.getHasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("Entity deleted from the last page between the id and row selects is skipped, there is still no next page")
+    void list_deletedFromLastPage() {
+        try (TestDatabase modified = new TestDatabase(40)) {
+            ViewtonRepository deferred = modified.repository(
+                    properties -> properties.getDeferredJoin().setOffsetThreshold(0));
+            modified.deleteBefore(" in (", List.of(40L));
+
+            ViewtonResponseDto<TestPayment> response = deferred.list(
+                    Map.of("sorting", "id", "page_size", "10", "page", "4", "has_next", "true"), TestPayment.class);
+
+            assertEquals(9, response.getList().size());
+            assertFalse(response.getHasNext());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonRepository;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class KeysetPaginationH2Test {
+
+    private static TestDatabase database;
+    private static ViewtonRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(25);
+        repository = database.repository(properties -> {
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "userName, 3",
+            "-userName, 3",
+            "conclusionDate, 4",
+            "-conclusionDate, 7",
+            "userName;-conclusionDate, 2",
+            "-userName;conclusionDate, 5"
+    })
+    @DisplayName("Walking all the keyset pages by nullable sorting attributes gives every entity once, nulls first")
+    void walk_nullableKeys(String sorting, int pageSize) {
+        List<String> attributes = List.of(sorting.split(";"));
+        Comparator<TestPayment> order = null;
+        for (String attribute : attributes) {
+            Comparator<TestPayment> key = attribute.endsWith("userName")
+                    ? Comparator.comparing(TestPayment::getUserName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    : Comparator.comparing(TestPayment::getConclusionDate,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            key = attribute.startsWith("-") ? key.reversed() : key;
+            order = order == null ? key : order.thenComparing(key);
+        }
+        List<Long> expected = repository.list(Map.of("page_size", "100"), TestPayment.class).getList().stream()
+                .sorted(order.thenComparing(TestPayment::getId))
+                .map(TestPayment::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        Map<String, String> request = new HashMap<>(Map.of(
+                "sorting", String.join(",", attributes), "page_size", String.valueOf(pageSize), "keyset", "true"));
+        ViewtonResponseDto<TestPayment> page;
+        do {
+            page = repository.list(request, TestPayment.class);
+            page.getList().stream().map(TestPayment::getId).forEach(walked::add);
+            request.put("after", page.getNextCursor() == null ? "" : page.getNextCursor());
+        } while (page.getNextCursor() != null && walked.size() <= expected.size());
+
+        assertEquals(expected, walked);
+        assertNull(page.getNextCursor());
+    }
+}
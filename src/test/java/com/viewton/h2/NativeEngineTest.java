@@ -0,0 +1,141 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonCountStrategy;
+import com.viewton.ViewtonEngine;
+import com.viewton.ViewtonRepository;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NativeEngineTest {
+
+    private static TestDatabase database;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(25);
+        database.insert(26, "50% off");
+        database.insert(27, "wow!");
+        database.insert(28, "wow!!");
+        database.insert(29, "a_b");
+        database.insert(30, "x\\y");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonCountStrategy.class)
+    @DisplayName("Responses of the native engine are the same as of the criteria engine")
+    void native_sameAsCriteria(ViewtonCountStrategy countStrategy) {
+        ViewtonRepository criteria = database.repository(properties -> {
+            properties.setEngine(ViewtonEngine.CRITERIA);
+            properties.getCount().setStrategy(countStrategy);
+        });
+        ViewtonRepository nativeSql = database.repository(properties -> {
+            properties.setEngine(ViewtonEngine.NATIVE);
+            properties.getCount().setStrategy(countStrategy);
+        });
+
+        List<Map<String, String>> requests = List.of(
+                Map.of("count", "true"),
+                Map.of("currencyCode", "USD", "sorting", "-amount", "count", "true"),
+                Map.of("currencyCode", "usd", "count", "true"),
+                Map.of("currencyCode", "^usd", "sorting", "amount", "count", "true"),
+                Map.of("currencyCode", "<>USD", "sorting", "id"),
+                Map.of("currencyCode", "<>^usd", "sorting", "id"),
+                Map.of("userName", "user1%", "sorting", "id"),
+                Map.of("userName", "%ER2", "sorting", "id"),
+                Map.of("userName", "^%ER2", "sorting", "id"),
+                Map.of("userName", "<>user1%", "sorting", "id"),
+                Map.of("userName", "us!er1%", "sorting", "id"),
+                Map.of("userName", "%!", "sorting", "id"),
+                Map.of("userName", "wow!!", "sorting", "id"),
+                Map.of("userName", "%!%", "sorting", "id"),
+                Map.of("userName", "<>%!", "sorting", "id"),
+                Map.of("userName", "WOW!", "sorting", "id"),
+                Map.of("userName", "50%", "sorting", "id"),
+                Map.of("userName", "%0% %", "sorting", "id"),
+                Map.of("userName", "%", "sorting", "id", "count", "true"),
+                Map.of("userName", "a_b|wow!", "sorting", "id"),
+                Map.of("userName", "x\\y", "sorting", "id"),
+                Map.of("userName", "^%\\%", "sorting", "id"),
+                Map.of("userName", "null", "sorting", "id", "count", "true"),
+                Map.of("userName", "<>null", "sorting", "id", "count", "true"),
+                Map.of("userName", "null|user1", "sorting", "id"),
+                Map.of("userName", "user1|user3|^USER5", "sorting", "id"),
+                Map.of("amount", ">100", "status", "PAID", "sorting", "id"),
+                Map.of("amount", ">=100", "sorting", "-id", "page_size", "3", "page", "2", "count", "true"),
+                Map.of("amount", "<100", "sorting", "id"),
+                Map.of("amount", "<=100", "sorting", "id", "has_next", "true", "page_size", "5"),
+                Map.of("amount", "<>100", "sorting", "id"),
+                Map.of("amount", "50..120", "sorting", "id"),
+                Map.of("amount", "10|20|30", "sorting", "id"),
+                Map.of("rate", ">=2.5", "sorting", "id"),
+                Map.of("rate", "1.00..3.25", "sorting", "-rate"),
+                Map.of("conclusionDate", "2025-01-05..2025-01-10", "sorting", "conclusionDate,id"),
+                Map.of("conclusionDate", "<2025-01-08", "sorting", "-conclusionDate,id"),
+                Map.of("status", "<>NEW", "attributes", "id,status", "sorting", "id"),
+                Map.of("status", "PAID|NEW", "currencyCode", "EUR", "sorting", "userName,id"),
+                Map.of("sorting", "id", "page_size", "10", "page", "3", "count", "true", "has_next", "true"),
+                Map.of("sorting", "id", "page_size", "10", "page", "4", "count", "true", "has_next", "true"),
+                Map.of("sorting", "id", "page_size", "-1", "count", "true"),
+                Map.of("amount", ">1000", "page_size", "5", "page", "2", "count", "true"),
+                Map.of("attributes", "currencyCode", "distinct", "true", "sorting", "currencyCode", "count", "true"),
+                Map.of("attributes", "status,currencyCode", "distinct", "true", "sorting", "status,currencyCode",
+                        "page_size", "3", "page", "2", "count", "true", "has_next", "true"),
+                Map.of("sum", "amount,rate", "avg", "amount", "count", "true"),
+                Map.of("sum", "amount", "count", "true", "sorting", "id", "page_size", "4", "page", "2"),
+                Map.of("sum", "amount[status]", "sorting", "id", "page_size", "1", "page", "2"),
+                Map.of("avg", "amount[currencyCode]", "currencyCode", "EUR"),
+                Map.of("sum", "amount,rate[currencyCode]", "avg", "amount[currencyCode]", "count", "true",
+                        "sorting", "id", "page_size", "5", "page", "3"),
+                Map.of("sum", "rate[status]", "avg", "amount[currencyCode]", "count", "true", "sorting", "id"),
+                Map.of("attributes", "currencyCode", "distinct", "true", "sum", "amount", "avg", "amount",
+                        "count", "true")
+        );
+        for (Map<String, String> request : requests) {
+            ViewtonResponseDto<TestPayment> expected = criteria.list(request, TestPayment.class);
+            ViewtonResponseDto<TestPayment> actual = nativeSql.list(request, TestPayment.class);
+
+            assertEquals(expected.getList(), actual.getList(), request.toString());
+            assertEquals(expected.getCount(), actual.getCount(), request.toString());
+            assertEquals(expected.getHasNext(), actual.getHasNext(), request.toString());
+            assertEquals(expected.getSum(), actual.getSum(), request.toString());
+            assertEquals(expected.getAvg(), actual.getAvg(), request.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "%!; 27,28",
+            "wow!!; 28",
+            "WOW!; 27",
+            "%!%; 27,28",
+            "50%; 26",
+            "a_b|wow!; 27,29",
+            "null; 5,10,15,20,25"
+    })
+    @DisplayName("Native like patterns match '!' literally, '%' and '_' as wildcards, and 'null' as is null")
+    void native_likePatterns(String userName, String ids) {
+        ViewtonRepository nativeSql = database.repository(properties -> properties.setEngine(ViewtonEngine.NATIVE));
+
+        ViewtonResponseDto<TestPayment> response = nativeSql.list(
+                Map.of("userName", userName, "sorting", "id"), TestPayment.class);
+
+        assertEquals(ids, response.getList().stream().map(payment -> String.valueOf(payment.getId()))
+                .collect(Collectors.joining(",")));
+    }
+}
@@ -0,0 +1,165 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonQueryCache;
+import com.viewton.ViewtonRepository;
+import com.viewton.ViewtonResultCache;
+import com.viewton.concurrent.ViewtonQueryExecutor;
+import com.viewton.concurrent.ViewtonSingleFlight;
+import com.viewton.config.ViewtonProperties;
+import com.viewton.mapper.RowMapperFactory;
+import com.viewton.sql.SqlPlanCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory H2 database of {@link TestPayment}s, and repositories querying it with adjusted properties.
+ * Every fifth payment has no user name, and every seventh has no conclusion date.
+ */
+public class TestDatabase implements AutoCloseable {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final SessionFactory sessionFactory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final List<ViewtonQueryExecutor> executors = new ArrayList<>();
+    private final Map<String, Runnable> beforeStatement = new ConcurrentHashMap<>();
+
+    public TestDatabase(int payments) {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(TestPayment.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:viewton-test-" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setStatementInspector(sql -> {
+                    beforeStatement.keySet().stream()
+                            .filter(sql::contains)
+                            .map(beforeStatement::remove)
+                            .forEach(Runnable::run);
+                    return sql;
+                })
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            for (long id = 1; id <= payments; id++) {
+                TestPayment payment = new TestPayment();
+                payment.setId(id);
+                payment.setCurrencyCode(id % 2 == 0 ? "USD" : "EUR");
+                payment.setUserName(id % 5 == 0 ? null : "user" + id % 7);
+                payment.setAmount(id * 10);
+                payment.setRate(BigDecimal.valueOf(id * 25, 2));
+                payment.setConclusionDate(id % 7 == 0 ? null : LocalDate.of(2025, 1, 1).plusDays(id % 28));
+                payment.setStatus(id % 3 == 0 ? TestPayment.Status.PAID : TestPayment.Status.NEW);
+                session.persist(payment);
+            }
+        });
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        transaction = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+        transaction.setReadOnly(true);
+    }
+
+    /**
+     * Performs the action in a read-only transaction, as required by the repository methods of a single query.
+     */
+    public <R> R inTransaction(Supplier<R> action) {
+        return transaction.execute(status -> action.get());
+    }
+
+    /**
+     * Inserts a payment of the user, which attributes are not used by the other payments.
+     */
+    public void insert(long id, String userName) {
+        sessionFactory.inTransaction(session -> session.persist(payment(id, userName)));
+    }
+
+    /**
+     * Inserts a payment of the user in a read-write transaction, which is rolled back after the action,
+     * so the payment is visible only within the action.
+     */
+    public <R> R withUncommitted(long id, String userName, Supplier<R> action) {
+        TransactionTemplate readWrite = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+        return readWrite.execute(status -> {
+            status.setRollbackOnly();
+            entityManager.persist(payment(id, userName));
+            entityManager.flush();
+            return action.get();
+        });
+    }
+
+    private static TestPayment payment(long id, String userName) {
+        TestPayment payment = new TestPayment();
+        payment.setId(id);
+        payment.setCurrencyCode("GBP");
+        payment.setUserName(userName);
+        payment.setAmount(id * 10);
+        payment.setRate(BigDecimal.ONE);
+        payment.setStatus(TestPayment.Status.NEW);
+        return payment;
+    }
+
+    /**
+     * Deletes the payments in a separate transaction once the next statement containing the SQL fragment
+     * is prepared, e.g. between the queries of a single request.
+     */
+    public void deleteBefore(String fragment, List<Long> ids) {
+        beforeStatement.put(fragment, () -> sessionFactory.inTransaction(session -> session
+                .createMutationQuery("delete from TestPayment where id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate()));
+    }
+
+    /**
+     * Checks if a statement containing the SQL fragment is prepared while the action is performed.
+     */
+    public boolean executes(String fragment, Runnable action) {
+        AtomicBoolean executed = new AtomicBoolean();
+        beforeStatement.put(fragment, () -> executed.set(true));
+        try {
+            action.run();
+        } finally {
+            beforeStatement.remove(fragment);
+        }
+
+        return executed.get();
+    }
+
+    /**
+     * Creates a repository.
+     *
+     * @param customizer Adjusts the default properties.
+     * @return The repository.
+     */
+    public ViewtonRepository repository(Consumer<ViewtonProperties> customizer) {
+        ViewtonProperties properties = new ViewtonProperties();
+        customizer.accept(properties);
+        ViewtonQueryExecutor executor = new ViewtonQueryExecutor(
+                new JpaTransactionManager(sessionFactory), properties, null);
+        executors.add(executor);
+
+        return new ViewtonRepository(
+                properties, entityManager, executor,
+                new SqlPlanCache(1000, 0), new ViewtonQueryCache(1000, 0), new RowMapperFactory(1000),
+                new ViewtonSingleFlight(false, 0), new ViewtonResultCache(0, 0, 0, 0, 0, "", null));
+    }
+
+    @Override
+    public void close() {
+        executors.forEach(ViewtonQueryExecutor::destroy);
+        sessionFactory.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.viewton.h2;
+
+import com.viewton.lang.AvgAlias;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Transient;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+public class TestPayment {
+    @Id
+    private Long id;
+    private String currencyCode;
+    private String userName;
+    @AvgAlias(mapTo = "amountAvg")
+    private Long amount;
+    private BigDecimal rate;
+    private LocalDate conclusionDate;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    @Transient
+    private Double amountAvg;
+
+    public enum Status {
+        NEW, PAID
+    }
+}
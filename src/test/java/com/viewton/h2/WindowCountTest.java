@@ -0,0 +1,102 @@
+package com.viewton.h2;
+
+import com.viewton.ViewtonCountStrategy;
+import com.viewton.ViewtonEngine;
+import com.viewton.ViewtonRepository;
+import com.viewton.dto.ViewtonResponseDto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WindowCountTest {
+
+    private static TestDatabase database;
+
+    @BeforeAll
+    static void setUp() {
+        database = new TestDatabase(25);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonEngine.class)
+    @DisplayName("Count selected by the window function is the same as the separate count")
+    void window_sameAsSeparate(ViewtonEngine engine) {
+        ViewtonRepository window = repository(engine, ViewtonCountStrategy.WINDOW);
+        ViewtonRepository separate = repository(engine, ViewtonCountStrategy.SEPARATE);
+
+        List<Map<String, String>> requests = List.of(
+                Map.of("count", "true"),
+                Map.of("currencyCode", "USD", "sorting", "-amount", "page_size", "5", "page", "2", "count", "true"),
+                Map.of("sorting", "id", "page_size", "10", "page", "3", "count", "true"),
+                Map.of("sorting", "id", "page_size", "5", "page", "9", "count", "true", "has_next", "true"),
+                Map.of("status", "PAID", "sorting", "id", "page_size", "2", "page", "2", "count", "true",
+                        "has_next", "true"),
+                Map.of("attributes", "currencyCode", "distinct", "true", "sorting", "currencyCode", "count", "true"),
+                Map.of("attributes", "status,currencyCode", "distinct", "true", "sorting", "status,currencyCode",
+                        "page_size", "3", "page", "2", "count", "true"),
+                Map.of("sum", "amount", "avg", "amount", "sorting", "id", "page_size", "4", "page", "3",
+                        "count", "true")
+        );
+        for (Map<String, String> request : requests) {
+            ViewtonResponseDto<TestPayment> expected = separate.list(request, TestPayment.class);
+            ViewtonResponseDto<TestPayment> actual = window.list(request, TestPayment.class);
+
+            assertEquals(expected.getCount(), actual.getCount(), request.toString());
+            assertEquals(expected.getList(), actual.getList(), request.toString());
+            assertEquals(expected.getHasNext(), actual.getHasNext(), request.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonEngine.class)
+    @DisplayName("Page is partially filled, the count is read from its rows")
+    void window_lastPage(ViewtonEngine engine) {
+        ViewtonResponseDto<TestPayment> response = repository(engine, ViewtonCountStrategy.WINDOW).list(
+                Map.of("sorting", "id", "page_size", "10", "page", "3", "count", "true"), TestPayment.class);
+
+        assertEquals(5, response.getList().size());
+        assertEquals(25L, response.getCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonEngine.class)
+    @DisplayName("Offset is past the last row, the count is still the number of matching entities")
+    void window_offsetPastEnd(ViewtonEngine engine) {
+        ViewtonResponseDto<TestPayment> response = repository(engine, ViewtonCountStrategy.WINDOW).list(
+                Map.of("sorting", "id", "page_size", "10", "page", "4", "count", "true"), TestPayment.class);
+
+        assertTrue(response.getList().isEmpty());
+        assertEquals(25L, response.getCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ViewtonEngine.class)
+    @DisplayName("Nothing matches the filter, the count is zero")
+    void window_emptySelection(ViewtonEngine engine) {
+        ViewtonResponseDto<TestPayment> response = repository(engine, ViewtonCountStrategy.WINDOW).list(
+                Map.of("amount", ">1000", "page_size", "5", "page", "2", "count", "true"), TestPayment.class);
+
+        assertTrue(response.getList().isEmpty());
+        assertEquals(0L, response.getCount());
+    }
+
+    private static ViewtonRepository repository(ViewtonEngine engine, ViewtonCountStrategy countStrategy) {
+        return database.repository(properties -> {
+            properties.setEngine(engine);
+            properties.getCount().setStrategy(countStrategy);
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.viewton.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonWriterTest {
+
+    @Test
+    @DisplayName("Rows are written as objects of selected attributes")
+    void rows_writesObjects() {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+
+        json.beginObject()
+                .name("list").rows(List.of("name", "amount", "rate"), List.of(
+                        new Object[]{"John", 10L, new BigDecimal("1.50"), "ignored"},
+                        new Object[]{null, -1, 2.5}))
+                .name("sum").rows(List.of("amount"), Collections.singletonList(new Object[0]))
+                .name("avg").rows(List.of("amount"), null)
+                .name("count").value(2L)
+                .endObject()
+                .flush();
+
+        assertEquals("{\"list\":[{\"name\":\"John\",\"amount\":10,\"rate\":1.50},"
+                + "{\"name\":null,\"amount\":-1,\"rate\":2.5}],"
+                + "\"sum\":[{\"amount\":null}],\"avg\":null,\"count\":2}", out.toString());
+    }
+
+    @Test
+    @DisplayName("Values are written the way Jackson writes them")
+    void value_writesLikeJackson() {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+
+        json.beginArray()
+                .value("a\"b\\c\nd\u0001")
+                .value(true)
+                .value(Double.NaN)
+                .value(Month.MAY)
+                .value(LocalDate.of(2024, 1, 2))
+                .value(LocalDateTime.of(2024, 1, 2, 3, 4))
+                .value(new byte[]{1, 2})
+                .beginArray().endArray()
+                .endArray();
+
+        assertEquals("[\"a\\\"b\\\\c\\nd\\u0001\",true,\"NaN\",\"MAY\",\"2024-01-02\",\"2024-01-02T03:04:00\","
+                + "\"AQI=\",[]]", out.toString());
+    }
+}
@@ -0,0 +1,139 @@
+package com.viewton.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowMapperFactoryTest {
+
+    @Test
+    @DisplayName("Values are assigned by setters, fields and inherited properties")
+    void map_assignsProperties() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+
+        Row row = factory.get(Row.class, List.of("name", "amount", "rate", "id"))
+                .map(new Object[]{"John", 10, BigDecimal.ONE, 7L, "ignored"});
+
+        assertEquals("John!", row.name);
+        assertEquals(10L, row.amount);
+        assertEquals(BigDecimal.ONE, row.rate);
+        assertEquals(7L, row.getId());
+    }
+
+    @Test
+    @DisplayName("Numbers are converted to the numeric types of properties")
+    void map_convertsNumbers() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+        Object[] values = {"John", 12.5, 1.5, 7.9};
+
+        Row row = factory.get(Row.class, List.of("name", "amount", "rate", "id")).map(values);
+        NameRecord record = factory.get(NameRecord.class, List.of("name", "amount", "rate")).map(values);
+        NameView view = factory.get(NameView.class, List.of("name", "amount")).map(values);
+
+        assertEquals(12L, row.amount);
+        assertEquals(new BigDecimal("1.5"), row.rate);
+        assertEquals(7L, row.getId());
+        assertEquals(new NameRecord("John", 12L, new BigDecimal("1.5")), record);
+        assertEquals(12L, view.amount());
+        assertEquals(new BigDecimal("2"), factory.get(NameRecord.class, List.of("rate")).map(new Object[]{2}).rate());
+    }
+
+    @Test
+    @DisplayName("Mapper of the same aliases is created once")
+    void get_cachesMapper() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+
+        RowMapper<Row> mapper = factory.get(Row.class, List.of("name"));
+
+        assertSame(mapper, factory.get(Row.class, List.of("name")));
+        assertNull(factory.get(Row.class, List.of()).map(new Object[0]).name);
+        assertEquals(1, factory.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Unknown properties and mismatching values are rejected")
+    void map_rejectsInvalid() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+
+        assertThrows(IllegalArgumentException.class, () -> factory.get(Row.class, List.of("unknown")));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> factory.get(Row.class, List.of("amount")).map(new Object[]{null}));
+        assertTrue(e.getMessage().contains("amount"));
+    }
+
+    @Test
+    @DisplayName("Rows are mapped to records, interfaces, maps and arrays")
+    void map_projections() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+        Object[] row = {"John", 10L, 3};
+
+        NameRecord record = factory.get(NameRecord.class, List.of("name", "amount")).map(row);
+        NameView view = factory.get(NameView.class, List.of("name", "amount")).map(row);
+        Map<?, ?> map = factory.get(Map.class, List.of("name", "amount")).map(row);
+        Object[] array = factory.get(Object[].class, List.of("name", "amount")).map(row);
+
+        assertEquals(new NameRecord("John", 10L, null), record);
+        assertEquals("John", view.getName());
+        assertEquals(10L, view.amount());
+        assertEquals("JOHN", view.upperName());
+        assertEquals(Map.of("name", "John", "amount", 10L), map);
+        assertEquals(List.of("name", "amount"), List.copyOf(map.keySet()));
+        assertArrayEquals(new Object[]{"John", 10L}, array);
+        assertEquals(List.of("name", "amount", "rate"), factory.getProjectedProperties(NameRecord.class));
+        assertNull(factory.getProjectedProperties(Row.class));
+    }
+
+    @Test
+    @DisplayName("Attributes are validated against projections")
+    void get_validatesProjection() {
+        RowMapperFactory factory = new RowMapperFactory(10);
+
+        assertThrows(IllegalArgumentException.class, () -> factory.get(NameRecord.class, List.of("unknown")));
+        assertThrows(IllegalArgumentException.class, () -> factory.get(NameView.class, List.of("name", "rate")));
+        assertThrows(IllegalArgumentException.class, () -> factory.get(NameView.class, List.of("name")));
+    }
+
+    record NameRecord(String name, Long amount, BigDecimal rate) {
+    }
+
+    public interface NameView {
+        String getName();
+
+        long amount();
+
+        default String upperName() {
+            return getName().toUpperCase();
+        }
+    }
+
+    static class Base {
+        private Long id;
+
+        Long getId() {
+            return id;
+        }
+    }
+
+    static class Row extends Base {
+        private String name;
+        private long amount;
+        private BigDecimal rate;
+
+        private Row() {
+        }
+
+        void setName(String name) {
+            this.name = name + "!";
+        }
+    }
+}
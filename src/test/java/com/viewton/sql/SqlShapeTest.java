@@ -0,0 +1,40 @@
+package com.viewton.sql;
+
+import com.viewton.ViewtonQueryMapper;
+import com.viewton.dto.ViewtonQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class SqlShapeTest {
+
+    @Test
+    @DisplayName("Queries which differ only by values share the shape")
+    void list_sameShapeForDifferentValues() {
+        assertEquals(
+                shape(Map.of("amount", ">100", "currencyCode", "USD", "sorting", "-date")),
+                shape(Map.of("amount", ">200", "currencyCode", "EUR", "sorting", "-date")));
+    }
+
+    @Test
+    @DisplayName("Operators, case sensitivity, null markers and sorting change the shape")
+    void list_differentShapes() {
+        SqlShape shape = shape(Map.of("currencyCode", "USD", "sorting", "-date"));
+
+        assertNotEquals(shape, shape(Map.of("currencyCode", "<>USD", "sorting", "-date")));
+        assertNotEquals(shape, shape(Map.of("currencyCode", "^USD", "sorting", "-date")));
+        assertNotEquals(shape, shape(Map.of("currencyCode", "null", "sorting", "-date")));
+        assertNotEquals(shape, shape(Map.of("currencyCode", "USD|EUR", "sorting", "-date")));
+        assertNotEquals(shape, shape(Map.of("currencyCode", "USD", "sorting", "date")));
+    }
+
+    private SqlShape shape(Map<String, String> request) {
+        ViewtonQuery query = ViewtonQueryMapper.of(request, 50);
+        return SqlShape.list(Object.class, query, List.of("amount"), false, List.of(false, true));
+    }
+}